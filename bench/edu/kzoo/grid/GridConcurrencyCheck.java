@@ -0,0 +1,329 @@
+// Class: GridConcurrencyCheck
+//
+// Author: Alyce Brady
+//
+// License Information:
+//   This class is free software; you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation.
+//
+//   This class is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+
+package edu.kzoo.grid;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ *  Grid Container Package:<br>
+ *
+ *  The <code>GridConcurrencyCheck</code> class checks that a grid stays
+ *  consistent while several threads add, remove, and move objects in it
+ *  at once, first in a <code>StripedGrid</code> and then in a
+ *  <code>BoundedGrid</code> in read/write locking mode.  Each modifying
+ *  thread owns its own objects and keeps count of how many of them are
+ *  in the grid.  Meanwhile a checking thread repeatedly takes the whole
+ *  grid with <code>batch</code>, which shuts out the modifying threads,
+ *  and verifies that <code>numObjects</code>, a scan of every cell with
+ *  <code>objectAt</code>, <code>allObjects</code>, and the snapshot
+ *  iterator all agree, and that every object found is at the location
+ *  it reports.  A reading thread also iterates over the grid without
+ *  locking it and verifies that no snapshot lists an object twice.
+ *  When the threads stop, the grid's contents are compared with the
+ *  objects the modifying threads believe they have in it.
+ *
+ *  <p>
+ *  Run it from the command line, optionally giving the number of
+ *  modifying threads and the number of milliseconds to run each grid:
+ *    <pre><code>
+ *       java edu.kzoo.grid.GridConcurrencyCheck [threads [millis]]
+ *    </code></pre>
+ *  It prints the first inconsistency it finds and exits with status 1,
+ *  or prints <code>OK</code> and the number of operations performed for
+ *  each grid.  This class is a checking tool, not part of the package,
+ *  and is kept apart from the package sources.
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ **/
+public class GridConcurrencyCheck
+{
+    // Rows and columns of the grids to check.
+    private static final int SIZE = 48;
+
+    /** Runs the check on each kind of grid.
+     *  @param args  optional number of modifying threads and number of
+     *               milliseconds to run each grid
+     **/
+    public static void main(String[] args) throws InterruptedException
+    {
+        int numThreads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+
+        Grid striped = new StripedGrid(false, SIZE, SIZE, 4);
+        Grid readWrite = new BoundedGrid(SIZE, SIZE);
+        readWrite.useReadWriteLocking();
+        Grid[] grids = { striped, readWrite };
+        String[] names = { "striped", "read/write" };
+        for ( int i = 0; i < grids.length; i++ )
+        {
+            String failure = check(grids[i], numThreads, millis);
+            if ( failure != null )
+            {
+                System.out.println(failure + " in the " + names[i] +
+                                   " grid");
+                System.exit(1);
+            }
+        }
+        System.out.println("OK");
+    }
+
+    /** Runs the modifying, checking, and reading threads on a grid for
+     *  the given time and returns a description of the first
+     *  inconsistency found, or <code>null</code> if there is none.
+     **/
+    private static String check(final Grid grid, int numThreads,
+                                long millis)
+        throws InterruptedException
+    {
+        final AtomicBoolean stop = new AtomicBoolean(false);
+        final AtomicReference<String> failure = new AtomicReference<String>();
+        Modifier[] modifiers = new Modifier[numThreads];
+        List<Thread> threads = new ArrayList<Thread>();
+        for ( int i = 0; i < numThreads; i++ )
+        {
+            modifiers[i] = new Modifier(grid, i + 1, stop, failure);
+            threads.add(modifiers[i]);
+        }
+        final long[] checks = { 0 };
+        threads.add(new Thread() {
+            public void run()
+            {
+                while ( ! stop.get() && failure.get() == null )
+                {
+                    grid.batch(new Grid.BatchOperation() {
+                        public void applyTo(Grid g)
+                        {
+                            String found = checkContents(g);
+                            if ( found != null )
+                                failure.compareAndSet(null, found);
+                        }});
+                    checks[0]++;
+                    Thread.yield();
+                }
+            }});
+        threads.add(new Thread() {
+            public void run()
+            {
+                while ( ! stop.get() && failure.get() == null )
+                {
+                    Map<GridObject, Boolean> seen =
+                                new IdentityHashMap<GridObject, Boolean>();
+                    for ( GridObject obj : grid )
+                        if ( seen.put(obj, Boolean.TRUE) != null )
+                            failure.compareAndSet(null, "An unlocked " +
+                                "snapshot lists " + obj + " twice");
+                }
+            }});
+
+        for ( Thread thread : threads )
+            thread.start();
+        Thread.sleep(millis);
+        stop.set(true);
+        for ( Thread thread : threads )
+            thread.join();
+        if ( failure.get() != null )
+            return failure.get();
+
+        // With every thread stopped, the grid should hold exactly the
+        // objects the modifying threads placed in it.
+        String found = checkContents(grid);
+        if ( found != null )
+            return found;
+        int expected = 0;
+        long operations = 0;
+        for ( Modifier modifier : modifiers )
+        {
+            for ( Block block : modifier.placed )
+                if ( block.grid() != grid ||
+                     grid.objectAt(block.location()) != block )
+                    return block + " is not where its thread left it";
+            expected += modifier.placed.size();
+            operations += modifier.operations;
+        }
+        if ( grid.numObjects() != expected )
+            return "numObjects is " + grid.numObjects() + ", not " +
+                   expected;
+        System.out.println(operations + " operations and " + checks[0] +
+                           " locked checks on a " + grid.getClass()
+                                                         .getSimpleName());
+        return null;
+    }
+
+    /** Verifies that the ways of counting and listing a grid's objects
+     *  agree, and returns a description of the first disagreement, or
+     *  <code>null</code> if there is none.  The caller has the grid to
+     *  itself.
+     **/
+    private static String checkContents(Grid grid)
+    {
+        Map<GridObject, Boolean> scanned =
+                                new IdentityHashMap<GridObject, Boolean>();
+        for ( int row = 0; row < grid.numRows(); row++ )
+            for ( int col = 0; col < grid.numCols(); col++ )
+            {
+                GridObject obj = grid.objectAt(row, col);
+                if ( obj == null )
+                    continue;
+
+                // An object removing itself forgets its grid before it
+                // asks the grid for the lock, so it may still be found
+                // in its cell with no grid.
+                if ( ( obj.grid() != grid && obj.grid() != null ) ||
+                     ! obj.location().equals(new Location(row, col)) )
+                    return obj + " is found at (" + row + ", " + col +
+                           ") but reports " + obj.location() + " in " +
+                           obj.grid();
+                if ( scanned.put(obj, Boolean.TRUE) != null )
+                    return obj + " is found in two cells";
+            }
+
+        int numObjects = grid.numObjects();
+        if ( numObjects != scanned.size() )
+            return "numObjects is " + numObjects + " but " +
+                   scanned.size() + " cells are occupied";
+        GridObject[] all = grid.allObjects();
+        if ( all.length != numObjects )
+            return "allObjects lists " + all.length + " objects, not " +
+                   numObjects;
+        for ( GridObject obj : all )
+            if ( ! scanned.containsKey(obj) )
+                return "allObjects lists " + obj + ", which is in no cell";
+        int iterated = 0;
+        for ( GridObject obj : grid )
+        {
+            if ( ! scanned.containsKey(obj) )
+                return "The snapshot lists " + obj + ", which is in no " +
+                       "cell";
+            iterated++;
+        }
+        if ( iterated != numObjects )
+            return "The snapshot lists " + iterated + " objects, not " +
+                   numObjects;
+        return null;
+    }
+
+
+    /** A <code>Block</code> is an object that a modifying thread can
+     *  move.
+     **/
+    private static class Block extends GridObject
+    {
+        void moveTo(Location loc)
+        {
+            changeLocation(loc);
+        }
+    }
+
+
+    /** A <code>Modifier</code> thread adds, removes, and moves its own
+     *  objects at random locations until it is stopped, keeping a list
+     *  of those it has in the grid.  An addition or move to a location
+     *  that another thread has just taken fails with an
+     *  <code>IllegalArgumentException</code>, which leaves the grid
+     *  unchanged.
+     **/
+    private static class Modifier extends Thread
+    {
+        private final Grid grid;
+        private final Random random;
+        private final AtomicBoolean stop;
+        private final AtomicReference<String> failure;
+        final List<Block> placed = new ArrayList<Block>();
+        long operations = 0;
+
+        Modifier(Grid grid, long seed, AtomicBoolean stop,
+                 AtomicReference<String> failure)
+        {
+            this.grid = grid;
+            this.random = new Random(seed);
+            this.stop = stop;
+            this.failure = failure;
+        }
+
+        public void run()
+        {
+            while ( ! stop.get() && failure.get() == null )
+            {
+                int choice = random.nextInt(3);
+                if ( choice == 0 || placed.isEmpty() )
+                    add();
+                else if ( choice == 1 )
+                    remove();
+                else
+                    move();
+                operations++;
+            }
+        }
+
+        private void add()
+        {
+            Block block = new Block();
+            try
+            {
+                grid.add(block, randomLocation());
+                placed.add(block);
+            }
+            catch (IllegalArgumentException e)
+            {
+                if ( block.grid() != null )
+                    failure.compareAndSet(null, "A failed addition left " +
+                                          block + " in the grid");
+            }
+        }
+
+        private void remove()
+        {
+            Block block = placed.remove(random.nextInt(placed.size()));
+            grid.remove(block);
+            if ( block.grid() != null )
+                failure.compareAndSet(null, block + " is still in the " +
+                                      "grid after its removal");
+        }
+
+        private void move()
+        {
+            Block block = placed.get(random.nextInt(placed.size()));
+            Location from = block.location();
+            Location to = randomLocation();
+            try
+            {
+                block.moveTo(to);
+                if ( ! block.location().equals(to) )
+                    failure.compareAndSet(null, block + " did not move to " +
+                                          to);
+            }
+            catch (IllegalArgumentException e)
+            {
+                if ( ! from.equals(block.location()) )
+                    failure.compareAndSet(null, "A failed move left " +
+                                          block + " at " +
+                                          block.location());
+            }
+        }
+
+        private Location randomLocation()
+        {
+            return new Location(random.nextInt(SIZE), random.nextInt(SIZE));
+        }
+    }
+
+}
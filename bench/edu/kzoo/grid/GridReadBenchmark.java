@@ -0,0 +1,119 @@
+// Class: GridReadBenchmark
+//
+// Author: Alyce Brady
+//
+// License Information:
+//   This class is free software; you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation.
+//
+//   This class is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+
+package edu.kzoo.grid;
+
+import edu.kzoo.util.ThroughputBenchmark;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *  Grid Container Package:<br>
+ *
+ *  The <code>GridReadBenchmark</code> class measures how the read
+ *  throughput of a grid scales with the number of reading threads, first
+ *  in the grid's default concurrency mode (every access synchronized on
+ *  the grid) and then in read/write locking mode.  Each reading thread
+ *  calls <code>objectAt</code> at pseudo-random locations of a half-full
+ *  <code>BoundedGrid</code>, and also calls <code>numObjects</code> once
+ *  in every 64 reads.  With synchronized access, adding threads adds
+ *  contention for the grid's monitor; in read/write mode, reads take no
+ *  lock, so throughput should grow with the number of cores.
+ *
+ *  <p>
+ *  Run it from the command line, optionally giving the largest number of
+ *  threads and the number of milliseconds to measure each run:
+ *    <pre><code>
+ *       java edu.kzoo.grid.GridReadBenchmark [maxThreads [millis]]
+ *    </code></pre>
+ *  The defaults are the number of available processors and 1000
+ *  milliseconds (see <code>edu.kzoo.util.ThroughputBenchmark</code>).
+ *  This class is a measuring tool, not part of the package, and is kept
+ *  apart from the package sources.
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ **/
+public class GridReadBenchmark
+{
+    private static final int SIZE = 500;
+
+    /** Runs the benchmark for 1, 2, 4, ... threads in each mode and
+     *  prints the number of reads per second.
+     *  @param args  optional largest number of threads and number of
+     *               milliseconds per run
+     **/
+    public static void main(String[] args) throws InterruptedException
+    {
+        int maxThreads = ThroughputBenchmark.maxThreads(args);
+        long millis = ThroughputBenchmark.millis(args);
+
+        boolean[] readWriteModes = { false, true };
+        for ( boolean readWrite : readWriteModes )
+            ThroughputBenchmark.measure(readWrite ? "read/write  "
+                                                  : "synchronized",
+                                        "reads", reads(makeGrid(readWrite)),
+                                        maxThreads, millis);
+    }
+
+    /** Returns a grid half full of objects, in the given mode.
+     **/
+    private static Grid makeGrid(boolean readWrite)
+    {
+        Grid grid = new BoundedGrid(SIZE, SIZE);
+        if ( readWrite )
+            grid.useReadWriteLocking();
+        Random random = new Random(17);
+        for ( int i = 0; i < SIZE * SIZE / 2; i++ )
+        {
+            Location loc = new Location(random.nextInt(SIZE),
+                                        random.nextInt(SIZE));
+            if ( grid.isEmpty(loc) )
+                grid.add(new GridObject(), loc);
+        }
+        return grid;
+    }
+
+    /** Returns the work of one reading thread on the given grid.
+     **/
+    private static ThroughputBenchmark.Workload reads(final Grid grid)
+    {
+        return new ThroughputBenchmark.Workload() {
+            public long run(int thread, AtomicBoolean stop,
+                            AtomicLong checksum)
+            {
+                int x = thread + 1;
+                long reads = 0;
+                long found = 0;
+                while ( ! stop.get() )
+                {
+                    for ( int j = 0; j < 64; j++ )
+                    {
+                        x = x * 1103515245 + 12345;
+                        int row = ((x >>> 8) & 0xffff) % SIZE;
+                        int col = (x >>> 16) % SIZE;
+                        if ( grid.objectAt(row, col) != null )
+                            found++;
+                    }
+                    found += grid.numObjects();
+                    reads += 65;
+                }
+                checksum.addAndGet(found);
+                return reads;
+            }};
+    }
+
+}
@@ -0,0 +1,189 @@
+// Class: LifeGridCheck
+//
+// Author: Alyce Brady
+//
+// License Information:
+//   This class is free software; you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation.
+//
+//   This class is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+
+package edu.kzoo.grid;
+
+import java.util.Random;
+
+/**
+ *  Grid Container Package:<br>
+ *
+ *  The <code>LifeGridCheck</code> class checks the word-parallel step of
+ *  a <code>LifeGrid</code> against a straightforward cell-by-cell
+ *  implementation of the Game of Life.  For grids of several sizes
+ *  (including widths that are not a multiple of 64 and grids narrower
+ *  than a word), with bounded and toroidal edges, and stepped on one
+ *  thread and on several bands, it fills a grid at random, steps it and
+ *  a plain <code>boolean</code> array side by side, and compares every
+ *  cell and the number of live cells after each step.  It then times the
+ *  step on a large grid.
+ *
+ *  <p>
+ *  Run it from the command line, optionally giving the number of steps
+ *  to compare for each grid:
+ *    <pre><code>
+ *       java edu.kzoo.grid.LifeGridCheck [steps]
+ *    </code></pre>
+ *  It prints the first difference it finds and exits with status 1, or
+ *  prints <code>OK</code> and the speed of the step.  This class is a
+ *  checking tool, not part of the package, and is kept apart from the
+ *  package sources.
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ **/
+public class LifeGridCheck
+{
+    // Rows and columns of the grids to check.
+    private static final int[][] SIZES = { { 5, 1 }, { 3, 3 }, { 7, 63 },
+                                           { 9, 64 }, { 40, 65 },
+                                           { 70, 130 }, { 100, 200 } };
+
+    // Number of bands in which to step each grid.
+    private static final int[] BANDS = { 1, 4 };
+
+    // Rows and columns of the grid to time, and the steps to time.
+    private static final int TIMED_SIZE = 2048;
+    private static final int TIMED_STEPS = 100;
+
+    /** Runs the check and the timing.
+     *  @param args  optional number of steps to compare for each grid
+     **/
+    public static void main(String[] args)
+    {
+        int steps = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        Random random = new Random(1);
+
+        boolean[] edges = { false, true };
+        for ( int[] size : SIZES )
+            for ( boolean toroidal : edges )
+                for ( int bands : BANDS )
+                {
+                    String failure = check(size[0], size[1], toroidal,
+                                           bands, steps, random);
+                    if ( failure != null )
+                    {
+                        System.out.println(failure);
+                        System.exit(1);
+                    }
+                }
+        System.out.println("OK");
+
+        LifeGrid grid = new LifeGrid(TIMED_SIZE, TIMED_SIZE, true);
+        fill(grid, new boolean[TIMED_SIZE][TIMED_SIZE], random);
+        for ( int i = 0; i < 20; i++ )
+            grid.step();
+        long start = System.nanoTime();
+        for ( int i = 0; i < TIMED_STEPS; i++ )
+            grid.step();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println((long) ((double) TIMED_SIZE * TIMED_SIZE *
+                                   TIMED_STEPS / seconds)
+                           + " cells/sec on a " + TIMED_SIZE + " x " +
+                           TIMED_SIZE + " grid");
+    }
+
+    /** Steps a randomly filled grid and the same cells in an array side
+     *  by side, and returns a description of the first difference, or
+     *  <code>null</code> if there is none.
+     **/
+    private static String check(int rows, int cols, boolean toroidal,
+                                int bands, int steps, Random random)
+    {
+        LifeGrid grid = new LifeGrid(rows, cols, toroidal);
+        boolean[][] cells = new boolean[rows][cols];
+        fill(grid, cells, random);
+        for ( int step = 1; step <= steps; step++ )
+        {
+            grid.step(bands);
+            cells = naiveStep(cells, toroidal);
+            int alive = 0;
+            for ( int row = 0; row < rows; row++ )
+                for ( int col = 0; col < cols; col++ )
+                {
+                    if ( grid.isAlive(row, col) != cells[row][col] )
+                        return "Cell (" + row + ", " + col + ") differs" +
+                               describe(rows, cols, toroidal, bands, step);
+                    if ( cells[row][col] )
+                        alive++;
+                }
+            if ( grid.numObjects() != alive )
+                return "numObjects is " + grid.numObjects() + ", not " +
+                       alive + describe(rows, cols, toroidal, bands, step);
+        }
+        return null;
+    }
+
+    /** Describes the grid and step at which a difference was found.
+     **/
+    private static String describe(int rows, int cols, boolean toroidal,
+                                   int bands, int step)
+    {
+        return " in a " + (toroidal ? "toroidal " : "bounded ") + rows +
+               " x " + cols + " grid stepped in " + bands +
+               " band(s), after step " + step;
+    }
+
+    /** Brings a third of the cells of a grid, and the same cells of an
+     *  array, to life at random.
+     **/
+    private static void fill(LifeGrid grid, boolean[][] cells,
+                             Random random)
+    {
+        for ( int row = 0; row < cells.length; row++ )
+            for ( int col = 0; col < cells[row].length; col++ )
+                if ( random.nextInt(3) == 0 )
+                {
+                    cells[row][col] = true;
+                    grid.setAlive(row, col, true);
+                }
+    }
+
+    /** Returns the next generation of the given cells, counting the
+     *  eight neighbors of each cell one at a time.
+     **/
+    private static boolean[][] naiveStep(boolean[][] cells,
+                                         boolean toroidal)
+    {
+        int rows = cells.length;
+        int cols = cells[0].length;
+        boolean[][] next = new boolean[rows][cols];
+        for ( int row = 0; row < rows; row++ )
+            for ( int col = 0; col < cols; col++ )
+            {
+                int neighbors = 0;
+                for ( int dr = -1; dr <= 1; dr++ )
+                    for ( int dc = -1; dc <= 1; dc++ )
+                    {
+                        if ( dr == 0 && dc == 0 )
+                            continue;
+                        int r = row + dr;
+                        int c = col + dc;
+                        if ( toroidal )
+                        {
+                            r = (r + rows) % rows;
+                            c = (c + cols) % cols;
+                        }
+                        else if ( r < 0 || r >= rows || c < 0 || c >= cols )
+                            continue;
+                        if ( cells[r][c] )
+                            neighbors++;
+                    }
+                next[row][col] = neighbors == 3 ||
+                                 ( neighbors == 2 && cells[row][col] );
+            }
+        return next;
+    }
+
+}
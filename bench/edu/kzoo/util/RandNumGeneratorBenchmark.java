@@ -0,0 +1,88 @@
+// Class: RandNumGeneratorBenchmark
+//
+// Author: Alyce Brady
+//
+// License Information:
+// This class is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation.
+//
+// This class is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+
+package edu.kzoo.util;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *  Kalamazoo College Utility Classes:<br>
+ *
+ *  The <code>RandNumGeneratorBenchmark</code> class measures how fast
+ *  several threads can draw numbers from the shared
+ *  <code>RandNumGenerator</code>, first from its single shared sequence
+ *  and then from thread-local streams (see
+ *  <code>RandNumGenerator.useThreadLocalStreams</code>).  Each thread
+ *  calls <code>nextInt(100)</code> in a loop.  With a shared sequence,
+ *  the threads contend for the atomic update of its seed; with
+ *  thread-local streams, they do not interfere with each other.
+ *
+ *  <p>
+ *  Run it from the command line, optionally giving the largest number of
+ *  threads and the number of milliseconds to measure each run:
+ *    <pre><code>
+ *       java edu.kzoo.util.RandNumGeneratorBenchmark [maxThreads [millis]]
+ *    </code></pre>
+ *  The defaults are the number of available processors and 1000
+ *  milliseconds (see <code>ThroughputBenchmark</code>).  This class is a
+ *  measuring tool, not part of the package, and is kept apart from the
+ *  package sources.
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ **/
+public class RandNumGeneratorBenchmark
+{
+    /** Runs the benchmark for 1, 2, 4, ... threads in each mode and
+     *  prints the number of draws per second.
+     *  @param args  optional largest number of threads and number of
+     *               milliseconds per run
+     **/
+    public static void main(String[] args) throws InterruptedException
+    {
+        int maxThreads = ThroughputBenchmark.maxThreads(args);
+        long millis = ThroughputBenchmark.millis(args);
+
+        final RandNumGenerator generator = RandNumGenerator.getInstance();
+        boolean originalMode = generator.usesThreadLocalStreams();
+        ThroughputBenchmark.Workload drawing =
+                                    new ThroughputBenchmark.Workload() {
+            public long run(int thread, AtomicBoolean stop,
+                            AtomicLong checksum)
+            {
+                long draws = 0;
+                long sum = 0;
+                while ( ! stop.get() )
+                {
+                    for ( int j = 0; j < 64; j++ )
+                        sum += generator.nextInt(100);
+                    draws += 64;
+                }
+                checksum.addAndGet(sum);
+                return draws;
+            }};
+
+        boolean[] threadLocalModes = { false, true };
+        for ( boolean threadLocal : threadLocalModes )
+        {
+            generator.useThreadLocalStreams(threadLocal);
+            ThroughputBenchmark.measure(threadLocal ? "thread-local"
+                                                    : "shared      ",
+                                        "draws", drawing, maxThreads, millis);
+        }
+        generator.useThreadLocalStreams(originalMode);
+    }
+
+}
@@ -0,0 +1,142 @@
+// Class: ThroughputBenchmark
+//
+// Author: Alyce Brady
+//
+// License Information:
+// This class is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation.
+//
+// This class is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+
+package edu.kzoo.util;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *  Kalamazoo College Utility Classes:<br>
+ *
+ *  The <code>ThroughputBenchmark</code> class runs the measuring loop
+ *  shared by the benchmarks kept with it: it runs a workload on 1, 2,
+ *  4, ... threads at once for a fixed time and prints the number of
+ *  operations the threads performed per second.  Each benchmark supplies
+ *  the work of one thread as a <code>Workload</code>, which folds the
+ *  results of its operations into a checksum so that they cannot be
+ *  optimized away.
+ *
+ *  <p>
+ *  The benchmarks using this class take the same optional command-line
+ *  arguments: the largest number of threads (by default, the number of
+ *  available processors) and the number of milliseconds to measure each
+ *  run (by default, 1000).  This class is a measuring tool, not part of
+ *  the package, and is kept apart from the package sources.
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ **/
+public class ThroughputBenchmark
+{
+    /** A <code>Workload</code> performs the work of one measuring
+     *  thread.
+     **/
+    public interface Workload
+    {
+        /** Performs operations on the calling thread until
+         *  <code>stop</code> becomes <code>true</code>, and adds a value
+         *  computed from their results to <code>checksum</code>.
+         *  @param thread    the number of the calling thread, from 0
+         *  @param stop      becomes <code>true</code> when time is up
+         *  @param checksum  the sum of the threads' results
+         *  @return          the number of operations performed
+         **/
+        long run(int thread, AtomicBoolean stop, AtomicLong checksum);
+    }
+
+    /** Returns the largest number of threads given on the command line,
+     *  or the number of available processors.
+     *  @param args  the benchmark's command-line arguments
+     *  @return      the largest number of threads to measure
+     **/
+    public static int maxThreads(String[] args)
+    {
+        return args.length > 0 ? Integer.parseInt(args[0])
+                               : Runtime.getRuntime().availableProcessors();
+    }
+
+    /** Returns the number of milliseconds to measure each run given on
+     *  the command line, or 1000.
+     *  @param args  the benchmark's command-line arguments
+     *  @return      the length of each run, in milliseconds
+     **/
+    public static long millis(String[] args)
+    {
+        return args.length > 1 ? Long.parseLong(args[1]) : 1000;
+    }
+
+    /** Runs a workload once on <code>maxThreads</code> threads to warm
+     *  it up, then on 1, 2, 4, ... threads up to
+     *  <code>maxThreads</code>, printing one line for each run.
+     *  @param label       the name of the configuration measured
+     *  @param unit        the name of the operations counted
+     *  @param workload    the work of each thread
+     *  @param maxThreads  the largest number of threads
+     *  @param millis      the length of each run, in milliseconds
+     **/
+    public static void measure(String label, String unit, Workload workload,
+                               int maxThreads, long millis)
+        throws InterruptedException
+    {
+        // Warm up once so the first measured run is not slowed by
+        // compilation.
+        operationsPerSecond(workload, maxThreads, millis);
+        for ( int threads = 1; threads <= maxThreads; threads *= 2 )
+        {
+            System.out.println(label + "  threads: " + threads + "  " +
+                               unit + "/sec: " +
+                               operationsPerSecond(workload, threads,
+                                                   millis));
+        }
+    }
+
+    /** Runs a workload on the given number of threads for the given time
+     *  and returns the number of operations they performed per second.
+     *  @param workload    the work of each thread
+     *  @param numThreads  the number of threads
+     *  @param millis      the length of the run, in milliseconds
+     *  @return            the operations performed per second
+     **/
+    public static long operationsPerSecond(final Workload workload,
+                                           int numThreads, long millis)
+        throws InterruptedException
+    {
+        final AtomicBoolean stop = new AtomicBoolean(false);
+        final AtomicLong totalOperations = new AtomicLong(0);
+        final AtomicLong checksum = new AtomicLong(0);
+        Thread[] threads = new Thread[numThreads];
+        for ( int i = 0; i < numThreads; i++ )
+        {
+            final int thread = i;
+            threads[i] = new Thread() {
+                public void run()
+                {
+                    totalOperations.addAndGet(workload.run(thread, stop,
+                                                           checksum));
+                }};
+        }
+
+        long start = System.nanoTime();
+        for ( Thread thread : threads )
+            thread.start();
+        Thread.sleep(millis);
+        stop.set(true);
+        for ( Thread thread : threads )
+            thread.join();
+        long elapsed = System.nanoTime() - start;
+        return totalOperations.get() * 1000000000L / elapsed;
+    }
+
+}
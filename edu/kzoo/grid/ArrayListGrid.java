@@ -21,6 +21,8 @@
 package edu.kzoo.grid;
 
 import java.util.ArrayList;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  *  Grid Container Package:<br>
@@ -43,9 +45,14 @@ import java.util.ArrayList;
  *  <tr><td>isEmpty, objectAt</td><td></td><td><i>O</i>(<code>n</code>)</td></tr>
  *  <tr><td>add</td><td></td><td><i>O</i>(<code>1</code>) [amortized]</td></tr>
  *  <tr><td>remove</td><td></td><td><i>O</i>(<code>n</code>)</td></tr>
+ *  <tr><td>removeAll</td><td></td><td><i>O</i>(<code>n</code>)</td></tr>
+ *  <tr><td>objectsInRect</td><td></td><td><i>O</i>(<code>b + k</code>)</td></tr>
  *  <tr><td>space</td><td></td><td><i>O</i>(<code>n</code>)</td></tr>
  *  </table>
- *  where <code>n</code> is the number of objects in the grid.
+ *  where <code>n</code> is the number of objects in the grid,
+ *  <code>b</code> is the number of 16x16 areas (or, if fewer, of occupied
+ *  16x16 areas) overlapping the rectangle, and <code>k</code> is the
+ *  number of objects in those areas.
  *
  *  <p>
  *  The <code>ArrayListGrid</code> classes are based on the
@@ -82,9 +89,14 @@ public class ArrayListGrid
      *  <tr><td>isEmpty, objectAt</td><td></td><td><i>O</i>(<code>n</code>)</td></tr>
      *  <tr><td>add</td><td></td><td><i>O</i>(<code>1</code>) [amortized]</td></tr>
      *  <tr><td>remove</td><td></td><td><i>O</i>(<code>n</code>)</td></tr>
+     *  <tr><td>removeAll</td><td></td><td><i>O</i>(<code>n</code>)</td></tr>
+     *  <tr><td>objectsInRect</td><td></td><td><i>O</i>(<code>b + k</code>)</td></tr>
      *  <tr><td>space</td><td></td><td><i>O</i>(<code>n</code>)</td></tr>
      *  </table>
-     *  where <code>n</code> is the number of objects in the grid.
+     *  where <code>n</code> is the number of objects in the grid,
+     *  <code>b</code> is the number of 16x16 areas (or, if fewer, of occupied
+     *  16x16 areas) overlapping the rectangle, and <code>k</code> is the
+     *  number of objects in those areas.
      **/
     public static class Bounded extends Grid
     {
@@ -177,9 +189,14 @@ public class ArrayListGrid
      *  <tr><td>isEmpty, objectAt</td><td></td><td><i>O</i>(<code>n</code>)</td></tr>
      *  <tr><td>add</td><td></td><td><i>O</i>(<code>1</code>) [amortized]</td></tr>
      *  <tr><td>remove</td><td></td><td><i>O</i>(<code>n</code>)</td></tr>
+     *  <tr><td>removeAll</td><td></td><td><i>O</i>(<code>n</code>)</td></tr>
+     *  <tr><td>objectsInRect</td><td></td><td><i>O</i>(<code>b + k</code>)</td></tr>
      *  <tr><td>space</td><td></td><td><i>O</i>(<code>n</code>)</td></tr>
      *  </table>
-     *  where <code>n</code> is the number of objects in the grid.
+     *  where <code>n</code> is the number of objects in the grid,
+     *  <code>b</code> is the number of 16x16 areas (or, if fewer, of occupied
+     *  16x16 areas) overlapping the rectangle, and <code>k</code> is the
+     *  number of objects in those areas.
      **/
     public static class Unbounded extends Grid
     {
@@ -246,6 +263,7 @@ public class ArrayListGrid
       // instance variables: encapsulated data for each ArrayListGridRep object
         private ArrayList<GridObject> objectList;   // list of objects in a grid
         private Grid.ValidityChecker locationValidityChecker;
+        private SpatialBuckets buckets;             // objects grouped by area
 
       // constructors
 
@@ -257,6 +275,7 @@ public class ArrayListGrid
         {
             objectList = new ArrayList<GridObject>();
             locationValidityChecker = checker;
+            buckets = new SpatialBuckets();
         }
 
 
@@ -272,6 +291,18 @@ public class ArrayListGrid
             return locationValidityChecker.isValid(loc);
         }
 
+        /** Verifies whether the location at the given row and column is
+         *  valid in this grid.
+         *  @param  row    row of the location to check
+         *  @param  col    column of the location to check
+         *  @return <code>true</code> if (<code>row</code>, <code>col</code>)
+         *          is valid; <code>false</code> otherwise
+         **/
+        public boolean isValid(int row, int col)
+        {
+            return locationValidityChecker.isValid(row, col);
+        }
+
         /** Returns the number of objects in this grid.
          *  @return   the number of objects
          **/
@@ -293,6 +324,27 @@ public class ArrayListGrid
             return theObjects;
         }
 
+        /** Performs the given action for each object in this grid,
+         *  visiting the objects in place rather than copying them.
+         *  (Precondition: <code>action</code> does not modify the grid.)
+         *  @param action  the action to perform on each object
+         **/
+        public void forEachObject(Consumer<? super GridObject> action)
+        {
+            for ( int i = 0; i < objectList.size(); i++ )
+                action.accept(objectList.get(i));
+        }
+
+        /** Returns a spliterator over the objects in this grid that
+         *  reads the list of objects in place.
+         *  (Precondition: the grid is not modified during traversal.)
+         *  @return  a spliterator over the objects in this grid
+         **/
+        public Spliterator<GridObject> spliterator()
+        {
+            return objectList.spliterator();
+        }
+
         /** Returns the object at a specific location in this grid.
          *  @param loc    the location in which to look
          *  @return       the object at location <code>loc</code>;
@@ -301,13 +353,45 @@ public class ArrayListGrid
          **/
         public GridObject objectAt(Location loc)
         {
-            int index = indexOf(loc);
+            if ( loc == null )
+                return null;
+
+            return objectAt(loc.row(), loc.col());
+        }
+
+        /** Returns the object at the given row and column in this grid.
+         *  @param row    the row in which to look
+         *  @param col    the column in which to look
+         *  @return       the object at (<code>row</code>, <code>col</code>);
+         *                <code>null</code> if that location is not
+         *                in the grid or is empty
+         **/
+        public GridObject objectAt(int row, int col)
+        {
+            int index = indexOf(row, col);
             if ( index == -1 )
                 return null;
 
             return (GridObject) objectList.get(index);
         }
 
+        /** Performs the given action for each object in the given
+         *  rectangle of locations, looking only at the objects in the
+         *  spatial buckets that overlap the rectangle.
+         *  (Precondition: <code>action</code> does not modify the grid.)
+         *  @param minRow  top row of the rectangle
+         *  @param minCol  leftmost column of the rectangle
+         *  @param maxRow  bottom row of the rectangle
+         *  @param maxCol  rightmost column of the rectangle
+         *  @param action  the action to perform on each object
+         **/
+        public void forEachInRect(int minRow, int minCol,
+                                  int maxRow, int maxCol,
+                                  Consumer<? super GridObject> action)
+        {
+            buckets.forEachInRect(minRow, minCol, maxRow, maxCol, action);
+        }
+
 
       // modifier methods
 
@@ -322,6 +406,8 @@ public class ArrayListGrid
         {
             // Add object to the internal grid representation.
             objectList.add(obj);
+            Location loc = obj.location();
+            buckets.add(obj, loc.row(), loc.col());
         }
 
         /** Removes the object from this internal grid representation.
@@ -332,7 +418,34 @@ public class ArrayListGrid
         public void remove(GridObject obj)
         {
             // Find the index of the object and then remove it.
-            objectList.remove(indexOf(obj.location()));
+            Location loc = obj.location();
+            objectList.remove(indexOf(loc));
+            buckets.remove(obj, loc.row(), loc.col());
+        }
+
+        /** Removes all objects from this internal grid representation.
+         **/
+        public void clear()
+        {
+            objectList.clear();
+            buckets.clear();
+        }
+
+        /** Moves an object from one location in this internal grid
+         *  representation to another.  The list holds the object itself,
+         *  and the object already knows its new location, so the list
+         *  does not change; only the spatial buckets may need updating.
+         *  (Precondition: <code>obj</code> is at <code>from</code>,
+         *   <code>to</code> is a valid empty location, and
+         *   <code>obj.location()</code> is <code>to</code>; verified by
+         *   the <code>Grid</code> object.)
+         *  @param obj     the object to be moved
+         *  @param from    the object's previous location
+         *  @param to      the object's new location
+         **/
+        public void move(GridObject obj, Location from, Location to)
+        {
+            buckets.move(obj, from, to);
         }
 
 
@@ -344,12 +457,23 @@ public class ArrayListGrid
          *                if there is one; -1 otherwise
          **/
         protected int indexOf(Location loc)
+        {
+            return indexOf(loc.row(), loc.col());
+        }
+
+        /** Get the index of the object at the specified row and column.
+         *  @param row    the row in which to look
+         *  @param col    the column in which to look
+         *  @return       the index of the object at (<code>row</code>,
+         *                <code>col</code>) if there is one; -1 otherwise
+         **/
+        protected int indexOf(int row, int col)
         {
             // Look through the list to find the object at the given location.
             for ( int index = 0; index < objectList.size(); index++ )
             {
-                GridObject obj = (GridObject) objectList.get(index);
-                if ( obj.location().equals(loc) )
+                Location objLoc = objectList.get(index).location();
+                if ( objLoc.row() == row && objLoc.col() == col )
                 {
                     // Found the object -- return its index.
                     return index;
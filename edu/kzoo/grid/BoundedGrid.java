@@ -20,6 +20,10 @@
 
 package edu.kzoo.grid;
 
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
 /**
  *  Grid Container Package:<br>
  *
@@ -31,20 +35,24 @@ package edu.kzoo.grid;
  *  biology simulation, etc.
  *
  *  <p>
- *  A <code>BoundedGrid</code> is implemented as a two-dimensional array
- *  corresponding to the dimensions of the grid.  This gives it the
+ *  A <code>BoundedGrid</code> is implemented as a single array of cells,
+ *  in row-major order, corresponding to the dimensions of the grid,
+ *  together with a dense list of the occupied cells.  This gives it the
  *  following time and space characteristics:
  *  <table align="center">
  *  <tr><td>numObjects</td><td width="5"><td><i>O</i>(<code>1</code>)</td></tr>
- *  <tr><td>allObjects</td><td></td><td><i>O</i>(<code>r * c</code>)</td></tr>
+ *  <tr><td>allObjects</td><td></td><td><i>O</i>(<code>n</code>)</td></tr>
  *  <tr><td>isValid, isEmpty, objectAt</td><td></td><td><i>O</i>(<code>1</code>)</td></tr>
  *  <tr><td>add</td><td></td><td><i>O</i>(<code>1</code>)</td></tr>
  *  <tr><td>remove</td><td></td><td><i>O</i>(<code>1</code>)</td></tr>
- *  <tr><td>removeAll</td><td></td><td><i>O</i>(<code>r * c</code>)</td></tr>
+ *  <tr><td>removeAll</td><td></td><td><i>O</i>(<code>n</code>)</td></tr>
+ *  <tr><td>objectsInRect</td><td></td><td><i>O</i>(min(<code>a</code>, <code>n</code>))</td></tr>
  *  <tr><td>space</td><td></td><td><i>O</i>(<code>r * c</code>)</td></tr>
  *  </table>
- *  where <code>r</code> is the number of rows and <code>c</code> is the
- *  number of columns in the grid.
+ *  where <code>r</code> is the number of rows, <code>c</code> is the
+ *  number of columns, <code>n</code> is the number of objects in
+ *  the grid, and <code>a</code> is the area of the query rectangle
+ *  within the grid.
  *
  *  <p>
  *  The <code>BoundedGrid</code> class and its internal 2D array
@@ -126,12 +134,25 @@ public class BoundedGrid extends Grid
   // internal 2D Grid representation
 
     /** The <code>Array2DGridRep</code> class represents an internal bounded
-     *  grid using a two-dimensional array. 
+     *  grid using a single array of cells in row-major order, so the cell
+     *  at (<code>r</code>, <code>c</code>) is at index
+     *  <code>r * numCols + c</code>.  The indices of the occupied cells are
+     *  also kept in a dense registry, so the objects in the grid can be
+     *  found without scanning the empty cells.  Removing an object moves
+     *  the last entry of the registry into the vacated position.
      */
     protected static class Array2DGridRep implements Grid.InternalRepresentation
     {
+      // A grid with fewer than one object per SPARSE_FACTOR cells is
+      // traversed through its registry rather than by scanning rows.
+        private static final int SPARSE_FACTOR = 8;
+
       // instance variables: encapsulated data for each Array2DGridRep object
-        private GridObject[][] theGrid; // internal representation of the grid
+        private final int numRows;
+        private final int numCols;
+        private GridObject[] theGrid;   // cells of the grid, in row-major order
+        private int[] occupiedCells;    // dense registry of occupied cells
+        private int[] registryIndex;    // position of each cell in registry
         private int objectCount;        // # of objects in current grid
 
       // constructors
@@ -145,10 +166,14 @@ public class BoundedGrid extends Grid
         public Array2DGridRep(int rows, int cols)
         {
             // Verify precondition.
-            if ( rows <= 0 || cols <= 0 )
+            if ( rows <= 0 || cols <= 0 || (long) rows * cols > Integer.MAX_VALUE )
                 throw new IllegalArgumentException();
 
-            theGrid = new GridObject[rows][cols];
+            numRows = rows;
+            numCols = cols;
+            theGrid = new GridObject[rows * cols];
+            occupiedCells = new int[16];
+            registryIndex = new int[rows * cols];
             objectCount = 0;
         }
 
@@ -160,7 +185,7 @@ public class BoundedGrid extends Grid
          **/
         public int numRows()
         {
-            return theGrid.length;
+            return numRows;
         }
 
         /** Returns number of columns in this grid.
@@ -168,9 +193,7 @@ public class BoundedGrid extends Grid
          **/
         public int numCols()
         {
-            // Note: according to the constructor precondition, numRows() > 0,
-            // so theGrid[0] is non-null.
-            return theGrid[0].length;
+            return numCols;
         }
 
         /** Verifies whether a location is valid in this grid.
@@ -183,8 +206,20 @@ public class BoundedGrid extends Grid
             if ( loc == null )
                 return false;
 
-            return (0 <= loc.row() && loc.row() < numRows()) &&
-                   (0 <= loc.col() && loc.col() < numCols());
+            return isValid(loc.row(), loc.col());
+        }
+
+        /** Verifies whether the location at the given row and column is
+         *  valid in this grid.
+         *  @param  row    row of the location to check
+         *  @param  col    column of the location to check
+         *  @return <code>true</code> if (<code>row</code>, <code>col</code>)
+         *          is valid; <code>false</code> otherwise
+         **/
+        public boolean isValid(int row, int col)
+        {
+            return (0 <= row && row < numRows) &&
+                   (0 <= col && col < numCols);
         }
 
 
@@ -203,27 +238,38 @@ public class BoundedGrid extends Grid
          **/
         public GridObject[] allObjects()
         {
-            // Create an array in which to put the objects.
-            GridObject[] theObjects = new GridObject[numObjects()];
-            int arrayIndex = 0;
+            // Look only at the occupied cells listed in the registry.
+            GridObject[] theObjects = new GridObject[objectCount];
+            for ( int i = 0; i < objectCount; i++ )
+                theObjects[i] = theGrid[occupiedCells[i]];
+            return theObjects;
+        }
 
-            // Look at all grid locations.
-            for ( int r = 0; r < numRows(); r++ )
-            {
-                for ( int c = 0; c < numCols(); c++ )
-                {
-                    // If there's an object at this location, put it
-                    // in the list.
-                    GridObject obj = theGrid[r][c];
-                    if ( obj != null )
-                    {
-                        theObjects[arrayIndex] = obj;
-                        arrayIndex++;
-                    }
-                }
-            }
+        /** Performs the given action for each object in this grid,
+         *  visiting the objects in place rather than copying them.
+         *  (Precondition: <code>action</code> does not modify the grid.)
+         *  @param action  the action to perform on each object
+         **/
+        public void forEachObject(Consumer<? super GridObject> action)
+        {
+            for ( int i = 0; i < objectCount; i++ )
+                action.accept(theGrid[occupiedCells[i]]);
+        }
 
-           return theObjects;
+        /** Returns a spliterator over the objects in this grid that
+         *  reads the grid in place.  The spliterator divides the grid
+         *  into bands of rows, so each part of a parallel traversal
+         *  works on a contiguous region of the grid.  Sparsely populated
+         *  grids are instead divided by dividing the registry of
+         *  occupied cells, to avoid scanning rows of empty cells.
+         *  (Precondition: the grid is not modified during traversal.)
+         *  @return  a spliterator over the objects in this grid
+         **/
+        public Spliterator<GridObject> spliterator()
+        {
+            if ( objectCount < theGrid.length / SPARSE_FACTOR )
+                return new RegistrySpliterator(0, objectCount);
+            return new RowBandSpliterator(0, theGrid.length, objectCount, true);
         }
 
         /** Returns the object at a specific location in this grid.
@@ -234,10 +280,72 @@ public class BoundedGrid extends Grid
          **/
         public GridObject objectAt(Location loc)
         {
-            if ( ! isValid(loc) )
+            if ( loc == null )
+                return null;
+
+            return objectAt(loc.row(), loc.col());
+        }
+
+        /** Returns the object at the given row and column in this grid.
+         *  @param row    the row in which to look
+         *  @param col    the column in which to look
+         *  @return       the object at (<code>row</code>, <code>col</code>);
+         *                <code>null</code> if that location is not
+         *                in the grid or is empty
+         **/
+        public GridObject objectAt(int row, int col)
+        {
+            if ( ! isValid(row, col) )
                 return null;
 
-            return theGrid[loc.row()][loc.col()];
+            return theGrid[row * numCols + col];
+        }
+
+        /** Performs the given action for each object in the given
+         *  rectangle of locations, scanning the row slices of the
+         *  rectangle that lie within the grid.  If the grid has fewer
+         *  objects than the clipped rectangle has cells, the registry is
+         *  scanned instead.
+         *  (Precondition: <code>action</code> does not modify the grid.)
+         *  @param minRow  top row of the rectangle
+         *  @param minCol  leftmost column of the rectangle
+         *  @param maxRow  bottom row of the rectangle
+         *  @param maxCol  rightmost column of the rectangle
+         *  @param action  the action to perform on each object
+         **/
+        public void forEachInRect(int minRow, int minCol,
+                                  int maxRow, int maxCol,
+                                  Consumer<? super GridObject> action)
+        {
+            // Clip the rectangle to the grid.
+            minRow = Math.max(minRow, 0);
+            minCol = Math.max(minCol, 0);
+            maxRow = Math.min(maxRow, numRows - 1);
+            maxCol = Math.min(maxCol, numCols - 1);
+            if ( minRow > maxRow || minCol > maxCol )
+                return;
+
+            if ( (maxRow - minRow + 1) * (maxCol - minCol + 1) > objectCount )
+            {
+                for ( int i = 0; i < objectCount; i++ )
+                {
+                    int cell = occupiedCells[i];
+                    int row = cell / numCols;
+                    int col = cell - row * numCols;
+                    if ( minRow <= row && row <= maxRow &&
+                         minCol <= col && col <= maxCol )
+                        action.accept(theGrid[cell]);
+                }
+                return;
+            }
+
+            for ( int row = minRow; row <= maxRow; row++ )
+            {
+                int end = row * numCols + maxCol;
+                for ( int cell = row * numCols + minCol; cell <= end; cell++ )
+                    if ( theGrid[cell] != null )
+                        action.accept(theGrid[cell]);
+            }
         }
 
 
@@ -254,7 +362,15 @@ public class BoundedGrid extends Grid
         {
             // Add object to the internal grid representation.
             Location loc = obj.location();
-            theGrid[loc.row()][loc.col()] = obj;
+            int cell = loc.row() * numCols + loc.col();
+            theGrid[cell] = obj;
+
+            // Record the newly occupied cell in the registry.
+            if ( objectCount == occupiedCells.length )
+                occupiedCells = Arrays.copyOf(occupiedCells,
+                                    Math.min(objectCount * 2, theGrid.length));
+            occupiedCells[objectCount] = cell;
+            registryIndex[cell] = objectCount;
             objectCount++;
         }
 
@@ -267,8 +383,171 @@ public class BoundedGrid extends Grid
         {
             // Remove the object from the grid.
             Location loc = obj.location();
-            theGrid[loc.row()][loc.col()] = null;
-            objectCount--;
+            int cell = loc.row() * numCols + loc.col();
+            theGrid[cell] = null;
+
+            // Fill the cell's place in the registry with the last entry.
+            int index = registryIndex[cell];
+            int lastCell = occupiedCells[--objectCount];
+            occupiedCells[index] = lastCell;
+            registryIndex[lastCell] = index;
+        }
+
+        /** Removes all objects from this internal grid representation,
+         *  clearing only the occupied cells listed in the registry.
+         **/
+        public void clear()
+        {
+            for ( int i = 0; i < objectCount; i++ )
+                theGrid[occupiedCells[i]] = null;
+            objectCount = 0;
+        }
+
+        /** Moves an object from one location in this internal grid
+         *  representation to another.
+         *  (Precondition: <code>obj</code> is at <code>from</code>,
+         *   <code>to</code> is a valid empty location, and
+         *   <code>obj.location()</code> is <code>to</code>; verified by
+         *   the <code>Grid</code> object.)
+         *  @param obj     the object to be moved
+         *  @param from    the object's previous location
+         *  @param to      the object's new location
+         **/
+        public void move(GridObject obj, Location from, Location to)
+        {
+            int fromCell = from.row() * numCols + from.col();
+            int toCell = to.row() * numCols + to.col();
+            theGrid[toCell] = obj;
+            theGrid[fromCell] = null;
+
+            // The object keeps its place in the registry.
+            int index = registryIndex[fromCell];
+            occupiedCells[index] = toCell;
+            registryIndex[toCell] = index;
+        }
+
+
+        /** A <code>RowBandSpliterator</code> traverses the cells of a band
+         *  of whole rows, and splits at a row boundary.
+         **/
+        private class RowBandSpliterator implements Spliterator<GridObject>
+        {
+            private int cell;          // next cell to examine
+            private final int endCell; // first cell past the band
+            private long estimate;     // estimated # of objects remaining
+            private boolean exact;     // whether the estimate is exact
+
+            RowBandSpliterator(int firstCell, int endCell,
+                               long estimate, boolean exact)
+            {
+                this.cell = firstCell;
+                this.endCell = endCell;
+                this.estimate = estimate;
+                this.exact = exact;
+            }
+
+            public boolean tryAdvance(Consumer<? super GridObject> action)
+            {
+                while ( cell < endCell )
+                {
+                    GridObject obj = theGrid[cell++];
+                    if ( obj != null )
+                    {
+                        estimate--;
+                        action.accept(obj);
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            public void forEachRemaining(Consumer<? super GridObject> action)
+            {
+                for ( ; cell < endCell; cell++ )
+                    if ( theGrid[cell] != null )
+                        action.accept(theGrid[cell]);
+                estimate = 0;
+            }
+
+            public Spliterator<GridObject> trySplit()
+            {
+                int firstRow = cell / numCols;
+                int midRow = (firstRow + endCell / numCols) >>> 1;
+                int midCell = midRow * numCols;
+                if ( midCell <= cell )
+                    return null;
+
+                // Hand the first half of the band to a new spliterator.
+                long prefixEstimate = estimate * (midCell - cell) / (endCell - cell);
+                Spliterator<GridObject> prefix =
+                    new RowBandSpliterator(cell, midCell, prefixEstimate, false);
+                estimate -= prefixEstimate;
+                exact = false;
+                cell = midCell;
+                return prefix;
+            }
+
+            public long estimateSize()
+            {
+                return estimate;
+            }
+
+            public int characteristics()
+            {
+                return Spliterator.NONNULL | Spliterator.DISTINCT |
+                       (exact ? Spliterator.SIZED : 0);
+            }
+        }
+
+
+        /** A <code>RegistrySpliterator</code> traverses a range of the
+         *  registry of occupied cells, and splits the range in half.
+         **/
+        private class RegistrySpliterator implements Spliterator<GridObject>
+        {
+            private int index;          // next registry entry to visit
+            private final int end;      // first registry entry past range
+
+            RegistrySpliterator(int index, int end)
+            {
+                this.index = index;
+                this.end = end;
+            }
+
+            public boolean tryAdvance(Consumer<? super GridObject> action)
+            {
+                if ( index >= end )
+                    return false;
+                action.accept(theGrid[occupiedCells[index++]]);
+                return true;
+            }
+
+            public void forEachRemaining(Consumer<? super GridObject> action)
+            {
+                for ( ; index < end; index++ )
+                    action.accept(theGrid[occupiedCells[index]]);
+            }
+
+            public Spliterator<GridObject> trySplit()
+            {
+                int mid = (index + end) >>> 1;
+                if ( mid <= index )
+                    return null;
+                Spliterator<GridObject> prefix = new RegistrySpliterator(index, mid);
+                index = mid;
+                return prefix;
+            }
+
+            public long estimateSize()
+            {
+                return end - index;
+            }
+
+            public int characteristics()
+            {
+                return Spliterator.NONNULL | Spliterator.DISTINCT |
+                       Spliterator.SIZED | Spliterator.SUBSIZED;
+            }
         }
 
     }
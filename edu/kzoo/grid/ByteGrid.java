@@ -0,0 +1,115 @@
+// Class: ByteGrid
+//
+// Author: Alyce Brady
+//
+// License Information:
+//   This class is free software; you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation.
+//
+//   This class is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+
+package edu.kzoo.grid;
+
+/**
+ *  Grid Container Package:<br>
+ *
+ *  A <code>ByteGrid</code> is a <code>CellStateGrid</code> whose cells hold
+ *  states from 0 to 255, enough for most
+ *  cellular automata.  Its states are kept in a
+ *  single <code>byte</code> array in row-major order, so it takes
+ *  one byte of space per cell, whether or not the cell is empty.
+ *  <table align="center">
+ *  <tr><td>state, setState</td><td width="5"><td><i>O</i>(<code>1</code>)</td></tr>
+ *  <tr><td>numObjects</td><td></td><td><i>O</i>(<code>1</code>)</td></tr>
+ *  <tr><td>isValid, isEmpty, objectAt</td><td></td><td><i>O</i>(<code>1</code>)</td></tr>
+ *  <tr><td>allObjects</td><td></td><td><i>O</i>(<code>r * c</code>)</td></tr>
+ *  <tr><td>objectsInRect</td><td></td><td><i>O</i>(<code>a</code>)</td></tr>
+ *  <tr><td>space</td><td></td><td><i>O</i>(<code>r * c</code>)</td></tr>
+ *  </table>
+ *  where <code>r</code> is the number of rows, <code>c</code> is the
+ *  number of columns, and <code>a</code> is the area of the query
+ *  rectangle within the grid.
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ *  @see CellStateGrid
+ **/
+
+public class ByteGrid extends CellStateGrid
+{
+  // constructors
+
+    /** Constructs a ByteGrid object with the given dimensions, in which
+     *  every cell is empty.  A cell's neighbors include only the cells
+     *  to its north, south, east, and west, not the cells on the
+     *  diagonals.
+     *  (Precondition: <code>rows > 0</code> and <code>cols > 0</code>.)
+     *  @param rows        number of rows in ByteGrid
+     *  @param cols        number of columns in ByteGrid
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public ByteGrid(int rows, int cols)
+    {
+        this(false, rows, cols);
+    }
+
+    /** Constructs a ByteGrid object with the given dimensions, in which
+     *  every cell is empty.  Each cell in this grid will have at most
+     *  four or eight adjacent neighbors, depending on the value of the
+     *  <code>includeDiagonalNeighbors</code> parameter.
+     *  (Precondition: <code>rows > 0</code> and <code>cols > 0</code>.)
+     *  @param includeDiagonalNeighbors  whether to include the four
+     *                                   diagonal locations as neighbors
+     *  @param rows        number of rows in ByteGrid
+     *  @param cols        number of columns in ByteGrid
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public ByteGrid(boolean includeDiagonalNeighbors, int rows, int cols)
+    {
+        super(new ByteStore(rows, cols), includeDiagonalNeighbors);
+    }
+
+
+  // internal representation
+
+    /** A <code>ByteStore</code> keeps cell states from 0 to 255 in a
+     *  <code>byte</code> array.
+     **/
+    private static class ByteStore extends CellStateGrid.CellStore
+    {
+        private final byte[] states;
+
+        ByteStore(int rows, int cols)
+        {
+            super(rows, cols);
+            if ( (long) rows * cols > Integer.MAX_VALUE )
+                throw new IllegalArgumentException();
+            states = new byte[rows * cols];
+        }
+
+        int get(int row, int col)
+        {
+            return states[row * numCols + col] & 0xff;
+        }
+
+        void put(int row, int col, int state)
+        {
+            states[row * numCols + col] = (byte) state;
+        }
+
+        int minState()
+        {
+            return 0;
+        }
+
+        int maxState()
+        {
+            return 255;
+        }
+    }
+
+}
@@ -0,0 +1,747 @@
+// Class: CellStateGrid
+//
+// Author: Alyce Brady
+//
+// License Information:
+//   This class is free software; you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation.
+//
+//   This class is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+
+package edu.kzoo.grid;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ *  Grid Container Package:<br>
+ *
+ *  A <code>CellStateGrid</code> is a rectangular, bounded grid for
+ *  models, such as cellular automata, in which every cell holds a small
+ *  number, its <em>state</em>, rather than an object.  The states are
+ *  kept as primitive values, in an array (see <code>IntGrid</code> and
+ *  <code>ByteGrid</code>) or outside the Java heap (see
+ *  <code>OffHeapGrid</code>), so a cell costs four bytes or fewer, rather
+ *  than a <code>GridObject</code> with its location and grid.  A cell
+ *  whose state is 0 is empty.  Runs of cells in a row can be read and
+ *  written at once with <code>getStates</code> and
+ *  <code>setStates</code>.
+ *
+ *  <p>
+ *  A <code>CellStateGrid</code> is also a <code>Grid</code>, so it can be
+ *  shown in a <code>ScrollableGridDisplay</code> and stepped by a
+ *  <code>SteppedGridAppController</code>.  Each non-empty cell appears
+ *  as a <code>CellView</code>, a <code>ColorBlock</code> in the color
+ *  chosen for its state (see <code>setColor</code>), that is created
+ *  only when the cell's object is asked for (by <code>objectAt</code>,
+ *  <code>allObjects</code>, iteration, and so on).  A view is a snapshot
+ *  of its cell: it does not change when the cell does, and asking for a
+ *  cell's object twice gives two different views.  Cells change through
+ *  <code>setState</code> and <code>fill</code>, but controllers written
+ *  for object grids work too: adding a <code>ColorBlock</code> sets its
+ *  cell to the state shown in the block's color (see
+ *  <code>stateOf</code>), and removing an object (a view or an added
+ *  block) empties its cell.  An added block, like a view, is a snapshot
+ *  of its cell rather than the cell itself, so <code>objectAt</code>
+ *  returns a view rather than the block.  For the same reason, objects
+ *  cannot move within the grid: <code>changeLocation</code> rejects a
+ *  view or block with an <code>IllegalArgumentException</code>, as it
+ *  rejects any object that is not in the grid; a cell's state is moved
+ *  with <code>setState</code>.  Changes to cells are recorded by dirty
+ *  tracking and delivered to mutation listeners, as additions and
+ *  removals of views, like changes to any other grid.
+ *
+ *  <p>
+ *  A grid stored outside the heap may have more than
+ *  <code>Integer.MAX_VALUE</code> cells.  For such a grid,
+ *  <code>numObjects</code> stops at <code>Integer.MAX_VALUE</code>
+ *  (<code>numOccupied</code> gives the true count), and
+ *  <code>allObjects</code> and iteration, which collect the views in an
+ *  array, fail with an <code>IllegalStateException</code> if there are
+ *  too many non-empty cells to fit in one; <code>forEachObject</code>,
+ *  <code>forEachInRect</code>, and <code>getStates</code> work on a
+ *  grid of any size.
+ *
+ *  <p>
+ *  <code>state</code> reads a cell's state without locking, since a
+ *  state is a single primitive value; <code>setState</code> takes the
+ *  cell's lock (the grid's monitor, by default).
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ *  @see IntGrid
+ *  @see ByteGrid
+ *  @see OffHeapGrid
+ *  @see LifeGrid
+ **/
+
+public abstract class CellStateGrid extends Grid
+{
+    /** The state of an empty cell. **/
+    public static final int EMPTY = 0;
+
+    // Number of states whose colors are kept in an array.
+    private static final int PALETTE_SIZE = 256;
+
+  // instance variables: encapsulated data for each CellStateGrid object
+    private final int numRows;
+    private final int numCols;
+    private final CellStore store;
+    private final Color[] palette = new Color[PALETTE_SIZE];
+    private final Map<Integer, Color> otherColors =
+                                        new HashMap<Integer, Color>();
+    private volatile Color defaultColor = Color.black;
+
+  // constructors
+
+    /** Constructs a CellStateGrid that keeps its states in the given
+     *  store.  All cells are empty.
+     *  @param store                     the store of cell states
+     *  @param includeDiagonalNeighbors  whether to include the four
+     *                                   diagonal locations as neighbors
+     **/
+    CellStateGrid(CellStore store, boolean includeDiagonalNeighbors)
+    {
+        super(store, includeDiagonalNeighbors);
+        this.numRows = store.numRows;
+        this.numCols = store.numCols;
+        this.store = store;
+        store.grid = this;
+    }
+
+  // accessor methods dealing with grid dimensions
+
+    /** Returns number of rows in this grid.
+     *  @return   the number of rows in this grid
+     **/
+    public int numRows()
+    {
+        return numRows;
+    }
+
+    /** Returns number of columns in this grid.
+     *  @return   the number of columns in this grid
+     **/
+    public int numCols()
+    {
+        return numCols;
+    }
+
+
+  // accessor methods dealing with cell states
+
+    /** Returns the state of the cell at the given row and column.
+     *  (Precondition: (<code>row</code>, <code>col</code>) is a valid
+     *  location in this grid.)
+     *  @param row  the row of the cell
+     *  @param col  the column of the cell
+     *  @return     the cell's state; <code>EMPTY</code> if it is empty
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public int state(int row, int col)
+    {
+        if ( ! store.isValid(row, col) )
+            throw new IllegalArgumentException("Location (" + row + ", " +
+                                               col + ") is not valid");
+        return store.get(row, col);
+    }
+
+    /** Returns the state of the cell at the given location.
+     *  (Precondition: <code>loc</code> is a valid location in this grid.)
+     *  @param loc  the location of the cell
+     *  @return     the cell's state; <code>EMPTY</code> if it is empty
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public int state(Location loc)
+    {
+        if ( loc == null )
+            throw new IllegalArgumentException("Location is null");
+        return state(loc.row(), loc.col());
+    }
+
+    /** Copies the states of a run of cells in one row of this grid
+     *  into an array.
+     *  (Precondition: the cells from (<code>row</code>, <code>col</code>)
+     *  to (<code>row</code>, <code>col + length - 1</code>) are valid
+     *  locations in this grid, and <code>dest</code> has room for
+     *  <code>length</code> states starting at <code>offset</code>.)
+     *  @param row     the row of the cells
+     *  @param col     the column of the first cell
+     *  @param dest    the array into which to copy the states
+     *  @param offset  the index in <code>dest</code> of the first state
+     *  @param length  the number of cells
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public void getStates(int row, int col, int[] dest, int offset,
+                          int length)
+    {
+        checkRun(row, col, dest, offset, length);
+        store.getRun(row, col, dest, offset, length);
+    }
+
+    /** Returns the number of non-empty cells in this grid.  Unlike
+     *  <code>numObjects</code>, which cannot count past
+     *  <code>Integer.MAX_VALUE</code>, this gives the true count for
+     *  grids with more cells than that.  Like <code>state</code>, it
+     *  reads the count without locking.
+     *  @return  the number of cells whose state is not
+     *           <code>EMPTY</code>
+     **/
+    public long numOccupied()
+    {
+        return store.occupied.get();
+    }
+
+    /** Returns the smallest state a cell of this grid can hold.
+     *  @return  the minimum state
+     **/
+    public int minState()
+    {
+        return store.minState();
+    }
+
+    /** Returns the largest state a cell of this grid can hold.
+     *  @return  the maximum state
+     **/
+    public int maxState()
+    {
+        return store.maxState();
+    }
+
+
+
+  // methods dealing with the colors of cell views
+
+    /** Returns the color in which cells in the given state are shown.
+     *  @param state  the state
+     *  @return       the color of views of cells in <code>state</code>
+     **/
+    public Color color(int state)
+    {
+        if ( 0 <= state && state < PALETTE_SIZE )
+        {
+            Color color = palette[state];
+            return color == null ? defaultColor : color;
+        }
+        synchronized (otherColors)
+        {
+            Color color = otherColors.get(state);
+            return color == null ? defaultColor : color;
+        }
+    }
+
+    /** Sets the color in which cells in the given state are shown.
+     *  @param state  the state
+     *  @param color  the color of views of cells in <code>state</code>
+     **/
+    public void setColor(int state, Color color)
+    {
+        if ( 0 <= state && state < PALETTE_SIZE )
+        {
+            palette[state] = color;
+            return;
+        }
+        synchronized (otherColors)
+        {
+            otherColors.put(state, color);
+        }
+    }
+
+    /** Sets the color in which cells are shown if no color has been set
+     *  for their state.  The default color is black.
+     *  @param color  the default color of cell views
+     **/
+    public void setDefaultColor(Color color)
+    {
+        defaultColor = color;
+    }
+
+    /** Returns a non-empty state whose color has been set to the given
+     *  color (see <code>setColor</code>), among the states this grid's
+     *  cells can hold.  This is the state a cell takes when a
+     *  <code>ColorBlock</code> of that color is added to the grid.  If
+     *  several states have the color, the smallest one from 1 to 255 is
+     *  returned if there is one, and the smallest other one otherwise.
+     *  @param color  the color to look for
+     *  @return       the state shown in <code>color</code>, or
+     *                <code>EMPTY</code> if no such state has been set
+     **/
+    public int stateOf(Color color)
+    {
+        if ( color == null )
+            return EMPTY;
+        for ( int state = 1; state < PALETTE_SIZE; state++ )
+            if ( color.equals(palette[state]) && inRange(state) )
+                return state;
+        int found = EMPTY;
+        synchronized (otherColors)
+        {
+            for ( Map.Entry<Integer, Color> entry : otherColors.entrySet() )
+            {
+                int state = entry.getKey();
+                if ( state != EMPTY && color.equals(entry.getValue()) &&
+                     inRange(state) &&
+                     ( found == EMPTY || state < found ) )
+                    found = state;
+            }
+        }
+        return found;
+    }
+
+    /** Indicates whether a state can be held by this grid's cells.
+     **/
+    private boolean inRange(int state)
+    {
+        return store.minState() <= state && state <= store.maxState();
+    }
+
+
+  // modifier methods
+
+    /** Does nothing; the objects in a <code>CellStateGrid</code> are
+     *  views created on demand, so an index of them by class would
+     *  never be up to date.  <code>objectsOfType</code> and the related
+     *  methods look at every non-empty cell.
+     **/
+    public void useTypeIndex()
+    {
+    }
+
+    /** Empties the cell of the specified object, which may be a view of
+     *  a cell or a block that was added to this grid.  The cell is
+     *  emptied even if it has changed since the object was created.
+     *  (Precondition: <code>obj</code> is not in another grid.)
+     *  @param obj     the object to be removed
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public void remove(GridObject obj)
+    {
+        if ( obj.grid() != this && obj.grid() != null )
+            throw new IllegalArgumentException("Cannot remove " +
+                                               obj + " from another grid");
+        if ( obj.grid() == null )
+            return;
+        Location loc = obj.location();
+        setState(loc.row(), loc.col(), EMPTY);
+        obj.detach();
+    }
+
+    /** Empties the cell at the specified location.  If the location is
+     *  not in the grid or the cell is already empty, this method does
+     *  nothing.
+     *  @param loc  the location of the cell to empty
+     **/
+    public void remove(Location loc)
+    {
+        if ( loc != null && store.isValid(loc.row(), loc.col()) )
+            setState(loc.row(), loc.col(), EMPTY);
+    }
+
+    /** Empties every cell of this grid.
+     **/
+    public void removeAll()
+    {
+        fill(EMPTY);
+    }
+
+    /** Sets the state of the cell at the given row and column.
+     *  (Precondition: (<code>row</code>, <code>col</code>) is a valid
+     *  location in this grid, and <code>state</code> is between
+     *  <code>minState()</code> and <code>maxState()</code>.)
+     *  @param row    the row of the cell
+     *  @param col    the column of the cell
+     *  @param state  the cell's new state; <code>EMPTY</code> to empty it
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public void setState(int row, int col, int state)
+    {
+        if ( ! store.isValid(row, col) )
+            throw new IllegalArgumentException("Location (" + row + ", " +
+                                               col + ") is not valid");
+        if ( state < store.minState() || state > store.maxState() )
+            throw new IllegalArgumentException("State " + state +
+                                               " is out of range");
+
+        // Cells are set one at a time in a simulation's inner loop, so
+        // dispatch on the locking mode here rather than allocating a
+        // Runnable for withWriteLock.
+        GridLock lock = gridLock();
+        if ( lock == null )
+        {
+            synchronized (this)
+            {
+                setStateLocked(row, col, state);
+            }
+            deliverReadyMutations();
+            return;
+        }
+        lock.writeLock(row, col);
+        try
+        {
+            setStateLocked(row, col, state);
+        }
+        finally
+        {
+            lock.unlockWrite(row, col);
+        }
+        deliverReadyMutations();
+    }
+
+    /** Sets the state of the cell at the given location.
+     *  (Precondition: <code>loc</code> is a valid location in this grid,
+     *  and <code>state</code> is between <code>minState()</code> and
+     *  <code>maxState()</code>.)
+     *  @param loc    the location of the cell
+     *  @param state  the cell's new state; <code>EMPTY</code> to empty it
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public void setState(Location loc, int state)
+    {
+        if ( loc == null )
+            throw new IllegalArgumentException("Location is null");
+        setState(loc.row(), loc.col(), state);
+    }
+
+    /** Sets every cell of this grid to the given state, as one batch.
+     *  (Precondition: <code>state</code> is between
+     *  <code>minState()</code> and <code>maxState()</code>.)
+     *  @param state  the new state of every cell; <code>EMPTY</code> to
+     *                empty the grid
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public void fill(final int state)
+    {
+        if ( state < store.minState() || state > store.maxState() )
+            throw new IllegalArgumentException("State " + state +
+                                               " is out of range");
+        batch(new BatchOperation() {
+            public void applyTo(Grid grid)
+            {
+                for ( int row = 0; row < numRows; row++ )
+                    for ( int col = 0; col < numCols; col++ )
+                        setStateLocked(row, col, state);
+            }});
+    }
+
+    /** Sets the states of a run of cells in one row of this grid from
+     *  an array, as one batch.
+     *  (Precondition: the cells from (<code>row</code>, <code>col</code>)
+     *  to (<code>row</code>, <code>col + length - 1</code>) are valid
+     *  locations in this grid, <code>src</code> holds <code>length</code>
+     *  states starting at <code>offset</code>, and each of them is
+     *  between <code>minState()</code> and <code>maxState()</code>.)
+     *  @param row     the row of the cells
+     *  @param col     the column of the first cell
+     *  @param src     the array holding the new states
+     *  @param offset  the index in <code>src</code> of the first state
+     *  @param length  the number of cells
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public void setStates(final int row, final int col, final int[] src,
+                          final int offset, final int length)
+    {
+        checkRun(row, col, src, offset, length);
+        for ( int i = offset; i < offset + length; i++ )
+            if ( src[i] < store.minState() || src[i] > store.maxState() )
+                throw new IllegalArgumentException("State " + src[i] +
+                                                   " is out of range");
+        batch(new BatchOperation() {
+            public void applyTo(Grid grid)
+            {
+                if ( tracksCellChanges() )
+                {
+                    for ( int i = 0; i < length; i++ )
+                        setStateLocked(row, col + i, src[offset + i]);
+                    return;
+                }
+
+                // Nothing needs to hear about each cell, so copy the
+                // whole run at once, keeping count of the cells it fills
+                // and empties.
+                long change = 0;
+                for ( int i = 0; i < length; i++ )
+                {
+                    if ( store.get(row, col + i) != EMPTY )
+                        change--;
+                    if ( src[offset + i] != EMPTY )
+                        change++;
+                }
+                store.putRun(row, col, src, offset, length);
+                store.occupied.addAndGet(change);
+                cellsReplaced();
+            }});
+    }
+
+    /** Verifies that a run of cells lies within one row of this grid
+     *  and that an array has room for their states.
+     **/
+    private void checkRun(int row, int col, int[] states, int offset,
+                          int length)
+    {
+        if ( length < 0 || ! store.isValid(row, col) ||
+             (long) col + length > numCols )
+            throw new IllegalArgumentException("Cells (" + row + ", " + col +
+                        ") to (" + row + ", " + ((long) col + length - 1) +
+                        ") are not valid");
+        if ( offset < 0 || (long) offset + length > states.length )
+            throw new IllegalArgumentException("Array is too small");
+    }
+
+    /** Sets the state of a cell; the caller holds the lock (for writing,
+     *  in read/write locking mode) and has checked the location and
+     *  state.
+     **/
+    private void setStateLocked(int row, int col, int state)
+    {
+        int oldState = store.get(row, col);
+        if ( oldState == state )
+            return;
+
+        GridObject before = null;
+        GridObject after = null;
+        if ( reportsCellViews() )
+        {
+            if ( oldState != EMPTY )
+                before = viewOf(row, col, oldState);
+            if ( state != EMPTY )
+                after = viewOf(row, col, state);
+        }
+        store.put(row, col, state);
+        if ( oldState == EMPTY )
+            store.occupied.incrementAndGet();
+        else if ( state == EMPTY )
+            store.occupied.decrementAndGet();
+        cellChanged(row, col, before, after);
+    }
+
+    /** Creates a view of the cell at the given row and column, which is
+     *  in the given (non-empty) state.
+     **/
+    CellView viewOf(int row, int col, int state)
+    {
+        CellView view = new CellView(color(state), state);
+        view.internalSetGrid(this);
+        view.internalSetLocation(new Location(row, col));
+        return view;
+    }
+
+
+  // view of a cell
+
+    /** A <code>CellView</code> is a snapshot of a non-empty cell of a
+     *  <code>CellStateGrid</code>, in the form of a <code>ColorBlock</code>
+     *  whose color is the color of the cell's state.  It is displayed like
+     *  any other <code>ColorBlock</code>.
+     **/
+    public static class CellView extends ColorBlock
+    {
+        private final int state;
+
+        CellView(Color color, int state)
+        {
+            super(color);
+            this.state = state;
+        }
+
+        /** Returns the state of the cell when this view was created.
+         *  @return  the cell's state
+         **/
+        public int state()
+        {
+            return state;
+        }
+
+        /** Returns a string representation of this view.
+         *  @return  the cell's state and location
+         **/
+        public String toString()
+        {
+            return "state " + state + " " + location().toString();
+        }
+    }
+
+
+  // internal representation
+
+    /** A <code>CellStore</code> keeps the states of a
+     *  <code>CellStateGrid</code>'s cells as primitive values and
+     *  presents the non-empty cells to the <code>Grid</code> class as
+     *  views.  An added <code>ColorBlock</code> sets its cell to the
+     *  state of its color, and a removed object empties its cell;
+     *  objects cannot move within the store.
+     **/
+    abstract static class CellStore implements Grid.InternalRepresentation
+    {
+        final int numRows;
+        final int numCols;
+        final AtomicLong occupied = new AtomicLong();
+        CellStateGrid grid;
+
+        /** Constructs a store for the states of a grid with the given
+         *  dimensions.
+         *  (Precondition: <code>rows > 0</code> and <code>cols > 0</code>.)
+         *  @throws    IllegalArgumentException if the precondition is not
+         *             met
+         **/
+        CellStore(int rows, int cols)
+        {
+            // Verify precondition.
+            if ( rows <= 0 || cols <= 0 )
+                throw new IllegalArgumentException();
+
+            numRows = rows;
+            numCols = cols;
+        }
+
+        /** Returns the state of the cell at the given row and column. **/
+        abstract int get(int row, int col);
+
+        /** Sets the state of the cell at the given row and column. **/
+        abstract void put(int row, int col, int state);
+
+        /** Copies the states of a run of cells in one row into an array.
+         *  This implementation gets the states one at a time; stores
+         *  that can copy a run at once should redefine it.
+         **/
+        void getRun(int row, int col, int[] dest, int offset, int length)
+        {
+            for ( int i = 0; i < length; i++ )
+                dest[offset + i] = get(row, col + i);
+        }
+
+        /** Copies the states of a run of cells in one row from an array.
+         *  This implementation puts the states one at a time; stores
+         *  that can copy a run at once should redefine it.
+         **/
+        void putRun(int row, int col, int[] src, int offset, int length)
+        {
+            for ( int i = 0; i < length; i++ )
+                put(row, col + i, src[offset + i]);
+        }
+
+        /** Returns the smallest state the store can hold. **/
+        abstract int minState();
+
+        /** Returns the largest state the store can hold. **/
+        abstract int maxState();
+
+        public boolean isValid(Location loc)
+        {
+            return loc != null && isValid(loc.row(), loc.col());
+        }
+
+        public boolean isValid(int row, int col)
+        {
+            return 0 <= row && row < numRows && 0 <= col && col < numCols;
+        }
+
+        public int numObjects()
+        {
+            return (int) Math.min(occupied.get(), Integer.MAX_VALUE);
+        }
+
+        public GridObject[] allObjects()
+        {
+            // Leave room for the array header, as the JDK's collections
+            // do.
+            if ( occupied.get() > Integer.MAX_VALUE - 8 )
+                throw new IllegalStateException("Too many cells to " +
+                            "collect in an array; use forEachObject");
+            final ArrayList<GridObject> theObjects =
+                                new ArrayList<GridObject>(numObjects());
+            forEachObject(new Consumer<GridObject>() {
+                public void accept(GridObject obj)
+                {
+                    theObjects.add(obj);
+                }});
+            return theObjects.toArray(new GridObject[theObjects.size()]);
+        }
+
+        public void forEachObject(Consumer<? super GridObject> action)
+        {
+            forEachInRect(0, 0, numRows - 1, numCols - 1, action);
+        }
+
+        public GridObject objectAt(Location loc)
+        {
+            if ( loc == null )
+                return null;
+            return objectAt(loc.row(), loc.col());
+        }
+
+        public GridObject objectAt(int row, int col)
+        {
+            if ( ! isValid(row, col) )
+                return null;
+            int state = get(row, col);
+            if ( state == EMPTY )
+                return null;
+            return grid.viewOf(row, col, state);
+        }
+
+        public void forEachInRect(int minRow, int minCol,
+                                  int maxRow, int maxCol,
+                                  Consumer<? super GridObject> action)
+        {
+            int fromRow = Math.max(minRow, 0);
+            int toRow = Math.min(maxRow, numRows - 1);
+            int fromCol = Math.max(minCol, 0);
+            int toCol = Math.min(maxCol, numCols - 1);
+            for ( int row = fromRow; row <= toRow; row++ )
+                for ( int col = fromCol; col <= toCol; col++ )
+                {
+                    int state = get(row, col);
+                    if ( state != EMPTY )
+                        action.accept(grid.viewOf(row, col, state));
+                }
+        }
+
+        public void add(GridObject obj)
+        {
+            if ( ! (obj instanceof ColorBlock) )
+                throw new IllegalArgumentException("Only color blocks can" +
+                                                   " be added to the grid");
+            Color color = ((ColorBlock) obj).color();
+            int state = grid.stateOf(color);
+            if ( state == EMPTY )
+                throw new IllegalArgumentException("No state is shown in " +
+                                                   color);
+            Location loc = obj.location();
+            put(loc.row(), loc.col(), state);
+            occupied.incrementAndGet();
+        }
+
+        public void remove(GridObject obj)
+        {
+            Location loc = obj.location();
+            put(loc.row(), loc.col(), EMPTY);
+            occupied.decrementAndGet();
+        }
+
+        public void move(GridObject obj, Location from, Location to)
+        {
+            // Grid.internalMove does not get here, since no view or block
+            // is ever the object at its cell; reject the move the way
+            // add rejects objects it cannot hold, should it ever do so.
+            throw new IllegalArgumentException("Cells cannot move; " +
+                                               "set their states instead");
+        }
+
+        public void clear()
+        {
+            for ( int row = 0; row < numRows; row++ )
+                for ( int col = 0; col < numCols; col++ )
+                    put(row, col, EMPTY);
+            occupied.set(0);
+        }
+    }
+
+}
@@ -0,0 +1,780 @@
+// Class: ChunkedGrid
+//
+// Author: Alyce Brady
+//
+// License Information:
+//   This class is free software; you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation.
+//
+//   This class is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+
+package edu.kzoo.grid;
+
+import edu.kzoo.util.LongIntHashMap;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ *  Grid Container Package:<br>
+ *
+ *  The <code>ChunkedGrid</code> class encapsulates two public inner
+ *  classes that extend the <code>Grid</code> class to model a
+ *  two-dimensional grid as a sparse collection of square chunks.
+ *  Each chunk covers <code>CHUNK_SIZE</code> x <code>CHUNK_SIZE</code>
+ *  cells and stores them in a single row-major array, so cells that are
+ *  near each other in the grid are near each other in memory.  A chunk
+ *  is allocated when the first object is added to its area and is
+ *  discarded when its last object is removed, so the space used depends
+ *  on how many areas of the grid are populated rather than on the
+ *  extent of the grid.  This makes <code>ChunkedGrid.Unbounded</code> a
+ *  good choice for very large worlds whose objects are clustered in a
+ *  few regions.
+ *
+ *  <p>
+ *  Methods of both <code>ChunkedGrid</code> classes have the
+ *  following time and space characteristics:
+ *  <table align="center">
+ *  <tr><td>numObjects</td><td width="5"><td><i>O</i>(<code>1</code>)</td></tr>
+ *  <tr><td>allObjects</td><td></td><td><i>O</i>(<code>k * s</code>)</td></tr>
+ *  <tr><td>isEmpty, objectAt</td><td></td><td><i>O</i>(<code>1</code>) [expected]</td></tr>
+ *  <tr><td>add</td><td></td><td><i>O</i>(<code>1</code>) [expected, amortized]</td></tr>
+ *  <tr><td>remove</td><td></td><td><i>O</i>(<code>1</code>) [expected]</td></tr>
+ *  <tr><td>objectsInRect</td><td></td><td><i>O</i>(<code>a + q</code>) [expected]</td></tr>
+ *  <tr><td>space</td><td></td><td><i>O</i>(<code>k * s</code>)</td></tr>
+ *  </table>
+ *  where <code>k</code> is the number of populated chunks,
+ *  <code>s</code> is the number of cells in a chunk, <code>a</code> is
+ *  the number of cells of populated chunks within the query rectangle,
+ *  and <code>q</code> is the smaller of <code>k</code> and the number of
+ *  chunk areas the rectangle overlaps.
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ *  @see HashGrid
+ *  @see Location
+ *  @see GridObject
+ */
+public class ChunkedGrid
+{
+    /** Number of bits in a row or column index within a chunk. **/
+    public static final int CHUNK_SHIFT = 6;
+
+    /** Number of rows (and columns) covered by each chunk. **/
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    // Mask that extracts a row or column index within a chunk.
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // ChunkedGrid is a scoping mechanism, not meant to be instantiated.
+    private ChunkedGrid()
+    {
+    }
+
+    /** A <code>ChunkedGrid.Bounded</code> object is a rectangular, bounded
+     *  two-dimensional container data structure that allocates storage
+     *  only for the chunks of the grid that contain objects.
+     **/
+    public static class Bounded extends Grid
+    {
+      // instance variables: encapsulated data for each Bounded grid object
+        private int numRows;
+        private int numCols;
+
+      // constructors
+
+        /** Constructs an empty ChunkedGrid.Bounded object with the given
+         *  dimensions.
+         *  A cell's neighbors include only the cells to its north, south,
+         *  east, and west, not the cells on the diagonals.
+         *  (Precondition: <code>rows > 0</code> and <code>cols > 0</code>.)
+         *  @param rows        number of rows in grid
+         *  @param cols        number of columns in grid
+         *  @throws    IllegalArgumentException if the precondition is not met
+         **/
+        public Bounded(int rows, int cols)
+        {
+            // Construct and initialize inherited attributes.
+            this(false, rows, cols);
+        }
+
+        /** Constructs an empty ChunkedGrid.Bounded object with the given
+         *  dimensions.
+         *  Each cell in this grid will have at most four or eight
+         *  adjacent neighbors, depending on the value of the
+         *  <code>includeDiagonalNeighbors</code> parameter.  Cells along
+         *  the grid boundaries will have fewer than the maximum four or
+         *  eight neighbors.
+         *  (Precondition: <code>rows > 0</code> and <code>cols > 0</code>.)
+         *  @param includeDiagonalNeighbors  whether to include the four
+         *                                   diagonal locations as neighbors
+         *  @param rows        number of rows in grid
+         *  @param cols        number of columns in grid
+         *  @throws    IllegalArgumentException if the precondition is not met
+         **/
+        public Bounded(boolean includeDiagonalNeighbors,
+                       int rows, int cols)
+        {
+            // Construct and initialize inherited attributes.
+            super(new ChunkedGridRep(
+                            new Grid.BoundedGridValidityChecker(rows, cols)),
+                  includeDiagonalNeighbors);
+            if ( rows <= 0 || cols <= 0 )
+                throw new IllegalArgumentException();
+            numRows = rows;
+            numCols = cols;
+        }
+
+      // accessor methods
+
+        /** Returns number of rows in this grid.
+         *  @return   the number of rows in this grid
+         **/
+        public int numRows()
+        {
+            return this.numRows;
+        }
+
+        /** Returns number of columns in this grid.
+         *  @return   the number of columns in this grid
+         **/
+        public int numCols()
+        {
+            return this.numCols;
+        }
+
+        /** Returns the chunks of this grid that currently contain at
+         *  least one object (in no particular order).
+         *  @return  the populated chunks
+         **/
+        public ChunkedGridRep.Chunk[] populatedChunks()
+        {
+            return withReadLock(new Supplier<ChunkedGridRep.Chunk[]>() {
+                public ChunkedGridRep.Chunk[] get()
+                {
+                    return ((ChunkedGridRep) internalRep).populatedChunks();
+                }});
+        }
+
+    }
+
+    /** A <code>ChunkedGrid.Unbounded</code> object is an unbounded
+     *  two-dimensional container data structure that allocates storage
+     *  only for the chunks of the grid that contain objects.
+     **/
+    public static class Unbounded extends Grid
+    {
+      // constructors
+
+        /** Constructs an empty ChunkedGrid.Unbounded object.
+         *  A cell's neighbors include only the cells to its north, south,
+         *  east, and west, not the cells on the diagonals.
+         **/
+        public Unbounded()
+        {
+            // Construct and initialize inherited attributes.
+            this(false);
+        }
+
+        /** Constructs an empty ChunkedGrid.Unbounded object.
+         *  Each cell in this grid will have at most four or eight
+         *  adjacent neighbors, depending on the value of the
+         *  <code>includeDiagonalNeighbors</code> parameter.
+         *  @param  includeDiagonalNeighbors   whether to include the four
+         *                                     diagonal locations as neighbors
+         **/
+        public Unbounded(boolean includeDiagonalNeighbors)
+        {
+            // Construct and initialize inherited attributes.
+            super(new ChunkedGridRep(new Grid.UnboundedGridValidityChecker()),
+                  includeDiagonalNeighbors);
+        }
+
+      // accessor methods
+
+        /** Returns number of rows in this grid.
+         *  @return   the number of rows, or UNBOUNDED if the grid is unbounded
+         **/
+        public int numRows()
+        {
+            return Grid.UNBOUNDED;
+        }
+
+        /** Returns number of columns in this grid.
+         *  @return   the number of columns, or UNBOUNDED if the grid is unbounded
+         **/
+        public int numCols()
+        {
+            return Grid.UNBOUNDED;
+        }
+
+        /** Returns the chunks of this grid that currently contain at
+         *  least one object (in no particular order).
+         *  @return  the populated chunks
+         **/
+        public ChunkedGridRep.Chunk[] populatedChunks()
+        {
+            return withReadLock(new Supplier<ChunkedGridRep.Chunk[]>() {
+                public ChunkedGridRep.Chunk[] get()
+                {
+                    return ((ChunkedGridRep) internalRep).populatedChunks();
+                }});
+        }
+    }
+
+    /** Internal representation for a chunked implementation of a
+     *  <code>Grid</code> class.  Populated chunks are kept in a dense
+     *  array; a primitive hash table maps each packed chunk coordinate
+     *  to the position of its chunk in that array.
+     **/
+    public static class ChunkedGridRep implements Grid.InternalRepresentation
+    {
+      // instance variables: encapsulated data for each ChunkedGridRep object
+        private LongIntHashMap indexOfChunk;  // packed chunk coord -> index
+        private Chunk[] chunks;               // dense array of chunks
+        private int chunkCount;               // # of populated chunks
+        private int objectCount;              // # of objects in the grid
+        private volatile Chunk lastChunk;     // most recently used chunk
+        private Grid.ValidityChecker locationValidityChecker;
+
+      // constructors
+
+        /** Constructs an empty ChunkedGridRep representation of a grid.
+         *    @param checker an object that knows how to check the validity
+         *                   of a location in a grid
+         **/
+        protected ChunkedGridRep(Grid.ValidityChecker checker)
+        {
+            indexOfChunk = new LongIntHashMap();
+            chunks = new Chunk[8];
+            chunkCount = 0;
+            objectCount = 0;
+            lastChunk = null;
+            locationValidityChecker = checker;
+        }
+
+
+      // accessor methods
+
+        /** Verifies whether a location is valid in this grid.
+         *  @param  loc    location to check
+         *  @return <code>true</code> if <code>loc</code> is valid;
+         *          <code>false</code> otherwise
+         **/
+        public boolean isValid(Location loc)
+        {
+            return locationValidityChecker.isValid(loc);
+        }
+
+        /** Verifies whether the location at the given row and column is
+         *  valid in this grid.
+         *  @param  row    row of the location to check
+         *  @param  col    column of the location to check
+         *  @return <code>true</code> if (<code>row</code>, <code>col</code>)
+         *          is valid; <code>false</code> otherwise
+         **/
+        public boolean isValid(int row, int col)
+        {
+            return locationValidityChecker.isValid(row, col);
+        }
+
+        /** Returns the number of objects in this grid.
+         *  @return   the number of objects
+         **/
+        public int numObjects()
+        {
+            return objectCount;
+        }
+
+        /** Returns all the objects in this grid.
+         *  @return    an array of all the grid objects
+         **/
+        public GridObject[] allObjects()
+        {
+            GridObject[] theObjects = new GridObject[objectCount];
+            int arrayIndex = 0;
+            for ( int i = 0; i < chunkCount; i++ )
+                arrayIndex = chunks[i].copyObjectsInto(theObjects, arrayIndex);
+            return theObjects;
+        }
+
+        /** Performs the given action for each object in this grid,
+         *  visiting the objects in place rather than copying them.
+         *  (Precondition: <code>action</code> does not modify the grid.)
+         *  @param action  the action to perform on each object
+         **/
+        public void forEachObject(Consumer<? super GridObject> action)
+        {
+            for ( int i = 0; i < chunkCount; i++ )
+                chunks[i].forEachObject(action);
+        }
+
+        /** Returns a spliterator over the objects in this grid that
+         *  reads the populated chunks in place, and splits by dividing
+         *  the chunks between the parts.
+         *  (Precondition: the grid is not modified during traversal.)
+         *  @return  a spliterator over the objects in this grid
+         **/
+        public Spliterator<GridObject> spliterator()
+        {
+            return new ChunkSpliterator(0, chunkCount);
+        }
+
+        /** Returns the object at a specific location in this grid.
+         *  @param loc    the location in which to look
+         *  @return       the object at location <code>loc</code>;
+         *                <code>null</code> if <code>loc</code> is not
+         *                in the grid or is empty
+         **/
+        public GridObject objectAt(Location loc)
+        {
+            if ( loc == null )
+                return null;
+
+            return objectAt(loc.row(), loc.col());
+        }
+
+        /** Returns the object at the given row and column in this grid.
+         *  @param row    the row in which to look
+         *  @param col    the column in which to look
+         *  @return       the object at (<code>row</code>, <code>col</code>);
+         *                <code>null</code> if that location is not
+         *                in the grid or is empty
+         **/
+        public GridObject objectAt(int row, int col)
+        {
+            Chunk chunk = chunkContaining(row, col);
+            if ( chunk == null )
+                return null;
+            return chunk.cells[cellIndex(row, col)];
+        }
+
+        /** Performs the given action for each object in the given
+         *  rectangle of locations, scanning only the cells of the
+         *  populated chunks that overlap the rectangle.  The chunks are
+         *  looked up by their coordinates or, if the rectangle overlaps
+         *  more chunk areas than there are populated chunks, found by
+         *  going through the populated chunks.
+         *  (Precondition: <code>action</code> does not modify the grid.)
+         *  @param minRow  top row of the rectangle
+         *  @param minCol  leftmost column of the rectangle
+         *  @param maxRow  bottom row of the rectangle
+         *  @param maxCol  rightmost column of the rectangle
+         *  @param action  the action to perform on each object
+         **/
+        public void forEachInRect(int minRow, int minCol,
+                                  int maxRow, int maxCol,
+                                  Consumer<? super GridObject> action)
+        {
+            if ( minRow > maxRow || minCol > maxCol )
+                return;
+
+            int minChunkRow = minRow >> CHUNK_SHIFT;
+            int maxChunkRow = maxRow >> CHUNK_SHIFT;
+            int minChunkCol = minCol >> CHUNK_SHIFT;
+            int maxChunkCol = maxCol >> CHUNK_SHIFT;
+            long chunksInRect = ((long) maxChunkRow - minChunkRow + 1) *
+                                ((long) maxChunkCol - minChunkCol + 1);
+            if ( chunksInRect <= chunkCount )
+            {
+                for ( int cr = minChunkRow; cr <= maxChunkRow; cr++ )
+                    for ( int cc = minChunkCol; cc <= maxChunkCol; cc++ )
+                    {
+                        int index = indexOfChunk.get(Location.pack(cr, cc));
+                        if ( index != LongIntHashMap.NO_VALUE )
+                            chunks[index].forEachInRect(minRow, minCol,
+                                                        maxRow, maxCol, action);
+                    }
+            }
+            else
+            {
+                for ( int i = 0; i < chunkCount; i++ )
+                {
+                    Chunk chunk = chunks[i];
+                    if ( minChunkRow <= chunk.chunkRow &&
+                         chunk.chunkRow <= maxChunkRow &&
+                         minChunkCol <= chunk.chunkCol &&
+                         chunk.chunkCol <= maxChunkCol )
+                        chunk.forEachInRect(minRow, minCol, maxRow, maxCol,
+                                            action);
+                }
+            }
+        }
+
+        /** Returns the number of populated chunks.
+         *  @return  the number of chunks that contain at least one object
+         **/
+        public int numChunks()
+        {
+            return chunkCount;
+        }
+
+        /** Returns the populated chunks (in no particular order).
+         *  @return  the chunks that contain at least one object
+         **/
+        public Chunk[] populatedChunks()
+        {
+            return Arrays.copyOf(chunks, chunkCount);
+        }
+
+
+      // modifier methods
+
+        /** Adds a new object to this internal grid representation at the
+         *  location it specifies, allocating a chunk for its area if
+         *  necessary.
+         *  (Precondition: <code>obj.grid()</code> is this grid and
+         *   <code>obj.location()</code> is a valid empty location;
+         *   verified by the <code>Grid</code> object.)
+         *  @param obj the new object to be added
+         **/
+        public void add(GridObject obj)
+        {
+            Location loc = obj.location();
+            placeObject(obj, loc.row(), loc.col());
+        }
+
+        /** Removes the object from this internal grid representation,
+         *  discarding its chunk if the chunk becomes empty.
+         *  (Precondition: <code>obj</code> is in this grid; verified
+         *   by the <code>Grid</code> object.)
+         *  @param obj     the object to be removed
+         **/
+        public void remove(GridObject obj)
+        {
+            Location loc = obj.location();
+            clearCell(loc.row(), loc.col());
+        }
+
+        /** Removes all objects from this internal grid representation
+         *  by discarding all of its chunks.
+         **/
+        public void clear()
+        {
+            for ( int i = 0; i < chunkCount; i++ )
+            {
+                chunks[i].index = -1;
+                chunks[i] = null;
+            }
+            indexOfChunk.clear();
+            chunkCount = 0;
+            objectCount = 0;
+            lastChunk = null;
+        }
+
+        /** Moves an object from one location in this internal grid
+         *  representation to another.  A move within a chunk just
+         *  changes two cells of the chunk.
+         *  (Precondition: <code>obj</code> is at <code>from</code>,
+         *   <code>to</code> is a valid empty location, and
+         *   <code>obj.location()</code> is <code>to</code>; verified by
+         *   the <code>Grid</code> object.)
+         *  @param obj     the object to be moved
+         *  @param from    the object's previous location
+         *  @param to      the object's new location
+         **/
+        public void move(GridObject obj, Location from, Location to)
+        {
+            Chunk fromChunk = chunkContaining(from.row(), from.col());
+            if ( (from.row() >> CHUNK_SHIFT) == (to.row() >> CHUNK_SHIFT) &&
+                 (from.col() >> CHUNK_SHIFT) == (to.col() >> CHUNK_SHIFT) )
+            {
+                fromChunk.cells[cellIndex(to.row(), to.col())] = obj;
+                fromChunk.cells[cellIndex(from.row(), from.col())] = null;
+                return;
+            }
+
+            // Otherwise the new chunk may have to be allocated and the
+            // old one may be left empty.
+            placeObject(obj, to.row(), to.col());
+            clearCell(from.row(), from.col());
+        }
+
+
+      // internal helper methods
+
+        /** Puts an object in the given cell, allocating a chunk for its
+         *  area if necessary.
+         **/
+        private void placeObject(GridObject obj, int row, int col)
+        {
+            Chunk chunk = chunkContaining(row, col);
+            if ( chunk == null )
+                chunk = newChunk(row >> CHUNK_SHIFT, col >> CHUNK_SHIFT);
+            chunk.cells[cellIndex(row, col)] = obj;
+            chunk.count++;
+            objectCount++;
+        }
+
+        /** Empties the given (occupied) cell, discarding its chunk if the
+         *  chunk becomes empty.
+         **/
+        private void clearCell(int row, int col)
+        {
+            Chunk chunk = chunkContaining(row, col);
+            chunk.cells[cellIndex(row, col)] = null;
+            objectCount--;
+            if ( --chunk.count == 0 )
+                discardChunk(chunk);
+        }
+
+        /** Returns the index of a cell within its chunk's array.
+         **/
+        private static int cellIndex(int row, int col)
+        {
+            return ((row & CHUNK_MASK) << CHUNK_SHIFT) | (col & CHUNK_MASK);
+        }
+
+        /** Returns the chunk containing the given cell, or
+         *  <code>null</code> if that area of the grid is empty.
+         **/
+        private Chunk chunkContaining(int row, int col)
+        {
+            int chunkRow = row >> CHUNK_SHIFT;
+            int chunkCol = col >> CHUNK_SHIFT;
+
+            // Neighboring cells are usually in the same chunk as the
+            // previous lookup, so check that chunk before hashing.  (A
+            // lookup that overlaps a modification may cache a chunk that
+            // has just been discarded, so make sure it is still in use.)
+            // Concurrent readers share the cache, so read it and fill it
+            // only through locals: the chunk returned is always the one
+            // this lookup found, whatever other readers store.
+            Chunk chunk = lastChunk;
+            if ( chunk != null && chunk.chunkRow == chunkRow
+                               && chunk.chunkCol == chunkCol
+                               && chunk.index >= 0 )
+                return chunk;
+
+            int index = indexOfChunk.get(Location.pack(chunkRow, chunkCol));
+            if ( index == LongIntHashMap.NO_VALUE )
+                return null;
+            chunk = chunks[index];
+            lastChunk = chunk;
+            return chunk;
+        }
+
+        /** Allocates an empty chunk for the given chunk coordinates.
+         **/
+        private Chunk newChunk(int chunkRow, int chunkCol)
+        {
+            Chunk chunk = new Chunk(chunkRow, chunkCol);
+            if ( chunkCount == chunks.length )
+                chunks = Arrays.copyOf(chunks, chunks.length * 2);
+            chunk.index = chunkCount;
+            chunks[chunkCount] = chunk;
+            indexOfChunk.put(Location.pack(chunkRow, chunkCol), chunkCount);
+            chunkCount++;
+            lastChunk = chunk;
+            return chunk;
+        }
+
+        /** Discards an empty chunk, moving the last chunk in the dense
+         *  array into its position.
+         **/
+        private void discardChunk(Chunk chunk)
+        {
+            indexOfChunk.remove(Location.pack(chunk.chunkRow, chunk.chunkCol));
+            int last = --chunkCount;
+            if ( chunk.index != last )
+            {
+                Chunk moved = chunks[last];
+                moved.index = chunk.index;
+                chunks[chunk.index] = moved;
+                indexOfChunk.put(Location.pack(moved.chunkRow, moved.chunkCol),
+                                 moved.index);
+            }
+            chunks[last] = null;
+            chunk.index = -1;
+            if ( lastChunk == chunk )
+                lastChunk = null;
+        }
+
+
+        /** A <code>ChunkSpliterator</code> traverses a range of the dense
+         *  array of chunks, and splits the range in half.
+         **/
+        private class ChunkSpliterator implements Spliterator<GridObject>
+        {
+            private int chunkIndex;     // chunk being traversed
+            private int cell;           // next cell to examine in that chunk
+            private int end;            // first chunk index past the range
+
+            ChunkSpliterator(int firstChunk, int end)
+            {
+                this.chunkIndex = firstChunk;
+                this.cell = 0;
+                this.end = end;
+            }
+
+            public boolean tryAdvance(Consumer<? super GridObject> action)
+            {
+                for ( ; chunkIndex < end; chunkIndex++, cell = 0 )
+                {
+                    GridObject[] cells = chunks[chunkIndex].cells;
+                    while ( cell < cells.length )
+                    {
+                        GridObject obj = cells[cell++];
+                        if ( obj != null )
+                        {
+                            action.accept(obj);
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }
+
+            public void forEachRemaining(Consumer<? super GridObject> action)
+            {
+                for ( ; chunkIndex < end; chunkIndex++, cell = 0 )
+                {
+                    GridObject[] cells = chunks[chunkIndex].cells;
+                    for ( ; cell < cells.length; cell++ )
+                        if ( cells[cell] != null )
+                            action.accept(cells[cell]);
+                }
+            }
+
+            public Spliterator<GridObject> trySplit()
+            {
+                int mid = (chunkIndex + end) >>> 1;
+                if ( mid <= chunkIndex )
+                    return null;
+
+                // The current chunk may be partly traversed, so this
+                // spliterator keeps it and gives away the second half.
+                Spliterator<GridObject> suffix = new ChunkSpliterator(mid, end);
+                end = mid;
+                return suffix;
+            }
+
+            public long estimateSize()
+            {
+                long size = 0;
+                for ( int i = chunkIndex; i < end; i++ )
+                    size += chunks[i].count;
+                return size;
+            }
+
+            public int characteristics()
+            {
+                return Spliterator.NONNULL | Spliterator.DISTINCT;
+            }
+        }
+
+
+        /** A <code>Chunk</code> is a square block of
+         *  <code>CHUNK_SIZE</code> x <code>CHUNK_SIZE</code> cells
+         *  stored in row-major order.
+         **/
+        public static class Chunk
+        {
+            private final int chunkRow, chunkCol;  // chunk coordinates
+            private final GridObject[] cells;
+            private int count;                     // # of objects in chunk
+            private int index;                     // position in dense array
+
+            private Chunk(int chunkRow, int chunkCol)
+            {
+                this.chunkRow = chunkRow;
+                this.chunkCol = chunkCol;
+                this.cells = new GridObject[CHUNK_SIZE * CHUNK_SIZE];
+            }
+
+            /** Returns the grid row of this chunk's top row.
+             *  @return the first row covered by this chunk
+             **/
+            public int firstRow()
+            {
+                return chunkRow << CHUNK_SHIFT;
+            }
+
+            /** Returns the grid column of this chunk's leftmost column.
+             *  @return the first column covered by this chunk
+             **/
+            public int firstCol()
+            {
+                return chunkCol << CHUNK_SHIFT;
+            }
+
+            /** Returns the number of objects in this chunk.
+             *  @return  the number of objects
+             **/
+            public int numObjects()
+            {
+                return count;
+            }
+
+            /** Returns the object at a cell of this chunk.
+             *  (Precondition: <code>0 <= rowOffset, colOffset &lt;
+             *  CHUNK_SIZE</code>.)
+             *  @param rowOffset  row within the chunk
+             *  @param colOffset  column within the chunk
+             *  @return  the object in that cell, or <code>null</code>
+             **/
+            public GridObject objectAt(int rowOffset, int colOffset)
+            {
+                return cells[(rowOffset << CHUNK_SHIFT) | colOffset];
+            }
+
+            /** Performs the given action for each object in this chunk,
+             *  in row-major order.
+             *  @param action  the action to perform on each object
+             **/
+            public void forEachObject(Consumer<? super GridObject> action)
+            {
+                int remaining = count;
+                for ( int i = 0; remaining > 0; i++ )
+                {
+                    if ( cells[i] != null )
+                    {
+                        remaining--;
+                        action.accept(cells[i]);
+                    }
+                }
+            }
+
+            /** Performs the given action for each object in the part
+             *  of this chunk that lies within the given rectangle of
+             *  grid locations.
+             **/
+            private void forEachInRect(int minRow, int minCol,
+                                       int maxRow, int maxCol,
+                                       Consumer<? super GridObject> action)
+            {
+                int firstRow = firstRow();
+                int firstCol = firstCol();
+                int fromRow = Math.max(minRow, firstRow) - firstRow;
+                int toRow = Math.min(maxRow, firstRow + CHUNK_MASK) - firstRow;
+                int fromCol = Math.max(minCol, firstCol) - firstCol;
+                int toCol = Math.min(maxCol, firstCol + CHUNK_MASK) - firstCol;
+                for ( int r = fromRow; r <= toRow; r++ )
+                {
+                    int end = (r << CHUNK_SHIFT) | toCol;
+                    for ( int i = (r << CHUNK_SHIFT) | fromCol; i <= end; i++ )
+                        if ( cells[i] != null )
+                            action.accept(cells[i]);
+                }
+            }
+
+            /** Copies this chunk's objects into an array, in row-major
+             *  order.
+             **/
+            private int copyObjectsInto(GridObject[] dest, int destIndex)
+            {
+                int stopAt = destIndex + count;
+                for ( int i = 0; destIndex < stopAt; i++ )
+                    if ( cells[i] != null )
+                        dest[destIndex++] = cells[i];
+                return destIndex;
+            }
+        }
+    }
+}
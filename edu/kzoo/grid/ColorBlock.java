@@ -75,8 +75,16 @@ public class ColorBlock extends GridObject
      **/
     public ColorBlock(Grid grid, Location loc, Color colorValue)
     {
-        super(grid, loc);
+        // Set the color before placing the block in the grid, so that a
+        // grid that keeps colors rather than objects (see
+        // CellStateGrid) can see it.
+        super();
         theColor = colorValue;
+        if ( grid != null && loc != null )
+            addToGrid(grid, loc);
+        else if ( grid != null || loc != null )
+            throw new IllegalArgumentException(
+              "Both grid and loc should be provided or both should be null.");
     }
 
     /** Gets color value for color block.
@@ -52,6 +52,10 @@ public class Direction
     private static final String[] dirNames = {"North", "Northeast", "East", "Southeast",
                                               "South", "Southwest", "West", "Northwest"};
 
+    // Array of the named compass point directions, in the same order.
+    private static final Direction[] compassPoints = {NORTH, NORTHEAST, EAST, SOUTHEAST,
+                                                      SOUTH, SOUTHWEST, WEST, NORTHWEST};
+
     // Instance Variables: Encapsulated data for each Direction object
     private int dirInDegrees;   // represents compass direction in degrees,
                                 // with 0 degrees as North,
@@ -223,9 +227,52 @@ public class Direction
         return startingDir.toRight(numRegions*regionWidth);
     }
 
+    /** Rounds this direction to the nearest of <code>numDirections</code>
+     *  evenly spaced "cardinal" directions starting at NORTH, and returns
+     *  the index of that cardinal direction.  Index 0 is NORTH, and the
+     *  indices increase clockwise, so with four directions EAST is 1 and
+     *  with eight directions EAST is 2.  Rounding is the same as for
+     *  <code>roundedDir(numDirections, Direction.NORTH)</code>, but no
+     *  <code>Direction</code> objects are created.
+     *  (Precondition: 0 < numDirections <= 360)
+     *  @param numDirections  the number of "cardinal" directions
+     *  @return the index of the nearest cardinal direction, in the range
+     *          <code>0</code> to <code>numDirections - 1</code>
+     **/
+    public int roundedIndex(int numDirections)
+    {
+        // Round to the nearest region, with ties rounding clockwise,
+        // then wrap the region just counter-clockwise of North.
+        int regionWidth = FULL_CIRCLE / numDirections;
+        int numRegions = (2 * dirInDegrees + regionWidth) / (2 * regionWidth);
+        return numRegions % numDirections;
+    }
+
 
   // methods not tied to any one Direction object
 
+    /** Returns the cardinal direction with the given index when the
+     *  compass is divided into <code>numDirections</code> evenly spaced
+     *  directions starting at NORTH (see <code>roundedIndex</code>).
+     *  The named compass point constants are returned when
+     *  <code>numDirections</code> is 4 or 8, so no new object is created.
+     *  (Precondition: 0 < numDirections <= 360)
+     *  @param index          the index of the cardinal direction; values
+     *                        outside the range <code>0</code> to
+     *                        <code>numDirections - 1</code> wrap around
+     *  @param numDirections  the number of "cardinal" directions
+     *  @return the cardinal direction with the given index
+     **/
+    public static Direction fromIndex(int index, int numDirections)
+    {
+        index %= numDirections;
+        if ( index < 0 )
+            index += numDirections;
+
+        if ( compassPoints.length % numDirections == 0 )
+            return compassPoints[index * (compassPoints.length / numDirections)];
+        return new Direction(index * (FULL_CIRCLE / numDirections));
+    }
 
     /** Returns a random direction.
      *  @return a direction
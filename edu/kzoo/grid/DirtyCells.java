@@ -0,0 +1,137 @@
+// Class: DirtyCells
+//
+// Author: Alyce Brady
+//
+// License Information:
+//   This class is free software; you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation.
+//
+//   This class is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+
+package edu.kzoo.grid;
+
+import edu.kzoo.util.LongIntHashMap;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ *  Grid Container Package:<br>
+ *
+ *  A <code>DirtyCells</code> object records the locations in a grid
+ *  whose contents have changed since the record was last drained.  Each
+ *  location is recorded once, however many times it changes.  A bounded
+ *  grid's changes are recorded in a bit set with one bit per cell, and
+ *  are drained in row-major order; the changes to an unbounded grid, or
+ *  to a bounded grid with too many cells for a bit set, are recorded in
+ *  a hash set of packed locations, and are drained in the order in which
+ *  the locations first changed.
+ *
+ *  <p>
+ *  A <code>DirtyCells</code> object is maintained by its grid as objects
+ *  are added, removed, and moved (see
+ *  <code>Grid.useDirtyTracking</code>).  Its methods are synchronized,
+ *  since a grid with striped locking may be modified on several threads
+ *  at once.
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ **/
+abstract class DirtyCells
+{
+    /** Creates an empty record of the changes to a grid with the given
+     *  dimensions.
+     *  @param rows  number of rows in the grid, or
+     *               <code>Grid.UNBOUNDED</code>
+     *  @param cols  number of columns in the grid, or
+     *               <code>Grid.UNBOUNDED</code>
+     *  @return      a record suited to the grid
+     **/
+    static DirtyCells forGrid(int rows, int cols)
+    {
+        if ( rows == Grid.UNBOUNDED || cols == Grid.UNBOUNDED ||
+             (long) rows * cols > Integer.MAX_VALUE )
+            return new Unbounded();
+        return new Bounded(rows, cols);
+    }
+
+  // modifier methods
+
+    /** Records that the cell at the given row and column has changed.
+     *  @param row  the row of the changed cell
+     *  @param col  the column of the changed cell
+     **/
+    abstract void add(int row, int col);
+
+    /** Returns the changed cells recorded so far and forgets them.
+     *  @return  the packed locations (see <code>Location.pack</code>) of
+     *           the changed cells
+     **/
+    abstract long[] drain();
+
+
+    /** Changes to a bounded grid, kept in a bit set.
+     **/
+    private static class Bounded extends DirtyCells
+    {
+        private final int numCols;
+        private final BitSet changed;
+
+        Bounded(int rows, int cols)
+        {
+            numCols = cols;
+            changed = new BitSet(rows * cols);
+        }
+
+        synchronized void add(int row, int col)
+        {
+            changed.set(row * numCols + col);
+        }
+
+        synchronized long[] drain()
+        {
+            long[] cells = new long[changed.cardinality()];
+            int next = 0;
+            for ( int i = changed.nextSetBit(0); i >= 0;
+                  i = changed.nextSetBit(i + 1) )
+                cells[next++] = Location.pack(i / numCols, i % numCols);
+            changed.clear();
+            return cells;
+        }
+    }
+
+    /** Changes to an unbounded grid, kept in a hash set of packed
+     *  locations together with a list of them in the order recorded.
+     **/
+    private static class Unbounded extends DirtyCells
+    {
+        private final LongIntHashMap recorded = new LongIntHashMap();
+        private long[] cells = new long[16];
+        private int count = 0;
+
+        synchronized void add(int row, int col)
+        {
+            long packedLoc = Location.pack(row, col);
+            if ( recorded.containsKey(packedLoc) )
+                return;
+
+            if ( count == cells.length )
+                cells = Arrays.copyOf(cells, count * 2);
+            recorded.put(packedLoc, count);
+            cells[count++] = packedLoc;
+        }
+
+        synchronized long[] drain()
+        {
+            long[] drained = Arrays.copyOf(cells, count);
+            recorded.clear();
+            count = 0;
+            return drained;
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+// Class: DistanceMetric
+//
+// Author: Alyce Brady
+//
+// License Information:
+//   This class is free software; you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation.
+//
+//   This class is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+
+package edu.kzoo.grid;
+
+/**
+ *  Grid Container Package:<br>
+ *
+ *  A <code>DistanceMetric</code> specifies how the distance between two
+ *  locations in a grid is measured by the spatial searches of the
+ *  <code>Grid</code> class (<code>nearest</code>, <code>kNearest</code>,
+ *  and <code>withinRadius</code>).
+ *  <ul>
+ *  <li><code>MANHATTAN</code> distance is the number of steps between
+ *      the locations when moving only north, south, east, and west;</li>
+ *  <li><code>CHEBYSHEV</code> distance is the number of steps when
+ *      diagonal moves are also allowed;</li>
+ *  <li><code>EUCLIDEAN</code> distance is the straight-line distance
+ *      between the centers of the cells.</li>
+ *  </ul>
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ *  @see Grid
+ **/
+public enum DistanceMetric
+{
+    MANHATTAN
+    {
+        double measure(long rowChange, long colChange)
+        {
+            return (double) (Math.abs(rowChange) + Math.abs(colChange));
+        }
+
+        double distanceFor(double measure)
+        {
+            return measure;
+        }
+    },
+
+    CHEBYSHEV
+    {
+        double measure(long rowChange, long colChange)
+        {
+            return (double) Math.max(Math.abs(rowChange),
+                                     Math.abs(colChange));
+        }
+
+        double distanceFor(double measure)
+        {
+            return measure;
+        }
+    },
+
+    EUCLIDEAN
+    {
+        // Squared distances are ordered like distances, and avoid taking
+        // a square root for every object compared.
+        double measure(long rowChange, long colChange)
+        {
+            double dr = rowChange;
+            double dc = colChange;
+            return dr * dr + dc * dc;
+        }
+
+        double distanceFor(double measure)
+        {
+            return Math.sqrt(measure);
+        }
+    };
+
+
+  // accessor methods
+
+    /** Returns the distance between two locations.
+     *  @param from  one location
+     *  @param to    the other location
+     *  @return      the distance from <code>from</code> to <code>to</code>
+     **/
+    public double distance(Location from, Location to)
+    {
+        return distance(from.row(), from.col(), to.row(), to.col());
+    }
+
+    /** Returns the distance between two locations given by their rows
+     *  and columns.
+     *  @param fromRow  row of one location
+     *  @param fromCol  column of one location
+     *  @param toRow    row of the other location
+     *  @param toCol    column of the other location
+     *  @return         the distance between the locations
+     **/
+    public double distance(int fromRow, int fromCol, int toRow, int toCol)
+    {
+        return distanceFor(measure((long) toRow - fromRow,
+                                   (long) toCol - fromCol));
+    }
+
+
+  // methods used by spatial searches
+
+    /** Returns a measure of the distance covered by the given row and
+     *  column changes that is ordered the same way as the distance but
+     *  may be cheaper to compute.
+     **/
+    abstract double measure(long rowChange, long colChange);
+
+    /** Returns the distance corresponding to the given measure.
+     **/
+    abstract double distanceFor(double measure);
+
+    /** Returns the measure of a distance of <code>radius</code> cells
+     *  along a row or column, which is also the smallest measure of any
+     *  location outside a square of that half-width.
+     **/
+    double measureOf(long radius)
+    {
+        return measure(radius, 0);
+    }
+
+}
@@ -0,0 +1,367 @@
+// Class: DoubleBufferedGrid
+//
+// Author: Alyce Brady
+//
+// License Information:
+//   This class is free software; you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation.
+//
+//   This class is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+
+package edu.kzoo.grid;
+
+import java.util.Spliterator;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ *  Grid Container Package:<br>
+ *
+ *  A <code>DoubleBufferedGrid</code> is a rectangular, bounded
+ *  two-dimensional grid for simulations, such as cellular automata, in
+ *  which every cell's next state is computed from the current states of
+ *  the cells around it.  The <code>DoubleBufferedGrid</code> itself holds
+ *  the current generation and is read-only; the next generation is built
+ *  in a separate, writable grid returned by <code>next</code>.  When the
+ *  next generation is complete, <code>swap</code> makes it the current
+ *  generation by exchanging the two grids' internal representations, and
+ *  leaves the next-generation grid empty for the following step.  No
+ *  grid is allocated from one generation to the next, and because the
+ *  <code>DoubleBufferedGrid</code> object itself always holds the current
+ *  generation, displays and other observers of it do not need to be told
+ *  about a new grid after each step.
+ *
+ *  <p>
+ *  A typical step reads the current generation and adds the objects of
+ *  the next generation to <code>next()</code>:
+ *  <pre>
+ *      Grid next = grid.next();
+ *      for ( int r = 0; r &lt; grid.numRows(); r++ )
+ *          for ( int c = 0; c &lt; grid.numCols(); c++ )
+ *              if ( cellLivesOn(grid, r, c) )
+ *                  next.add(new Cell(), new Location(r, c));
+ *      grid.swap();
+ *  </pre>
+ *  Since the current generation does not change until <code>swap</code>
+ *  is called, it is read without locking, and the rows of a generation
+ *  may be computed on several threads at once.  The next-generation grid
+ *  is divided into separately locked stripes of rows, like a
+ *  <code>StripedGrid</code>, so threads building different parts of it
+ *  do not wait for each other.  <code>swap</code> must not be called
+ *  while other threads are still reading or building a generation,
+ *  since a step that straddles a swap mixes two generations; even so,
+ *  a single read that overlaps a swap sees either the old generation
+ *  or the new one, never a half-cleared one.
+ *
+ *  <p>
+ *  A <code>DoubleBufferedGrid</code> has the same time and space
+ *  characteristics as a <code>StripedGrid</code> (twice over, for
+ *  space); <code>swap</code> takes time proportional to the number of
+ *  objects in the two generations.
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ *  @see StripedGrid
+ **/
+
+public class DoubleBufferedGrid extends Grid
+{
+  // instance variables: encapsulated data for each DoubleBufferedGrid object
+    private final int numRows;
+    private final int numCols;
+    private final BufferRep currentRep;
+    private final NextGeneration next;
+    private final StampedLock swapLock;    // held for writing during swap
+
+  // constructors
+
+    /** Constructs an empty DoubleBufferedGrid object with the given
+     *  dimensions.  A cell's neighbors include only the cells to its
+     *  north, south, east, and west, not the cells on the diagonals.
+     *  (Precondition: <code>rows > 0</code> and <code>cols > 0</code>.)
+     *  @param rows        number of rows in DoubleBufferedGrid
+     *  @param cols        number of columns in DoubleBufferedGrid
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public DoubleBufferedGrid(int rows, int cols)
+    {
+        this(false, rows, cols);
+    }
+
+    /** Constructs an empty DoubleBufferedGrid object with the given
+     *  dimensions.  Each cell in this grid will have at most four or
+     *  eight adjacent neighbors, depending on the value of the
+     *  <code>includeDiagonalNeighbors</code> parameter.
+     *  (Precondition: <code>rows > 0</code> and <code>cols > 0</code>.)
+     *  @param includeDiagonalNeighbors  whether to include the four
+     *                                   diagonal locations as neighbors
+     *  @param rows        number of rows in DoubleBufferedGrid
+     *  @param cols        number of columns in DoubleBufferedGrid
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public DoubleBufferedGrid(boolean includeDiagonalNeighbors,
+                              int rows, int cols)
+    {
+        super(new BufferRep(new StripedGrid.StripedGridRep(rows, cols,
+                                    StripedGrid.DEFAULT_ROWS_PER_STRIPE)),
+              includeDiagonalNeighbors);
+        this.numRows = rows;
+        this.numCols = cols;
+        this.currentRep = (BufferRep) internalRep;
+        this.next = new NextGeneration(includeDiagonalNeighbors, rows, cols);
+        this.swapLock = new StampedLock();
+    }
+
+  // accessor methods dealing with grid dimensions
+
+    /** Returns number of rows in this grid.
+     *  @return   the number of rows in this grid
+     **/
+    public int numRows()
+    {
+        return numRows;
+    }
+
+    /** Returns number of columns in this grid.
+     *  @return   the number of columns in this grid
+     **/
+    public int numCols()
+    {
+        return numCols;
+    }
+
+
+  // accessor methods that deal with the two generations
+
+    /** Returns the writable grid in which the next generation is built.
+     *  The same grid is returned for every generation; it is empty at
+     *  the start of each step.
+     *  @return  the next-generation grid
+     **/
+    public Grid next()
+    {
+        return next;
+    }
+
+    /** Indicates that this grid, which holds the current generation,
+     *  cannot be modified directly.
+     *  @return  <code>true</code>
+     **/
+    public boolean isReadOnly()
+    {
+        return true;
+    }
+
+    /** Returns the object at a packed location in the current generation.
+     *  The current generation changes only when <code>swap</code> is
+     *  called, so it is read without locking, and read again while
+     *  synchronized on the grid if a swap overlapped the read.
+     *  @param packedLoc  the location in which to look, packed by
+     *                    <code>Location.pack</code>
+     *  @return       the object at location <code>packedLoc</code>;
+     *                <code>null</code> if <code>packedLoc</code> is not
+     *                in the grid or is empty
+     **/
+    public GridObject objectAt(long packedLoc)
+    {
+        // As in Grid's read/write mode, a read that overlaps a swap may
+        // see a half-cleared generation or fail with an exception, so
+        // only a read that no swap overlapped is trusted.  The swap
+        // holds the grid's monitor, so the second read waits for it.
+        long stamp = swapLock.tryOptimisticRead();
+        if ( stamp != 0 )
+        {
+            try
+            {
+                GridObject obj = internalRep.objectAt(packedLoc);
+                if ( swapLock.validate(stamp) )
+                    return obj;
+            }
+            catch (RuntimeException e)
+            {
+                if ( swapLock.validate(stamp) )
+                    throw e;
+            }
+        }
+        synchronized (this)
+        {
+            return internalRep.objectAt(packedLoc);
+        }
+    }
+
+
+  // modifier methods
+
+    /** Makes the next generation the current one.  The objects in the
+     *  next-generation grid move to this grid, keeping their locations;
+     *  the objects of the previous generation are removed; and the
+     *  next-generation grid is left empty.  The grids' internal
+     *  representations are exchanged rather than copied.
+     *  (Precondition: no other thread is reading or modifying either
+     *  generation.)
+     **/
+    public void swap()
+    {
+        batch(new BatchOperation() {
+            public void applyTo(Grid current)
+            {
+                next.batch(new BatchOperation() {
+                    public void applyTo(Grid nextGrid)
+                    {
+                        long stamp = swapLock.writeLock();
+                        try
+                        {
+                            takeContentsOf(nextGrid, new Runnable() {
+                                public void run()
+                                {
+                                    currentRep.exchangeWith(next.nextRep);
+                                }});
+                        }
+                        finally
+                        {
+                            swapLock.unlockWrite(stamp);
+                        }
+                    }});
+            }});
+    }
+
+
+  // grid holding the next generation
+
+    /** A <code>NextGeneration</code> grid is the writable grid in which
+     *  a <code>DoubleBufferedGrid</code> builds its next generation.  It
+     *  is locked by stripes of rows, like a <code>StripedGrid</code>.
+     **/
+    private static class NextGeneration extends Grid
+    {
+        private final int numRows;
+        private final int numCols;
+        private final BufferRep nextRep;
+
+        NextGeneration(boolean includeDiagonalNeighbors, int rows, int cols)
+        {
+            super(new BufferRep(new StripedGrid.StripedGridRep(rows, cols,
+                                    StripedGrid.DEFAULT_ROWS_PER_STRIPE)),
+                  includeDiagonalNeighbors,
+                  new StripedGrid.StripedGridLock(rows,
+                                    StripedGrid.DEFAULT_ROWS_PER_STRIPE));
+            this.numRows = rows;
+            this.numCols = cols;
+            this.nextRep = (BufferRep) internalRep;
+        }
+
+        public int numRows()
+        {
+            return numRows;
+        }
+
+        public int numCols()
+        {
+            return numCols;
+        }
+    }
+
+
+  // internal representation that can be exchanged
+
+    /** A <code>BufferRep</code> passes every operation on to the
+     *  representation it currently holds, so that two grids can exchange
+     *  their contents by exchanging the representations their
+     *  <code>BufferRep</code> objects hold.
+     **/
+    private static class BufferRep implements Grid.InternalRepresentation
+    {
+        private Grid.InternalRepresentation target;
+
+        BufferRep(Grid.InternalRepresentation target)
+        {
+            this.target = target;
+        }
+
+        /** Exchanges the representations held by this object and another.
+         **/
+        void exchangeWith(BufferRep other)
+        {
+            Grid.InternalRepresentation temp = target;
+            target = other.target;
+            other.target = temp;
+        }
+
+        public boolean isValid(Location loc)
+        {
+            return target.isValid(loc);
+        }
+
+        public boolean isValid(int row, int col)
+        {
+            return target.isValid(row, col);
+        }
+
+        public int numObjects()
+        {
+            return target.numObjects();
+        }
+
+        public GridObject[] allObjects()
+        {
+            return target.allObjects();
+        }
+
+        public void forEachObject(Consumer<? super GridObject> action)
+        {
+            target.forEachObject(action);
+        }
+
+        public Spliterator<GridObject> spliterator()
+        {
+            return target.spliterator();
+        }
+
+        public GridObject objectAt(Location loc)
+        {
+            return target.objectAt(loc);
+        }
+
+        public GridObject objectAt(int row, int col)
+        {
+            return target.objectAt(row, col);
+        }
+
+        public GridObject objectAt(long packedLoc)
+        {
+            return target.objectAt(packedLoc);
+        }
+
+        public void forEachInRect(int minRow, int minCol,
+                                  int maxRow, int maxCol,
+                                  Consumer<? super GridObject> action)
+        {
+            target.forEachInRect(minRow, minCol, maxRow, maxCol, action);
+        }
+
+        public void add(GridObject obj)
+        {
+            target.add(obj);
+        }
+
+        public void remove(GridObject obj)
+        {
+            target.remove(obj);
+        }
+
+        public void move(GridObject obj, Location from, Location to)
+        {
+            target.move(obj, from, to);
+        }
+
+        public void clear()
+        {
+            target.clear();
+        }
+    }
+
+}
@@ -22,7 +22,28 @@ package edu.kzoo.grid;
 
 import edu.kzoo.util.RandNumGenerator;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  *  Grid Container Package:<br>
@@ -46,7 +67,7 @@ import java.util.ArrayList;
  *  @see GridObject
  **/
 
-public abstract class Grid
+public abstract class Grid implements Iterable<GridObject>
 {
   // constants
 
@@ -55,6 +76,20 @@ public abstract class Grid
      **/
     public final static int UNBOUNDED = -1;
 
+    // Row and column changes to reach the adjacent neighbor in each
+    // direction, indexed by Direction.roundedIndex (N, E, S, W for four
+    // neighbors; N, NE, E, SE, S, SW, W, NW for eight neighbors).
+    private static final int[] ROW_DELTAS_4 = {-1,  0,  1,  0};
+    private static final int[] COL_DELTAS_4 = { 0,  1,  0, -1};
+    private static final int[] ROW_DELTAS_8 = {-1, -1,  0,  1,  1,  1,  0, -1};
+    private static final int[] COL_DELTAS_8 = { 0,  1,  1,  1,  0, -1, -1, -1};
+
+    // Eight-neighbor direction index from a location to each adjacent
+    // location, indexed by (rowChange + 1) * 3 + (colChange + 1).
+    private static final int[] ADJACENT_DIR_INDEX_8 = {7, 0, 1,
+                                                       6, 0, 2,
+                                                       5, 4, 3};
+
   // instance variables: encapsulated data for EACH Grid object
 
     /** Instance variable indicating whether the set of neighbors around
@@ -68,6 +103,49 @@ public abstract class Grid
      **/
     protected final InternalRepresentation internalRep;
 
+    // Neighbor delta tables for the number of adjacent neighbors in
+    // this grid.
+    private final int[] rowDeltas;
+    private final int[] colDeltas;
+
+    // Number of additions, removals, and moves so far, used to detect
+    // changes to the grid during iteration, and number of additions and
+    // removals alone, used to tell when the cached snapshot of the
+    // grid's objects is out of date.  (Atomic because a grid with
+    // striped locking may be modified by several threads at once.)
+    private final AtomicInteger modCount = new AtomicInteger();
+    private final AtomicInteger membershipCount = new AtomicInteger();
+    private volatile Snapshot snapshot = null;
+
+    // Lock used instead of this grid's monitor once the grid has been
+    // put in read/write locking mode; null in the default mode.
+    private volatile GridLock gridLock = null;
+
+    // Nesting depth of batches being performed by the thread that has
+    // exclusive access to the grid.
+    private int batchDepth = 0;
+
+    // Index of the grid's objects by class, or null if the grid does
+    // not keep one.
+    private volatile TypeIndex typeIndex = null;
+
+    // Record of the cells changed since it was last drained, or null if
+    // the grid does not track changes.
+    private volatile DirtyCells dirtyCells = null;
+
+    // Listeners notified of additions, removals, and moves; the block of
+    // changes still being filled, the blocks waiting to be delivered in
+    // order, and whether some thread is delivering them (all guarded by
+    // mutationLock, since a grid with striped locking may be modified on
+    // several threads).
+    private volatile GridMutationListener[] mutationListeners =
+                                            new GridMutationListener[0];
+    private final Object mutationLock = new Object();
+    private GridMutations pendingMutations = null;
+    private final ArrayDeque<GridMutations> readyMutations =
+                                            new ArrayDeque<GridMutations>();
+    private boolean deliveringMutations = false;
+
 
   // constructors
 
@@ -107,6 +185,453 @@ public abstract class Grid
     {
         internalRep = rep;
         includeDiagonals = includeDiagonalNeighbors;
+        rowDeltas = includeDiagonals ? ROW_DELTAS_8 : ROW_DELTAS_4;
+        colDeltas = includeDiagonals ? COL_DELTAS_8 : COL_DELTAS_4;
+    }
+
+    /** Constructs a <code>Grid</code> object with the specified internal
+     *  representation that is in read/write locking mode from the start,
+     *  using the given lock.  Each cell in this grid will have at most
+     *  four or eight adjacent neighbors, depending on the value of the
+     *  <code>includeDiagonalNeighbors</code> parameter.
+     *  @param rep  the internal representation for the grid and the
+     *              objects it contains
+     *  @param includeDiagonalNeighbors    whether to include the four
+     *                                      diagonal locations as neighbors
+     *  @param lock the lock guarding the internal representation
+     **/
+    protected Grid(InternalRepresentation rep,
+                   boolean includeDiagonalNeighbors, GridLock lock)
+    {
+        this(rep, includeDiagonalNeighbors);
+        gridLock = lock;
+    }
+
+
+  // methods dealing with concurrency
+
+    /** Switches this grid from its default concurrency mode, in which
+     *  every access is synchronized on the grid, to a read/write mode
+     *  based on a <code>StampedLock</code>.  In read/write mode,
+     *  <code>objectAt</code> and <code>isEmpty</code> take no lock at
+     *  all unless a modification happens at the same moment (in which
+     *  case they retry under a read lock), whole-grid reads such as
+     *  <code>numObjects</code>, <code>allObjects</code>, and
+     *  <code>forEachObject</code> share a read lock, and additions and
+     *  removals take an exclusive write lock.  Readers therefore no
+     *  longer wait for one another, which suits grids that are read by
+     *  several threads (a display, tool tips, worker threads) much more
+     *  often than they are modified.
+     *  This method should be called before the grid is shared between
+     *  threads, typically right after it is constructed; the grid
+     *  cannot be switched back to its default mode.
+     **/
+    public synchronized void useReadWriteLocking()
+    {
+        if ( gridLock == null )
+            gridLock = new StampedGridLock();
+    }
+
+    /** Indicates whether this grid is in read/write locking mode.
+     *  @return  <code>true</code> if <code>useReadWriteLocking</code>
+     *           has been called; <code>false</code> otherwise
+     **/
+    public boolean usesReadWriteLocking()
+    {
+        return gridLock != null;
+    }
+
+    /** Returns the lock used in read/write locking mode, or
+     *  <code>null</code> if this grid synchronizes on its own monitor.
+     *  Subclasses that add whole-grid accessors can use
+     *  <code>withReadLock</code> rather than this lock directly.
+     *  @return  the grid's read/write lock, or <code>null</code>
+     **/
+    protected final GridLock gridLock()
+    {
+        return gridLock;
+    }
+
+    /** Performs a read of the whole grid while holding the grid's read
+     *  lock (or, in the default mode, its monitor), and returns the
+     *  result.  Subclasses that add whole-grid accessors should use this
+     *  method.
+     *  @param read  the read to perform
+     *  @return      the result of <code>read</code>
+     **/
+    protected final <T> T withReadLock(Supplier<T> read)
+    {
+        GridLock lock = gridLock;
+        if ( lock == null )
+        {
+            synchronized (this)
+            {
+                return read.get();
+            }
+        }
+        lock.readLockAll();
+        try
+        {
+            return read.get();
+        }
+        finally
+        {
+            lock.unlockReadAll();
+        }
+    }
+
+    /** Performs a read of the whole grid that returns no result while
+     *  holding the grid's read lock (or, in the default mode, its
+     *  monitor).
+     *  @param read  the read to perform
+     **/
+    protected final void withReadLock(final Runnable read)
+    {
+        withReadLock(new Supplier<Void>() {
+            public Void get()
+            {
+                read.run();
+                return null;
+            }});
+    }
+
+    /** Performs a modification of the whole grid while holding the
+     *  grid's write lock for every location (or, in the default mode,
+     *  its monitor).
+     *  @param write  the modification to perform
+     **/
+    protected final void withWriteLock(Runnable write)
+    {
+        GridLock lock = gridLock;
+        if ( lock == null )
+        {
+            synchronized (this)
+            {
+                write.run();
+                return;
+            }
+        }
+        lock.writeLockAll();
+        try
+        {
+            write.run();
+        }
+        finally
+        {
+            lock.unlockWriteAll();
+        }
+    }
+
+    /** Performs a modification of a single location while holding the
+     *  grid's write lock for that location (or, in the default mode, its
+     *  monitor).
+     *  @param row    the row of the location to modify
+     *  @param col    the column of the location to modify
+     *  @param write  the modification to perform
+     **/
+    protected final void withWriteLock(int row, int col, Runnable write)
+    {
+        GridLock lock = gridLock;
+        if ( lock == null )
+        {
+            synchronized (this)
+            {
+                write.run();
+                return;
+            }
+        }
+        lock.writeLock(row, col);
+        try
+        {
+            write.run();
+        }
+        finally
+        {
+            lock.unlockWrite(row, col);
+        }
+    }
+
+
+  // methods dealing with optional indexes and change tracking
+
+    /** Starts keeping an index of the objects in this grid by class, so
+     *  that <code>objectsOfType</code>, <code>countOfType</code>, and
+     *  <code>forEachOfType</code> take time proportional to the number
+     *  of matching objects rather than to the number of objects in the
+     *  grid.  The index is built from the grid's current contents and
+     *  then kept up to date as objects are added and removed, which
+     *  makes additions and removals slightly slower.  Calling this
+     *  method again has no effect.
+     **/
+    public void useTypeIndex()
+    {
+        batch(new BatchOperation() {
+            public void applyTo(Grid grid)
+            {
+                if ( typeIndex != null )
+                    return;
+                final TypeIndex index = new TypeIndex();
+                internalRep.forEachObject(new Consumer<GridObject>() {
+                    public void accept(GridObject obj)
+                    {
+                        index.add(obj);
+                    }});
+                typeIndex = index;
+            }});
+    }
+
+    /** Indicates whether this grid keeps an index of its objects by
+     *  class.
+     *  @return  <code>true</code> if <code>useTypeIndex</code> has been
+     *           called; <code>false</code> otherwise
+     **/
+    public boolean usesTypeIndex()
+    {
+        return typeIndex != null;
+    }
+
+    /** Starts recording which cells of this grid change, so that
+     *  consumers such as displays and savers can process only those
+     *  cells (see <code>drainDirty</code>).  A cell is recorded when an
+     *  object is added to it, removed from it, or moves into or out of
+     *  it.  Changes are recorded in a bit set for a bounded grid and in
+     *  a hash set of packed locations for an unbounded grid.  Changes
+     *  made before this method is called are not recorded.  Calling this
+     *  method again has no effect.
+     **/
+    public void useDirtyTracking()
+    {
+        batch(new BatchOperation() {
+            public void applyTo(Grid grid)
+            {
+                if ( dirtyCells == null )
+                    dirtyCells = DirtyCells.forGrid(numRows(), numCols());
+            }});
+    }
+
+    /** Indicates whether this grid records which of its cells change.
+     *  @return  <code>true</code> if <code>useDirtyTracking</code> has
+     *           been called; <code>false</code> otherwise
+     **/
+    public boolean usesDirtyTracking()
+    {
+        return dirtyCells != null;
+    }
+
+    /** Returns the cells of this grid that have changed since the last
+     *  call to this method (or since <code>useDirtyTracking</code> was
+     *  called), and starts a new record.  Each changed cell is returned
+     *  once, however many times it changed; a cell may be returned even
+     *  if its final contents are the same as before.  The cells of a
+     *  bounded grid are returned in row-major order.  Since draining
+     *  clears the record, a grid's changes should have a single
+     *  consumer.
+     *  @return  the packed locations (see <code>Location.pack</code>) of
+     *           the changed cells; empty if this grid does not track
+     *           changes
+     **/
+    public long[] drainDirty()
+    {
+        return withReadLock(new Supplier<long[]>() {
+            public long[] get()
+            {
+                return drainDirtyLocked();
+            }});
+    }
+
+    /** Drains the record of changed cells; the caller holds the lock.
+     **/
+    private long[] drainDirtyLocked()
+    {
+        DirtyCells dirty = dirtyCells;
+        if ( dirty == null )
+            return new long[0];
+        return dirty.drain();
+    }
+
+
+  // methods dealing with mutation listeners
+
+    /** Registers a listener to be notified of the additions, removals,
+     *  and moves made in this grid.  Changes are delivered in blocks
+     *  (see <code>GridMutations</code>): when the outermost batch of
+     *  modifications completes (see <code>batch</code>), when
+     *  <code>flushMutations</code> is called, or when a block fills up,
+     *  so a large batch may be delivered in several blocks.  Blocks are
+     *  delivered one at a time, in the order in which their changes were
+     *  made, never concurrently.  A block that fills up is delivered
+     *  only once the modification that filled it has released the
+     *  grid's lock, so listeners may read the grid.  A block is usually
+     *  delivered on the thread that completed it, but if another thread
+     *  is already delivering blocks (as can happen in a grid with
+     *  striped locking, which several threads modify at once), that
+     *  thread delivers it after its own.  Listeners should not modify
+     *  the grid.  Recording changes costs nothing while no listeners are
+     *  registered.
+     *  @param listener  the listener to notify
+     **/
+    public void addMutationListener(GridMutationListener listener)
+    {
+        synchronized (mutationLock)
+        {
+            GridMutationListener[] listeners = mutationListeners;
+            GridMutationListener[] newListeners =
+                        Arrays.copyOf(listeners, listeners.length + 1);
+            newListeners[listeners.length] = listener;
+            mutationListeners = newListeners;
+        }
+    }
+
+    /** Stops notifying a listener of the changes made in this grid.
+     *  Changes not yet delivered when the last listener is removed are
+     *  discarded.
+     *  @param listener  the listener to stop notifying
+     **/
+    public void removeMutationListener(GridMutationListener listener)
+    {
+        synchronized (mutationLock)
+        {
+            GridMutationListener[] listeners = mutationListeners;
+            for ( int i = 0; i < listeners.length; i++ )
+                if ( listeners[i] == listener )
+                {
+                    GridMutationListener[] newListeners =
+                            new GridMutationListener[listeners.length - 1];
+                    System.arraycopy(listeners, 0, newListeners, 0, i);
+                    System.arraycopy(listeners, i + 1, newListeners, i,
+                                     newListeners.length - i);
+                    mutationListeners = newListeners;
+                    if ( newListeners.length == 0 )
+                    {
+                        pendingMutations = null;
+                        readyMutations.clear();
+                    }
+                    return;
+                }
+        }
+    }
+
+    /** Delivers the changes made in this grid that have not yet been
+     *  delivered to its mutation listeners.  Applications that step a
+     *  simulation should call this method at the end of each step.  This
+     *  method need not be called while holding the grid's lock; if
+     *  another thread is delivering changes when it is called, that
+     *  thread delivers these changes too, after the ones it is
+     *  delivering, and this method returns at once.
+     **/
+    public void flushMutations()
+    {
+        if ( queuePendingMutations() )
+            deliverMutations();
+    }
+
+    /** Moves the block of changes being recorded, if any, to the queue
+     *  of blocks waiting to be delivered to the mutation listeners.
+     *  @return  <code>true</code> if there was a block to move
+     **/
+    private boolean queuePendingMutations()
+    {
+        synchronized (mutationLock)
+        {
+            if ( pendingMutations == null )
+                return false;
+            readyMutations.add(pendingMutations);
+            pendingMutations = null;
+            return true;
+        }
+    }
+
+    /** Records a change for the mutation listeners, if there are any.
+     *  A block of changes that fills up is queued, to be delivered once
+     *  the modification has released the grid's lock (see
+     *  <code>deliverReadyMutations</code>).
+     **/
+    private void recordMutation(byte kind, GridObject obj,
+                                long fromLoc, long toLoc)
+    {
+        if ( mutationListeners.length == 0 )
+            return;
+
+        synchronized (mutationLock)
+        {
+            if ( pendingMutations == null )
+                pendingMutations = new GridMutations();
+            pendingMutations.append(kind, obj, fromLoc, toLoc);
+            if ( pendingMutations.isFull() )
+            {
+                readyMutations.add(pendingMutations);
+                pendingMutations = null;
+            }
+        }
+    }
+
+    /** Delivers the blocks of changes waiting to be delivered to the
+     *  mutation listeners, in order, unless another thread is already
+     *  delivering them.  The blocks are taken from the queue one at a
+     *  time by the single delivering thread, so no block is delivered
+     *  before an earlier one or at the same time as another, and no
+     *  thread waits for another's listeners to finish.
+     **/
+    private void deliverMutations()
+    {
+        synchronized (mutationLock)
+        {
+            if ( deliveringMutations )
+                return;
+            deliveringMutations = true;
+        }
+        boolean done = false;
+        try
+        {
+            while ( true )
+            {
+                GridMutations changes;
+                synchronized (mutationLock)
+                {
+                    changes = readyMutations.poll();
+                    if ( changes == null )
+                    {
+                        deliveringMutations = false;
+                        done = true;
+                        return;
+                    }
+                }
+                GridMutationListener[] listeners = mutationListeners;
+                for ( int i = 0; i < listeners.length; i++ )
+                    listeners[i].gridMutated(this, changes);
+            }
+        }
+        finally
+        {
+            // A listener threw an exception; leave the remaining blocks
+            // for the next delivery.
+            if ( ! done )
+                synchronized (mutationLock)
+                {
+                    deliveringMutations = false;
+                }
+        }
+    }
+
+
+    /** Delivers the blocks of changes that have filled up, if any, once
+     *  a modification has released the grid's lock, so that listeners
+     *  never run while the grid is locked.  If the current thread still
+     *  has exclusive access to the grid (within a batch, or while it is
+     *  synchronized on the grid), the blocks wait for the outermost
+     *  batch to complete or for <code>flushMutations</code>.
+     **/
+    final void deliverReadyMutations()
+    {
+        if ( mutationListeners.length == 0 )
+            return;
+        synchronized (mutationLock)
+        {
+            if ( readyMutations.isEmpty() )
+                return;
+        }
+        if ( ! holdsWriteAccess() )
+            deliverMutations();
     }
 
 
@@ -134,7 +659,31 @@ public abstract class Grid
      **/
     public boolean isValid(Location loc)
     {
-        return internalRep.isValid(loc);
+        return loc != null && internalRep.isValid(loc.row(), loc.col());
+    }
+
+    /** Verifies whether the location at the given row and column is
+     *  valid in this grid.
+     *  @param  row    row of the location to check
+     *  @param  col    column of the location to check
+     *  @return <code>true</code> if (<code>row</code>, <code>col</code>)
+     *          is valid; <code>false</code> otherwise
+     **/
+    public boolean isValid(int row, int col)
+    {
+        return internalRep.isValid(row, col);
+    }
+
+    /** Verifies whether a packed location is valid in this grid.
+     *  @param  packedLoc  location to check, packed by
+     *                     <code>Location.pack</code>
+     *  @return <code>true</code> if <code>packedLoc</code> is valid;
+     *          <code>false</code> otherwise
+     **/
+    public boolean isValid(long packedLoc)
+    {
+        return internalRep.isValid(Location.unpackRow(packedLoc),
+                                   Location.unpackCol(packedLoc));
     }
 
     /** Returns the number of adjacent neighbors around each cell.
@@ -154,7 +703,7 @@ public abstract class Grid
     {
         RandNumGenerator randNumGen = RandNumGenerator.getInstance();
         int randNum = randNumGen.nextInt(numAdjacentNeighbors());
-        return new Direction(randNum * Direction.FULL_CIRCLE/numAdjacentNeighbors());
+        return Direction.fromIndex(randNum, numAdjacentNeighbors());
     }
 
     /** Returns the direction from one location to another.  If 
@@ -170,6 +719,17 @@ public abstract class Grid
             return Direction.NORTH;
         int rowDifference = fromLoc.row() - toLoc.row(); // our coord system is upside down
         int colDifference = toLoc.col() - fromLoc.col();
+
+        // Adjacent locations can be looked up rather than computed.
+        if ( Math.abs(rowDifference) <= 1 && Math.abs(colDifference) <= 1 )
+        {
+            int dirIndex = ADJACENT_DIR_INDEX_8[(1 - rowDifference) * 3
+                                                + (colDifference + 1)];
+            if ( ! includeDiagonals )
+                dirIndex = (dirIndex + 1) / 2;   // rounds ties clockwise
+            return Direction.fromIndex(dirIndex, numAdjacentNeighbors());
+        }
+
         double inRads = Math.atan2(rowDifference, colDifference);
         double angle = 90 - Math.toDegrees(inRads); // convert to our sweep, North is 0
         Direction d = new Direction((int)angle);
@@ -185,18 +745,27 @@ public abstract class Grid
      **/
     public Location getNeighbor(Location fromLoc, Direction compassDir)
     {
-        Direction roundedDir = compassDir.roundedDir(numAdjacentNeighbors(),
-                                                     Direction.NORTH);
+        return getNeighbor(fromLoc,
+                           compassDir.roundedIndex(numAdjacentNeighbors()));
+    }
 
-        // Calculate neighboring location using sines and cosines.
-        // First have to adjust because our 0 is North, not East.
-        // The row change is the opposite of what is expected because
-        // our row numbers increase as they go down, not up.
-        int adjustedDegrees = 90 - roundedDir.inDegrees();
-        double inRads = Math.toRadians(adjustedDegrees);
-        int colDelta = (int)(Math.cos(inRads) * Math.sqrt(2));
-        int rowDelta = -(int)(Math.sin(inRads) * Math.sqrt(2));
-        return new Location(fromLoc.row() + rowDelta, fromLoc.col() + colDelta);
+    /** Returns the adjacent neighbor (whether valid or invalid) of a location
+     *  in the direction with the given index.  Direction indices start
+     *  with 0 for North and increase clockwise through the
+     *  <code>numAdjacentNeighbors()</code> directions to adjacent
+     *  neighbors (see <code>Direction.roundedIndex</code>).
+     *  @param  fromLoc       starting location for search
+     *  @param  dirIndex      index of the direction in which to look for
+     *                        adjacent neighbor (in the range
+     *                        <code>0</code> to
+     *                        <code>numAdjacentNeighbors() - 1</code>)
+     *  @return neighbor of <code>fromLoc</code> in given direction
+     *                        (whether valid or not)
+     **/
+    public Location getNeighbor(Location fromLoc, int dirIndex)
+    {
+        return new Location(fromLoc.row() + rowDeltas[dirIndex],
+                            fromLoc.col() + colDeltas[dirIndex]);
     }
 
     /** Returns the adjacent neighbors of a specified location.
@@ -209,125 +778,1075 @@ public abstract class Grid
     {
         ArrayList<Location> nbrs = new ArrayList<Location>();
 
-        Direction d = Direction.NORTH;
-        for (int i = 0; i < numAdjacentNeighbors(); i++)
+        for (int i = 0; i < rowDeltas.length; i++)
         {
-            Location neighbor = getNeighbor(ofLoc, d);
-            if ( isValid(neighbor) )
-                nbrs.add(neighbor);
-            d = d.toRight(Direction.FULL_CIRCLE/numAdjacentNeighbors());
+            int row = ofLoc.row() + rowDeltas[i];
+            int col = ofLoc.col() + colDeltas[i];
+            if ( isValid(row, col) )
+                nbrs.add(new Location(row, col));
         } 
         return nbrs;
     }
 
+    /** Gets the adjacent neighbors of a specified location and puts them
+     *  in the given array, in clockwise order starting from North.
+     *  Only neighbors that are valid locations in the grid will be
+     *  included.  Unlike <code>neighborsOf(Location)</code>, this method
+     *  does not create a list; only the neighboring
+     *  <code>Location</code> objects themselves are created.
+     *  (Precondition: <code>out.length >= numAdjacentNeighbors()</code>.)
+     *  @param  ofLoc   location whose neighbors to get
+     *  @param  out     array in which to put the neighbors
+     *  @return the number of neighbors put in <code>out</code>
+     **/
+    public int neighborsOf(Location ofLoc, Location[] out)
+    {
+        int count = 0;
+        for (int i = 0; i < rowDeltas.length; i++)
+        {
+            int row = ofLoc.row() + rowDeltas[i];
+            int col = ofLoc.col() + colDeltas[i];
+            if ( isValid(row, col) )
+                out[count++] = new Location(row, col);
+        }
+        return count;
+    }
 
-  // accessor methods that deal with objects in this grid
+    /** Gets the adjacent neighbors of a specified location and puts them
+     *  in the given array as packed locations (see
+     *  <code>Location.pack</code>), in clockwise order starting from
+     *  North.  Only neighbors that are valid locations in the grid will
+     *  be included.  This method does not create any objects.
+     *  (Precondition: <code>out.length >= numAdjacentNeighbors()</code>.)
+     *  @param  ofLoc   location whose neighbors to get
+     *  @param  out     array in which to put the packed neighbors
+     *  @return the number of neighbors put in <code>out</code>
+     **/
+    public int neighborsOf(Location ofLoc, long[] out)
+    {
+        int count = 0;
+        for (int i = 0; i < rowDeltas.length; i++)
+        {
+            int row = ofLoc.row() + rowDeltas[i];
+            int col = ofLoc.col() + colDeltas[i];
+            if ( isValid(row, col) )
+                out[count++] = Location.pack(row, col);
+        }
+        return count;
+    }
 
-    /** Returns the number of objects in this grid.
-     *  @return   the number of objects
+    /** Gets the adjacent neighbors of a specified location that are
+     *  empty and puts them in the given array, in clockwise order
+     *  starting from North.  Only the neighboring <code>Location</code>
+     *  objects themselves are created.
+     *  (Precondition: <code>out.length >= numAdjacentNeighbors()</code>.)
+     *  @param  ofLoc   location whose empty neighbors to get
+     *  @param  out     array in which to put the empty neighbors
+     *  @return the number of empty neighbors put in <code>out</code>
      **/
-    public synchronized int numObjects()
+    public int emptyNeighborsOf(Location ofLoc, Location[] out)
     {
-        return internalRep.numObjects();
+        // Dispatch on the locking mode here rather than through
+        // withReadLock, so that this query allocates nothing.
+        GridLock lock = gridLock;
+        if ( lock == null )
+        {
+            synchronized (this)
+            {
+                return collectEmptyNeighbors(ofLoc, out);
+            }
+        }
+        lock.readLockAll();
+        try
+        {
+            return collectEmptyNeighbors(ofLoc, out);
+        }
+        finally
+        {
+            lock.unlockReadAll();
+        }
     }
 
-    /** Returns all the objects in this grid.
-     *  @return    an array of all the grid objects
+    /** Puts the empty neighbors of a location in the given array; the
+     *  caller holds the lock.
      **/
-    public synchronized GridObject[] allObjects()
+    private int collectEmptyNeighbors(Location ofLoc, Location[] out)
     {
-        return internalRep.allObjects();
+        int count = 0;
+        for (int i = 0; i < rowDeltas.length; i++)
+        {
+            int row = ofLoc.row() + rowDeltas[i];
+            int col = ofLoc.col() + colDeltas[i];
+            if ( internalRep.isValid(row, col) &&
+                 internalRep.objectAt(row, col) == null )
+                out[count++] = new Location(row, col);
+        }
+        return count;
     }
 
-    /** Determines whether a specific location in this grid is empty.
-     *  @param loc  the location to test
-     *  @return     <code>true</code> if <code>loc</code> is a
-     *              valid location in the context of this grid
-     *              and is empty; <code>false</code> otherwise
+    /** Gets the adjacent neighbors of a specified location that are
+     *  empty and puts them in the given array as packed locations (see
+     *  <code>Location.pack</code>), in clockwise order starting from
+     *  North.  This method does not create any objects.
+     *  (Precondition: <code>out.length >= numAdjacentNeighbors()</code>.)
+     *  @param  ofLoc   location whose empty neighbors to get
+     *  @param  out     array in which to put the packed empty neighbors
+     *  @return the number of empty neighbors put in <code>out</code>
      **/
-    public synchronized boolean isEmpty(Location loc)
+    public int emptyNeighborsOf(Location ofLoc, long[] out)
     {
-        return isValid(loc) && objectAt(loc) == null;
+        GridLock lock = gridLock;
+        if ( lock == null )
+        {
+            synchronized (this)
+            {
+                return collectEmptyNeighbors(ofLoc, out);
+            }
+        }
+        lock.readLockAll();
+        try
+        {
+            return collectEmptyNeighbors(ofLoc, out);
+        }
+        finally
+        {
+            lock.unlockReadAll();
+        }
     }
 
-    /** Returns the object at a specific location in this grid.
-     *  @param loc    the location in which to look
-     *  @return       the object at location <code>loc</code>;
-     *                <code>null</code> if <code>loc</code> is not
-     *                in the grid or is empty
+    /** Puts the empty neighbors of a location in the given array; the
+     *  caller holds the lock.
      **/
-    public synchronized GridObject objectAt(Location loc)
+    private int collectEmptyNeighbors(Location ofLoc, long[] out)
     {
-        return internalRep.objectAt(loc);
+        int count = 0;
+        for (int i = 0; i < rowDeltas.length; i++)
+        {
+            int row = ofLoc.row() + rowDeltas[i];
+            int col = ofLoc.col() + colDeltas[i];
+            if ( internalRep.isValid(row, col) &&
+                 internalRep.objectAt(row, col) == null )
+                out[count++] = Location.pack(row, col);
+        }
+        return count;
     }
 
-    /** Creates a single string representing all the objects in this
-     *  environment (not necessarily in any particular order).
-     *  @return    a string indicating all the objects in this environment
+    /** Visits each adjacent neighbor of a specified location, in
+     *  clockwise order starting from North.  Only neighbors that are
+     *  valid locations in the grid are visited.  This method does not
+     *  create any objects.
+     *  @param  ofLoc    location whose neighbors to visit
+     *  @param  visitor  object to call for each neighbor
      **/
-    public synchronized String toString()
+    public void forEachNeighbor(Location ofLoc, NeighborVisitor visitor)
     {
-        GridObject[] theObjects = allObjects();
-        String s = "Grid contains " + numObjects() + " objects: ";
-        for ( int index = 0; index < theObjects.length; index++ )
-            s += theObjects[index].toString() + " ";
-        return s;
+        for (int i = 0; i < rowDeltas.length; i++)
+        {
+            int row = ofLoc.row() + rowDeltas[i];
+            int col = ofLoc.col() + colDeltas[i];
+            if ( isValid(row, col) )
+                visitor.visitNeighbor(row, col);
+        }
     }
 
 
-  // modifier methods
+  // accessor methods that deal with objects in this grid
 
-    /** Adds a new object to this grid at the specified location.
-     *  (Precondition: <code>obj.grid()</code> and
-     *   <code>obj.location()</code> are both <code>null</code>;
-     *   <code>loc</code> is a valid empty location in this grid.)
-     *  @param obj the new object to be added
-     *  @throws    IllegalArgumentException if the precondition is not met
+    /** Returns the number of objects in this grid.
+     *  @return   the number of objects
      **/
-    public void add(GridObject obj, Location loc)
+    public int numObjects()
     {
-        obj.addToGrid(this, loc);
+        // Called often enough (by displays, and once per step by many
+        // simulations) to be worth dispatching on the locking mode here
+        // rather than boxing the count through withReadLock.
+        GridLock lock = gridLock;
+        if ( lock == null )
+        {
+            synchronized (this)
+            {
+                return internalRep.numObjects();
+            }
+        }
+        lock.readLockAll();
+        try
+        {
+            return internalRep.numObjects();
+        }
+        finally
+        {
+            lock.unlockReadAll();
+        }
     }
 
-    /** Adds the specified object to this grid at the location it specifies.
-     *  This method is meant to be called only by
-     *  <code>GridObject.addToGrid</code> because it assumes a
-     *  broken <code>GridObject</code> invariant: the grid and location
-     *  are set in the <code>GridObject</code> instance, but the object's
-     *  location in the internal representation of the grid does not yet
-     *  represent the object's own view of its location.
-     *  (Precondition: <code>obj.grid()</code> is this grid and
-     *   <code>obj.location()</code> is a valid empty location.)
-     *  @param obj the new object to be added
-     *  @throws    IllegalArgumentException if the precondition is not met
+    /** Returns all the objects in this grid.
+     *  @return    an array of all the grid objects
      **/
-    final synchronized void internalAdd(GridObject obj)
+    public GridObject[] allObjects()
     {
-        // Verify precondition.
-        Location loc = obj.location();
-        if ( obj.grid() != this || ! isEmpty(loc) )
-            throw new IllegalArgumentException("Location " + loc +
-                                    " is not a valid empty location");
+        return withReadLock(new Supplier<GridObject[]>() {
+            public GridObject[] get()
+            {
+                return internalRep.allObjects();
+            }});
+    }
 
-        // Add object to the grid.
-        internalRep.add(obj);
+    /** Performs the given action for each object in this grid (not
+     *  necessarily in any particular order).  The objects are visited
+     *  directly in the grid's internal representation, without copying
+     *  them to an array, so this is the cheapest way to make a read-only
+     *  pass over the grid's contents.  The grid is locked (for reading,
+     *  in read/write locking mode) for the duration of the pass.
+     *  (Precondition: <code>action</code> does not add, remove, or move
+     *  objects in this grid.  Use <code>iterator</code> or
+     *  <code>allObjects</code> for passes that modify the grid.)
+     *  @param action  the action to perform on each object
+     *  @throws ConcurrentModificationException if <code>action</code>
+     *          modifies the grid
+     **/
+    public void forEachObject(Consumer<? super GridObject> action)
+    {
+        withReadLock(new Runnable() {
+            public void run()
+            {
+                visitObjects(action);
+            }});
     }
 
-    /** Removes the specified object from this grid.
-     *  (Precondition: <code>obj</code> is in this grid.)
-     *  @param obj     the object to be removed
-     *  @throws    IllegalArgumentException if the precondition is not met
+    /** Performs the given action for each object in this grid, checking
+     *  that the action does not modify the grid; the caller holds the
+     *  lock.
      **/
-    public synchronized void remove(GridObject obj)
+    private void visitObjects(final Consumer<? super GridObject> action)
     {
-        // Make sure that the object is not in another grid.
-        if ( obj.grid() != this && obj.grid() != null )
-            throw new IllegalArgumentException("Cannot remove " + 
-                                               obj + " from another grid");
+        final int expectedModCount = modCount.get();
+        internalRep.forEachObject(new Consumer<GridObject>() {
+            public void accept(GridObject obj)
+            {
+                action.accept(obj);
+                if ( modCount.get() != expectedModCount )
+                    throw new ConcurrentModificationException();
+            }});
+    }
 
-        // The object should initiate its own removal from the grid so
-        // that its object invariant is not violated.
-        obj.removeFromGrid();
+    /** Returns the objects in this grid that are instances of the given
+     *  class or interface (not necessarily in any particular order).  If
+     *  the grid keeps a type index (see <code>useTypeIndex</code>), this
+     *  takes time proportional to the number of matching objects;
+     *  otherwise every object in the grid is examined.
+     *  @param type  the class or interface of the objects to return
+     *  @return      a list of the objects of type <code>type</code>
+     **/
+    public <T> List<T> objectsOfType(Class<T> type)
+    {
+        return withReadLock(new Supplier<List<T>>() {
+            public List<T> get()
+            {
+                return collectObjectsOfType(type);
+            }});
+    }
+
+    /** Returns the number of objects in this grid that are instances of
+     *  the given class or interface.  If the grid keeps a type index
+     *  (see <code>useTypeIndex</code>), this takes time proportional to
+     *  the number of subclasses of <code>type</code> in the grid;
+     *  otherwise every object in the grid is examined.
+     *  @param type  the class or interface of the objects to count
+     *  @return      the number of objects of type <code>type</code>
+     **/
+    public int countOfType(Class<?> type)
+    {
+        return withReadLock(new Supplier<Integer>() {
+            public Integer get()
+            {
+                return countObjectsOfType(type);
+            }});
+    }
+
+    /** Performs the given action for each object in this grid that is an
+     *  instance of the given class or interface (not necessarily in any
+     *  particular order).  If the grid keeps a type index (see
+     *  <code>useTypeIndex</code>), this takes time proportional to the
+     *  number of matching objects; otherwise every object in the grid
+     *  is examined.  The grid is locked (for reading, in read/write
+     *  locking mode) for the duration of the pass.
+     *  (Precondition: <code>action</code> does not add, remove, or move
+     *  objects in this grid.)
+     *  @param type    the class or interface of the objects to visit
+     *  @param action  the action to perform on each object
+     *  @throws ConcurrentModificationException if <code>action</code>
+     *          modifies the grid
+     **/
+    public <T> void forEachOfType(Class<T> type, Consumer<? super T> action)
+    {
+        withReadLock(new Runnable() {
+            public void run()
+            {
+                visitObjectsOfType(type, action);
+            }});
+    }
+
+    /** Returns the objects of the given type, from the type index if
+     *  there is one; the caller holds the lock.
+     **/
+    private <T> List<T> collectObjectsOfType(final Class<T> type)
+    {
+        TypeIndex index = typeIndex;
+        if ( index != null )
+            return index.objectsOf(type);
+
+        final List<T> theObjects = new ArrayList<T>();
+        internalRep.forEachObject(new Consumer<GridObject>() {
+            public void accept(GridObject obj)
+            {
+                if ( type.isInstance(obj) )
+                    theObjects.add(type.cast(obj));
+            }});
+        return theObjects;
+    }
+
+    /** Counts the objects of the given type, using the type index if
+     *  there is one; the caller holds the lock.
+     **/
+    private int countObjectsOfType(final Class<?> type)
+    {
+        TypeIndex index = typeIndex;
+        if ( index != null )
+            return index.count(type);
+
+        final int[] count = {0};
+        internalRep.forEachObject(new Consumer<GridObject>() {
+            public void accept(GridObject obj)
+            {
+                if ( type.isInstance(obj) )
+                    count[0]++;
+            }});
+        return count[0];
+    }
+
+    /** Performs the given action for each object of the given type,
+     *  checking that the action does not modify the grid; the caller
+     *  holds the lock.
+     **/
+    private <T> void visitObjectsOfType(final Class<T> type,
+                                        final Consumer<? super T> action)
+    {
+        final int expectedModCount = modCount.get();
+        Consumer<T> checkedAction = new Consumer<T>() {
+            public void accept(T obj)
+            {
+                action.accept(obj);
+                if ( modCount.get() != expectedModCount )
+                    throw new ConcurrentModificationException();
+            }};
+
+        TypeIndex index = typeIndex;
+        if ( index != null )
+        {
+            index.forEach(type, checkedAction);
+            return;
+        }
+        visitObjects(new Consumer<GridObject>() {
+            public void accept(GridObject obj)
+            {
+                if ( type.isInstance(obj) )
+                    action.accept(type.cast(obj));
+            }});
+    }
+
+    /** Returns the objects in the given rectangle of locations in this
+     *  grid (not necessarily in any particular order).  The bounds are
+     *  inclusive, and may extend beyond the edges of a bounded grid.
+     *  The cost depends on the size of the rectangle or the number of
+     *  objects found in it, rather than on the size of the grid (see the
+     *  time characteristics of the individual grid classes).
+     *  @param minRow  top row of the rectangle
+     *  @param minCol  leftmost column of the rectangle
+     *  @param maxRow  bottom row of the rectangle
+     *  @param maxCol  rightmost column of the rectangle
+     *  @return        an array of the objects in the rectangle; empty if
+     *                 <code>minRow &gt; maxRow</code> or
+     *                 <code>minCol &gt; maxCol</code>
+     **/
+    public GridObject[] objectsInRect(int minRow, int minCol,
+                                      int maxRow, int maxCol)
+    {
+        final ArrayList<GridObject> theObjects = new ArrayList<GridObject>();
+        forEachInRect(minRow, minCol, maxRow, maxCol,
+                      new Consumer<GridObject>() {
+            public void accept(GridObject obj)
+            {
+                theObjects.add(obj);
+            }});
+        return theObjects.toArray(new GridObject[theObjects.size()]);
+    }
+
+    /** Performs the given action for each object in the given rectangle
+     *  of locations in this grid (not necessarily in any particular
+     *  order), without copying the objects to an array.  The bounds are
+     *  inclusive, and may extend beyond the edges of a bounded grid.
+     *  The grid is locked (for reading, in read/write locking mode) for
+     *  the duration of the pass.
+     *  (Precondition: <code>action</code> does not add, remove, or move
+     *  objects in this grid.)
+     *  @param minRow  top row of the rectangle
+     *  @param minCol  leftmost column of the rectangle
+     *  @param maxRow  bottom row of the rectangle
+     *  @param maxCol  rightmost column of the rectangle
+     *  @param action  the action to perform on each object
+     *  @throws ConcurrentModificationException if <code>action</code>
+     *          modifies the grid
+     **/
+    public void forEachInRect(int minRow, int minCol, int maxRow, int maxCol,
+                              Consumer<? super GridObject> action)
+    {
+        withReadLock(new Runnable() {
+            public void run()
+            {
+                visitObjectsInRect(minRow, minCol, maxRow, maxCol, action);
+            }});
+    }
+
+    /** Performs the given action for each object in the given rectangle,
+     *  checking that the action does not modify the grid; the caller
+     *  holds the lock.
+     **/
+    private void visitObjectsInRect(int minRow, int minCol,
+                                    int maxRow, int maxCol,
+                                    final Consumer<? super GridObject> action)
+    {
+        if ( minRow > maxRow || minCol > maxCol )
+            return;
+
+        final int expectedModCount = modCount.get();
+        internalRep.forEachInRect(minRow, minCol, maxRow, maxCol,
+                                  new Consumer<GridObject>() {
+            public void accept(GridObject obj)
+            {
+                action.accept(obj);
+                if ( modCount.get() != expectedModCount )
+                    throw new ConcurrentModificationException();
+            }});
+    }
+
+    /** Returns the object nearest to the given location that satisfies
+     *  the given filter, measuring distance by the number of steps
+     *  between adjacent neighbors in this grid (Chebyshev distance if
+     *  the grid includes diagonal neighbors; otherwise Manhattan
+     *  distance).  See the four-parameter version of this method.
+     *  @param loc        the location to search from
+     *  @param filter     test the object must pass, or <code>null</code>
+     *                    to accept any object
+     *  @param maxRadius  the largest distance to search
+     *  @return           the nearest object, or <code>null</code> if there
+     *                    is none within <code>maxRadius</code>
+     **/
+    public GridObject nearest(Location loc,
+                              Predicate<? super GridObject> filter,
+                              int maxRadius)
+    {
+        return nearest(loc, filter, maxRadius, stepMetric());
+    }
+
+    /** Returns the object nearest to the given location that satisfies
+     *  the given filter and is no further than <code>maxRadius</code>
+     *  from it.  An object at <code>loc</code> itself is at distance 0.
+     *  If several objects are equally near, any one of them may be
+     *  returned.  The search examines squares of increasing size around
+     *  <code>loc</code> using the grid's rectangle queries (see
+     *  <code>forEachInRect</code>), so its cost depends on how far away
+     *  the nearest object is rather than on the size of the grid.
+     *  (Precondition: <code>filter</code> does not modify the grid.)
+     *  @param loc        the location to search from
+     *  @param filter     test the object must pass, or <code>null</code>
+     *                    to accept any object
+     *  @param maxRadius  the largest distance to search
+     *  @param metric     how distance is measured
+     *  @return           the nearest object, or <code>null</code> if there
+     *                    is none within <code>maxRadius</code>
+     *  @throws IllegalArgumentException if <code>maxRadius</code> is
+     *          negative
+     **/
+    public GridObject nearest(Location loc,
+                              Predicate<? super GridObject> filter,
+                              int maxRadius, DistanceMetric metric)
+    {
+        List<GridObject> found = kNearest(loc, 1, filter, maxRadius, metric);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /** Returns the <code>k</code> objects nearest to the given location
+     *  that satisfy the given filter, measuring distance by the number
+     *  of steps between adjacent neighbors in this grid.  See the
+     *  five-parameter version of this method.
+     *  @param loc        the location to search from
+     *  @param k          the number of objects to find
+     *  @param filter     test the objects must pass, or <code>null</code>
+     *                    to accept any object
+     *  @param maxRadius  the largest distance to search
+     *  @return           the nearest objects, nearest first
+     **/
+    public List<GridObject> kNearest(Location loc, int k,
+                                     Predicate<? super GridObject> filter,
+                                     int maxRadius)
+    {
+        return kNearest(loc, k, filter, maxRadius, stepMetric());
+    }
+
+    /** Returns the <code>k</code> objects nearest to the given location
+     *  that satisfy the given filter and are no further than
+     *  <code>maxRadius</code> from it, nearest first.  Fewer than
+     *  <code>k</code> objects are returned if there are not that many
+     *  within <code>maxRadius</code>.  Objects that are equally near are
+     *  returned in no particular order, and which of them are included
+     *  when they do not all fit is unspecified.
+     *  (Precondition: <code>filter</code> does not modify the grid.)
+     *  @param loc        the location to search from
+     *  @param k          the number of objects to find
+     *  @param filter     test the objects must pass, or <code>null</code>
+     *                    to accept any object
+     *  @param maxRadius  the largest distance to search
+     *  @param metric     how distance is measured
+     *  @return           the nearest objects, nearest first
+     *  @throws IllegalArgumentException if <code>k</code> or
+     *          <code>maxRadius</code> is negative
+     **/
+    public List<GridObject> kNearest(Location loc, int k,
+                                     Predicate<? super GridObject> filter,
+                                     int maxRadius, DistanceMetric metric)
+    {
+        if ( k < 0 || maxRadius < 0 )
+            throw new IllegalArgumentException("Negative count or radius");
+
+        return withReadLock(new Supplier<List<GridObject>>() {
+            public List<GridObject> get()
+            {
+                return searchNearest(loc, k, filter, maxRadius, metric);
+            }});
+    }
+
+    /** Returns the objects within the given distance of a location that
+     *  satisfy the given filter, measuring distance by the number of
+     *  steps between adjacent neighbors in this grid.  See the
+     *  four-parameter version of this method.
+     *  @param loc     the location to search around
+     *  @param radius  the largest distance to include
+     *  @param filter  test the objects must pass, or <code>null</code>
+     *                 to accept any object
+     *  @return        the objects within <code>radius</code> of
+     *                 <code>loc</code>
+     **/
+    public List<GridObject> withinRadius(Location loc, int radius,
+                                         Predicate<? super GridObject> filter)
+    {
+        return withinRadius(loc, radius, filter, stepMetric());
+    }
+
+    /** Returns the objects within the given distance of a location that
+     *  satisfy the given filter (not necessarily in any particular
+     *  order), including any object at <code>loc</code> itself.  The
+     *  search is a single rectangle query (see <code>forEachInRect</code>)
+     *  over the square enclosing the given radius.
+     *  (Precondition: <code>filter</code> does not modify the grid.)
+     *  @param loc     the location to search around
+     *  @param radius  the largest distance to include
+     *  @param filter  test the objects must pass, or <code>null</code>
+     *                 to accept any object
+     *  @param metric  how distance is measured
+     *  @return        the objects within <code>radius</code> of
+     *                 <code>loc</code>
+     *  @throws IllegalArgumentException if <code>radius</code> is
+     *          negative
+     **/
+    public List<GridObject> withinRadius(Location loc, int radius,
+                                         Predicate<? super GridObject> filter,
+                                         DistanceMetric metric)
+    {
+        if ( radius < 0 )
+            throw new IllegalArgumentException("Negative radius");
+
+        return withReadLock(new Supplier<List<GridObject>>() {
+            public List<GridObject> get()
+            {
+                return collectWithinRadius(loc, radius, filter, metric);
+            }});
+    }
+
+    /** Returns the metric that counts steps between adjacent neighbors
+     *  in this grid.
+     **/
+    private DistanceMetric stepMetric()
+    {
+        return includeDiagonals ? DistanceMetric.CHEBYSHEV
+                                : DistanceMetric.MANHATTAN;
+    }
+
+    /** Finds the nearest objects to a location by visiting squares of
+     *  doubling half-width around it, stopping once no unvisited object
+     *  could be nearer than those already found; the caller holds the
+     *  lock.
+     **/
+    private List<GridObject> searchNearest(Location loc, int k,
+                                           Predicate<? super GridObject> filter,
+                                           int maxRadius, DistanceMetric metric)
+    {
+        NearestCollector collector = new NearestCollector(loc, k, filter,
+                                        metric, metric.measureOf(maxRadius));
+        if ( k == 0 )
+            return collector.nearestFirst();
+
+        long row = loc.row();
+        long col = loc.col();
+        long covered = -1;      // half-width of the square visited so far
+        long radius = 0;
+        while ( true )
+        {
+            visitSquareBand(row, col, covered, radius, collector);
+            covered = radius;
+
+            // Every unvisited location is at least covered + 1 away.
+            if ( covered >= maxRadius || squareCoversGrid(row, col, covered) ||
+                 collector.isComplete(metric.measureOf(covered + 1)) )
+                return collector.nearestFirst();
+            radius = Math.min(maxRadius, covered * 2 + 1);
+        }
+    }
+
+    /** Returns the objects within a radius of a location; the caller
+     *  holds the lock.
+     **/
+    private List<GridObject> collectWithinRadius(Location loc, int radius,
+                                    final Predicate<? super GridObject> filter,
+                                    final DistanceMetric metric)
+    {
+        final int row = loc.row();
+        final int col = loc.col();
+        final double limit = metric.measureOf(radius);
+        final List<GridObject> theObjects = new ArrayList<GridObject>();
+        visitRect((long) row - radius, (long) col - radius,
+                  (long) row + radius, (long) col + radius,
+                  new Consumer<GridObject>() {
+            public void accept(GridObject obj)
+            {
+                Location objLoc = obj.location();
+                if ( metric.measure((long) objLoc.row() - row,
+                                    (long) objLoc.col() - col) <= limit &&
+                     (filter == null || filter.test(obj)) )
+                    theObjects.add(obj);
+            }});
+        return theObjects;
+    }
+
+    /** Visits the objects in the square of half-width <code>outer</code>
+     *  around (<code>row</code>, <code>col</code>) that are not in the
+     *  square of half-width <code>inner</code> (which may be -1, for an
+     *  empty inner square); the caller holds the lock.
+     **/
+    private void visitSquareBand(long row, long col, long inner, long outer,
+                                 Consumer<? super GridObject> action)
+    {
+        if ( inner < 0 )
+        {
+            visitRect(row - outer, col - outer, row + outer, col + outer,
+                      action);
+            return;
+        }
+        visitRect(row - outer, col - outer, row - inner - 1, col + outer,
+                  action);
+        visitRect(row + inner + 1, col - outer, row + outer, col + outer,
+                  action);
+        visitRect(row - inner, col - outer, row + inner, col - inner - 1,
+                  action);
+        visitRect(row - inner, col + inner + 1, row + inner, col + outer,
+                  action);
+    }
+
+    /** Visits the objects in a rectangle whose bounds may lie outside the
+     *  range of <code>int</code> coordinates; the caller holds the lock.
+     **/
+    private void visitRect(long minRow, long minCol, long maxRow, long maxCol,
+                           Consumer<? super GridObject> action)
+    {
+        if ( maxRow < Integer.MIN_VALUE || minRow > Integer.MAX_VALUE ||
+             maxCol < Integer.MIN_VALUE || minCol > Integer.MAX_VALUE )
+            return;
+
+        visitObjectsInRect((int) Math.max(minRow, Integer.MIN_VALUE),
+                           (int) Math.max(minCol, Integer.MIN_VALUE),
+                           (int) Math.min(maxRow, Integer.MAX_VALUE),
+                           (int) Math.min(maxCol, Integer.MAX_VALUE),
+                           action);
+    }
+
+    /** Returns <code>true</code> if the square of half-width
+     *  <code>radius</code> around (<code>row</code>, <code>col</code>)
+     *  contains every location in this grid.
+     **/
+    private boolean squareCoversGrid(long row, long col, long radius)
+    {
+        long maxRow = numRows() == UNBOUNDED ? Integer.MAX_VALUE
+                                             : numRows() - 1;
+        long maxCol = numCols() == UNBOUNDED ? Integer.MAX_VALUE
+                                             : numCols() - 1;
+        long minRow = numRows() == UNBOUNDED ? Integer.MIN_VALUE : 0;
+        long minCol = numCols() == UNBOUNDED ? Integer.MIN_VALUE : 0;
+        return row - radius <= minRow && row + radius >= maxRow &&
+               col - radius <= minCol && col + radius >= maxCol;
+    }
+
+    /** Returns an iterator over the objects in this grid (not necessarily
+     *  in any particular order).  The iterator is snapshot-stable: it
+     *  returns exactly the objects that were in the grid when the
+     *  iterator was created, even if objects are added, removed, or
+     *  moved while the iteration is in progress (callers that care
+     *  whether an object is still in the grid should check
+     *  <code>obj.grid()</code>).  Iterators share a snapshot that is
+     *  taken only when objects have been added or removed since the
+     *  previous snapshot, so repeated iterations over a grid whose
+     *  objects merely move around do not copy its contents.  The
+     *  iterator does not support <code>remove</code>.
+     *  @return  an iterator over a snapshot of this grid's objects
+     **/
+    public Iterator<GridObject> iterator()
+    {
+        return new SnapshotIterator(currentSnapshot());
+    }
+
+    /** Returns a spliterator over the same snapshot of this grid's
+     *  objects that <code>iterator</code> uses.
+     *  @return  a sized spliterator over a snapshot of this grid's objects
+     **/
+    public Spliterator<GridObject> spliterator()
+    {
+        return Spliterators.spliterator(currentSnapshot(),
+                        Spliterator.NONNULL | Spliterator.DISTINCT |
+                        Spliterator.IMMUTABLE);
+    }
+
+    /** Returns a stream of the objects in this grid (not necessarily in
+     *  any particular order).  The stream reads the grid's internal
+     *  representation directly, without copying it, and splits along
+     *  the representation's natural divisions (bands of rows in a
+     *  <code>BoundedGrid</code>, chunks in a <code>ChunkedGrid</code>,
+     *  and so on), so <code>grid.objects().parallel()</code> spreads
+     *  an analysis pass across several threads.  The stream is not
+     *  protected by the grid's lock.
+     *  (Precondition: the grid is not modified while the stream is
+     *  being processed.  Use <code>iterator</code> or
+     *  <code>allObjects</code> for passes that modify the grid.)
+     *  @return  a sequential stream of the objects in this grid
+     **/
+    public Stream<GridObject> objects()
+    {
+        return StreamSupport.stream(internalRep.spliterator(), false);
+    }
+
+    /** Returns a stream of the locations of the objects in this grid.
+     *  This stream has the same characteristics and precondition as
+     *  the one returned by <code>objects</code>.
+     *  @return  a sequential stream of the occupied locations in this grid
+     **/
+    public Stream<Location> locations()
+    {
+        return objects().map(new Function<GridObject, Location>() {
+            public Location apply(GridObject obj)
+            {
+                return obj.location();
+            }});
+    }
+
+    /** Returns the shared snapshot of this grid's objects, taking a new
+     *  one if the grid has changed since the last one was taken.  The
+     *  returned array must not be modified.
+     **/
+    private GridObject[] currentSnapshot()
+    {
+        return withReadLock(new Supplier<GridObject[]>() {
+            public GridObject[] get()
+            {
+                return refreshSnapshot();
+            }});
+    }
+
+    /** Takes a new snapshot if objects have been added to or removed
+     *  from the grid since the last one was taken (moving an object
+     *  does not change the set of objects in the snapshot), and returns
+     *  the current snapshot; the caller holds the lock.  Readers sharing
+     *  the read lock may both take a snapshot, but no writer can run
+     *  meanwhile, so both snapshots hold the same objects; since a
+     *  snapshot's objects and membership count are published together
+     *  in one volatile field, a reader never pairs one snapshot's count
+     *  with another's objects.
+     **/
+    private GridObject[] refreshSnapshot()
+    {
+        Snapshot current = snapshot;
+        int currentCount = membershipCount.get();
+        if ( current == null || current.membershipCount != currentCount )
+        {
+            current = new Snapshot(internalRep.allObjects(), currentCount);
+            snapshot = current;
+        }
+        return current.objects;
+    }
+
+    /** A <code>Snapshot</code> holds the objects in a grid together with
+     *  the grid's membership count when they were collected.
+     **/
+    private static class Snapshot
+    {
+        final GridObject[] objects;
+        final int membershipCount;
+
+        Snapshot(GridObject[] objects, int membershipCount)
+        {
+            this.objects = objects;
+            this.membershipCount = membershipCount;
+        }
+    }
+
+    /** Determines whether a specific location in this grid is empty.
+     *  @param loc  the location to test
+     *  @return     <code>true</code> if <code>loc</code> is a
+     *              valid location in the context of this grid
+     *              and is empty; <code>false</code> otherwise
+     **/
+    public boolean isEmpty(Location loc)
+    {
+        return loc != null && isEmpty(loc.row(), loc.col());
+    }
+
+    /** Determines whether the location at the given row and column in
+     *  this grid is empty.
+     *  @param row  row of the location to test
+     *  @param col  column of the location to test
+     *  @return     <code>true</code> if (<code>row</code>, <code>col</code>)
+     *              is a valid location in the context of this grid
+     *              and is empty; <code>false</code> otherwise
+     **/
+    public boolean isEmpty(int row, int col)
+    {
+        return internalRep.isValid(row, col) &&
+               objectAt(Location.pack(row, col)) == null;
+    }
+
+    /** Determines whether a packed location in this grid is empty.
+     *  @param packedLoc  the location to test, packed by
+     *                    <code>Location.pack</code>
+     *  @return     <code>true</code> if <code>packedLoc</code> is a
+     *              valid location in the context of this grid
+     *              and is empty; <code>false</code> otherwise
+     **/
+    public boolean isEmpty(long packedLoc)
+    {
+        return isEmpty(Location.unpackRow(packedLoc),
+                       Location.unpackCol(packedLoc));
+    }
+
+    /** Returns the object at a specific location in this grid.
+     *  @param loc    the location in which to look
+     *  @return       the object at location <code>loc</code>;
+     *                <code>null</code> if <code>loc</code> is not
+     *                in the grid or is empty
+     **/
+    public GridObject objectAt(Location loc)
+    {
+        return ( loc == null ) ? null : objectAt(loc.row(), loc.col());
+    }
+
+    /** Returns the object at the given row and column in this grid.
+     *  @param row    the row in which to look
+     *  @param col    the column in which to look
+     *  @return       the object at (<code>row</code>, <code>col</code>);
+     *                <code>null</code> if that location is not
+     *                in the grid or is empty
+     **/
+    public GridObject objectAt(int row, int col)
+    {
+        return objectAt(Location.pack(row, col));
+    }
+
+    /** Returns the object at a packed location in this grid.
+     *  @param packedLoc  the location in which to look, packed by
+     *                    <code>Location.pack</code>
+     *  @return       the object at location <code>packedLoc</code>;
+     *                <code>null</code> if <code>packedLoc</code> is not
+     *                in the grid or is empty
+     **/
+    public GridObject objectAt(long packedLoc)
+    {
+        GridLock lock = gridLock;
+        if ( lock == null )
+        {
+            synchronized (this)
+            {
+                return internalRep.objectAt(packedLoc);
+            }
+        }
+
+        // Read without locking, then check that no object was added or
+        // removed in the meantime.  A read that overlaps a modification
+        // may see the representation in an inconsistent state, so it
+        // may also fail with an exception; either way, read again under
+        // a read lock.  An exception from a read that no modification
+        // overlapped is a real error, and is passed on.
+        int row = Location.unpackRow(packedLoc);
+        int col = Location.unpackCol(packedLoc);
+        long stamp = lock.tryOptimisticRead(row, col);
+        if ( stamp != 0 )
+        {
+            try
+            {
+                GridObject obj = internalRep.objectAt(packedLoc);
+                if ( lock.validate(row, col, stamp) )
+                    return obj;
+            }
+            catch (RuntimeException e)
+            {
+                if ( lock.validate(row, col, stamp) )
+                    throw e;
+            }
+        }
+        lock.readLock(row, col);
+        try
+        {
+            return internalRep.objectAt(packedLoc);
+        }
+        finally
+        {
+            lock.unlockRead(row, col);
+        }
+    }
+
+    /** Creates a single string representing all the objects in this
+     *  environment (not necessarily in any particular order).
+     *  @return    a string indicating all the objects in this environment
+     **/
+    public String toString()
+    {
+        GridObject[] theObjects = allObjects();
+        StringBuilder s = new StringBuilder();
+        s.append("Grid contains " + theObjects.length + " objects: ");
+        for ( int i = 0; i < theObjects.length; i++ )
+            s.append(theObjects[i].toString()).append(" ");
+        return s.toString();
+    }
+
+    /** Indicates whether this grid rejects additions, removals, and
+     *  moves made through its public methods and through
+     *  <code>GridObject</code>.  This implementation returns
+     *  <code>false</code>; subclasses whose contents are managed in some
+     *  other way (such as <code>DoubleBufferedGrid</code>) may redefine
+     *  it.
+     *  @return  <code>true</code> if this grid cannot be modified
+     *           directly; <code>false</code> otherwise
+     **/
+    public boolean isReadOnly()
+    {
+        return false;
+    }
+
+
+  // modifier methods
+
+    /** Verifies that this grid may be modified directly.
+     *  @throws UnsupportedOperationException if this grid is read-only
+     **/
+    private void checkModifiable()
+    {
+        if ( isReadOnly() )
+            throw new UnsupportedOperationException("Grid is read-only");
+    }
+
+    /** Adds a new object to this grid at the specified location.
+     *  (Precondition: <code>obj.grid()</code> and
+     *   <code>obj.location()</code> are both <code>null</code>;
+     *   <code>loc</code> is a valid empty location in this grid.)
+     *  @param obj the new object to be added
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public void add(GridObject obj, Location loc)
+    {
+        obj.addToGrid(this, loc);
+    }
+
+    /** Adds the specified object to this grid at the location it specifies.
+     *  This method is meant to be called only by
+     *  <code>GridObject.addToGrid</code> because it assumes a
+     *  broken <code>GridObject</code> invariant: the grid and location
+     *  are set in the <code>GridObject</code> instance, but the object's
+     *  location in the internal representation of the grid does not yet
+     *  represent the object's own view of its location.
+     *  (Precondition: <code>obj.grid()</code> is this grid and
+     *   <code>obj.location()</code> is a valid empty location.)
+     *  @param obj the new object to be added
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    final void internalAdd(GridObject obj)
+    {
+        checkModifiable();
+        Location loc = obj.location();
+        if ( loc == null )
+            throw new IllegalArgumentException("Location " + loc +
+                                    " is not a valid empty location");
+
+        // Additions, removals, and moves are the grid's most frequent
+        // modifications, so they dispatch on the locking mode here
+        // rather than allocating a Runnable for withWriteLock.
+        GridLock lock = gridLock;
+        if ( lock == null )
+        {
+            synchronized (this)
+            {
+                addLocked(obj, loc);
+            }
+            deliverReadyMutations();
+            return;
+        }
+        lock.writeLock(loc.row(), loc.col());
+        try
+        {
+            addLocked(obj, loc);
+        }
+        finally
+        {
+            lock.unlockWrite(loc.row(), loc.col());
+        }
+        deliverReadyMutations();
+    }
+
+    /** Adds the specified object to this grid at the given location; the
+     *  caller holds the lock (for writing, in read/write locking mode).
+     **/
+    private void addLocked(GridObject obj, Location loc)
+    {
+        // Verify precondition.
+        if ( obj.grid() != this || loc == null ||
+             ! internalRep.isValid(loc.row(), loc.col()) ||
+             internalRep.objectAt(loc.row(), loc.col()) != null )
+            throw new IllegalArgumentException("Location " + loc +
+                                    " is not a valid empty location");
+
+        // Add object to the grid.
+        internalRep.add(obj);
+        objectAdded(obj);
+    }
+
+    /** Removes the specified object from this grid.
+     *  (Precondition: <code>obj</code> is in this grid.)
+     *  @param obj     the object to be removed
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public void remove(GridObject obj)
+    {
+        // Make sure that the object is not in another grid.
+        if ( obj.grid() != this && obj.grid() != null )
+            throw new IllegalArgumentException("Cannot remove " + 
+                                               obj + " from another grid");
+
+        // The object should initiate its own removal from the grid so
+        // that its object invariant is not violated.
+        obj.removeFromGrid();
     }
 
     /** Removes whatever object is at the specified location in this grid.
@@ -335,51 +1854,520 @@ public abstract class Grid
      *  nothing.
      *  @param loc     the location from which to remove an object
      **/
-    public void remove(Location loc)
+    public void remove(Location loc)
+    {
+        // The object should initiate its own removal from the grid so
+        // that its object invariant is not violated.
+        GridObject obj = objectAt(loc);
+        if ( obj != null )
+            obj.removeFromGrid();
+    }
+
+    /** Removes the specified object from this grid. This method is meant to
+     *  be called only by <code>GridObject.removeFromGrid</code>; all object
+     *  removals should proceed through that method.
+     *  (Precondition: <code>obj</code> is in the process of being removed
+     *  via <code>GridObject.removeFromGrid</code> and, as a result, its
+     *  invariant does not hold.  Specifically,
+     *  <code>obj.grid() == null</code> but <code>obj.location()</code>
+     *  correctly specifies the object's location in the grid.)
+     *  @param obj     the object to be removed
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    final void internalRemove(GridObject obj)
+    {
+        checkModifiable();
+        Location loc = obj.location();
+        if ( loc == null )
+            throw new IllegalArgumentException("Object " + obj + 
+                                    " is not in process of removing itself");
+
+        GridLock lock = gridLock;
+        if ( lock == null )
+        {
+            synchronized (this)
+            {
+                removeLocked(obj, loc);
+            }
+            deliverReadyMutations();
+            return;
+        }
+        lock.writeLock(loc.row(), loc.col());
+        try
+        {
+            removeLocked(obj, loc);
+        }
+        finally
+        {
+            lock.unlockWrite(loc.row(), loc.col());
+        }
+        deliverReadyMutations();
+    }
+
+    /** Removes the specified object from its location in this grid; the
+     *  caller holds the lock (for writing, in read/write locking mode).
+     **/
+    private void removeLocked(GridObject obj, Location loc)
+    {
+        // Make sure that the object has initiated its own removal from
+        // the grid.
+        if ( obj.grid() != null || loc == null ||
+             internalRep.objectAt(loc.row(), loc.col()) != obj )
+            throw new IllegalArgumentException("Object " + obj + 
+                                    " is not in process of removing itself");
+
+        // The object is in the process of removing itself from the grid,
+        // so we can remove it.
+        internalRep.remove(obj);
+        objectRemoved(obj);
+    }
+
+    /** Moves the specified object to a new location in this grid in a
+     *  single operation, with the grid locked once (for writing at both
+     *  locations, in read/write locking mode), so that other threads
+     *  never see the object outside the grid.  This method is meant to
+     *  be called only by <code>GridObject.changeLocation</code>; all
+     *  moves should proceed through that method.
+     *  (Precondition: <code>obj</code> is in this grid and
+     *   <code>newLoc</code> is a valid empty location in this grid.)
+     *  @param obj     the object to be moved
+     *  @param newLoc  the object's new location
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    final void internalMove(GridObject obj, Location newLoc)
+    {
+        checkModifiable();
+        Location oldLoc = obj.location();
+        if ( oldLoc == null || newLoc == null )
+            throw new IllegalArgumentException("Cannot move " + obj +
+                                               " to " + newLoc);
+
+        GridLock lock = gridLock;
+        if ( lock == null )
+        {
+            synchronized (this)
+            {
+                moveLocked(obj, oldLoc, newLoc);
+            }
+            deliverReadyMutations();
+            return;
+        }
+        lock.writeLock(oldLoc.row(), oldLoc.col(), newLoc.row(), newLoc.col());
+        try
+        {
+            moveLocked(obj, oldLoc, newLoc);
+        }
+        finally
+        {
+            lock.unlockWrite(oldLoc.row(), oldLoc.col(),
+                             newLoc.row(), newLoc.col());
+        }
+        deliverReadyMutations();
+    }
+
+    /** Moves the specified object from one location in this grid to
+     *  another; the caller holds the lock (for writing at both
+     *  locations, in read/write locking mode).
+     **/
+    private void moveLocked(GridObject obj, Location from, Location to)
+    {
+        // Verify precondition.
+        if ( obj.grid() != this || from == null ||
+             internalRep.objectAt(from.row(), from.col()) != obj )
+            throw new IllegalArgumentException("Object " + obj +
+                                               " is not in this grid");
+        if ( to == null || ! internalRep.isValid(to.row(), to.col()) ||
+             internalRep.objectAt(to.row(), to.col()) != null )
+            throw new IllegalArgumentException("Location " + to +
+                                    " is not a valid empty location");
+
+        // Update the object's own view of its location, then move it
+        // in the internal representation.
+        obj.internalSetLocation(to);
+        internalRep.move(obj, from, to);
+        objectMoved(obj, from, to);
+    }
+
+    /** Removes all objects from this grid.  Rather than removing the
+     *  objects one at a time through <code>GridObject.removeFromGrid</code>,
+     *  this method empties the internal representation in bulk and
+     *  then clears each object's grid and location in a single pass.
+     **/
+    public void removeAll()
+    {
+        checkModifiable();
+        withWriteLock(new Runnable() {
+            public void run()
+            {
+                clearLocked();
+            }});
+        deliverReadyMutations();
+    }
+
+    /** Removes every object from this grid; the caller holds the lock
+     *  (for writing, in read/write locking mode).
+     **/
+    private void clearLocked()
+    {
+        if ( internalRep.numObjects() == 0 )
+            return;
+
+        // Empty the internal representation all at once while the
+        // objects still know their locations, then detach them from the
+        // grid (the iteration snapshot, usually current, lists them
+        // without another copy).  Blocks of removals that fill up are
+        // delivered to the mutation listeners once the caller has
+        // released the lock.
+        GridObject[] objects = refreshSnapshot();
+        recordAllRemoved();
+        internalRep.clear();
+        for ( int i = 0; i < objects.length; i++ )
+            objects[i].detach();
+        objectsCleared();
+    }
+
+    /** Records the removal of every object in this grid in the record of
+     *  changed cells and for the mutation listeners; the caller holds the
+     *  lock (for writing, in read/write locking mode).
+     **/
+    private void recordAllRemoved()
+    {
+        final DirtyCells dirty = dirtyCells;
+        internalRep.forEachObject(new Consumer<GridObject>() {
+            public void accept(GridObject obj)
+            {
+                Location loc = obj.location();
+                if ( dirty != null )
+                    dirty.add(loc.row(), loc.col());
+                recordMutation(GridMutations.REMOVED, obj,
+                               loc.packed(), loc.packed());
+            }});
+    }
+
+    /** Replaces the contents of this grid with the contents of another
+     *  grid, leaving the other grid empty, by exchanging the contents of
+     *  the two grids' internal representations rather than by moving the
+     *  objects one at a time.  The objects previously in this grid are
+     *  removed from it.  The objects taken from <code>source</code> keep
+     *  their locations, and the bookkeeping of both grids (change
+     *  tracking, indexes, and mutation listeners) is updated as though
+     *  they had been removed from <code>source</code> and added to this
+     *  grid.  This method is meant to be called only by
+     *  <code>DoubleBufferedGrid</code>, within a batch on each grid, so
+     *  that blocks of changes are delivered once both grids are unlocked.
+     *  Since every object refers back to its grid and location, this
+     *  takes time proportional to the number of objects in the two
+     *  grids, but it allocates nothing in proportion to them.
+     *  (Precondition: the current thread has exclusive access to both
+     *   grids, the grids have the same dimensions,
+     *   <code>exchange</code> exchanges the contents of their internal
+     *   representations, and the representations' <code>clear</code>
+     *   methods do not depend on the objects' locations.)
+     *  @param source    the grid whose contents to take
+     *  @param exchange  exchanges the grids' representations
+     **/
+    final void takeContentsOf(Grid source, Runnable exchange)
     {
-        // The object should initiate its own removal from the grid so
-        // that its object invariant is not violated.
-        GridObject obj = objectAt(loc);
-        if ( obj != null )
-            obj.removeFromGrid();
+        recordAllRemoved();
+        objectsCleared();
+        source.recordAllRemoved();
+        source.objectsCleared();
+        exchange.run();
+
+        // The objects previously in this grid are now in the source's
+        // representation.  Detach them as they are visited there, rather
+        // than copying them out first, then empty it in bulk.
+        source.internalRep.forEachObject(new Consumer<GridObject>() {
+            public void accept(GridObject obj)
+            {
+                obj.detach();
+            }});
+        source.internalRep.clear();
+
+        // Make the objects this grid's own before reporting them as
+        // added, so that listeners see a consistent grid.
+        final Grid thisGrid = this;
+        internalRep.forEachObject(new Consumer<GridObject>() {
+            public void accept(GridObject obj)
+            {
+                obj.internalSetGrid(thisGrid);
+            }});
+        internalRep.forEachObject(new Consumer<GridObject>() {
+            public void accept(GridObject obj)
+            {
+                objectAdded(obj);
+            }});
     }
 
-    /** Removes the specified object from this grid. This method is meant to
-     *  be called only by <code>GridObject.removeFromGrid</code>; all object
-     *  removals should proceed through that method.
-     *  (Precondition: <code>obj</code> is in the process of being removed
-     *  via <code>GridObject.removeFromGrid</code> and, as a result, its
-     *  invariant does not hold.  Specifically,
-     *  <code>obj.grid() == null</code> but <code>obj.location()</code>
-     *  correctly specifies the object's location in the grid.)
-     *  @param obj     the object to be removed
-     *  @throws    IllegalArgumentException if the precondition is not met
+    /** Indicates whether a change to a cell of a grid that keeps
+     *  primitive cell states (see <code>CellStateGrid</code>) should be
+     *  reported with views of the cell's old and new contents, because
+     *  mutation listeners are registered.
      **/
-    final synchronized void internalRemove(GridObject obj)
+    final boolean reportsCellViews()
     {
-        // Make sure that the object has initiated its own removal from
-        // the grid.
-        if ( obj.grid() != null || objectAt(obj.location()) != obj )
-            throw new IllegalArgumentException("Object " + obj + 
-                                    " is not in process of removing itself");
+        return mutationListeners.length > 0;
+    }
 
-        // The object is in the process of removing itself from the grid,
-        // so we can remove it.
-        internalRep.remove(obj);
+    /** Indicates whether each change to a cell of a grid that keeps
+     *  primitive cell states (see <code>CellStateGrid</code>) must be
+     *  reported through <code>cellChanged</code>, because the grid tracks
+     *  changed cells or has mutation listeners.  If not, a change to
+     *  many cells at once may be reported through
+     *  <code>cellsReplaced</code> instead.
+     **/
+    final boolean tracksCellChanges()
+    {
+        return dirtyCells != null || mutationListeners.length > 0;
+    }
+
+    /** Records that any number of cells of a grid that keeps primitive
+     *  cell states have changed at once, when
+     *  <code>tracksCellChanges</code> is <code>false</code>; the caller
+     *  holds the lock for writing to the whole grid.
+     **/
+    final void cellsReplaced()
+    {
+        membershipCount.incrementAndGet();
+        modCount.incrementAndGet();
+    }
+
+    /** Records that a cell of a grid that keeps primitive cell states
+     *  (see <code>CellStateGrid</code>) has changed; the caller holds the
+     *  lock (for writing, in read/write locking mode).  Any change to a
+     *  cell replaces its view, so it changes the set of objects in the
+     *  grid.
+     *  @param row     the row of the changed cell
+     *  @param col     the column of the changed cell
+     *  @param before  a view of the cell's old contents, or
+     *                 <code>null</code> if the cell was empty or
+     *                 <code>reportsCellViews</code> is <code>false</code>
+     *  @param after   a view of the cell's new contents, or
+     *                 <code>null</code> if the cell is now empty or
+     *                 <code>reportsCellViews</code> is <code>false</code>
+     **/
+    final void cellChanged(int row, int col,
+                           GridObject before, GridObject after)
+    {
+        if ( before == null && after == null )
+        {
+            membershipCount.incrementAndGet();
+            modCount.incrementAndGet();
+            DirtyCells dirty = dirtyCells;
+            if ( dirty != null )
+                dirty.add(row, col);
+            return;
+        }
+        if ( before != null )
+            objectRemoved(before);
+        if ( after != null )
+            objectAdded(after);
+    }
+
+    /** Records that an object has been added to this grid; the caller
+     *  holds the lock (for writing, in read/write locking mode).
+     **/
+    private void objectAdded(GridObject obj)
+    {
+        membershipCount.incrementAndGet();
+        modCount.incrementAndGet();
+        TypeIndex index = typeIndex;
+        if ( index != null )
+            index.add(obj);
+        DirtyCells dirty = dirtyCells;
+        if ( dirty != null )
+            dirty.add(obj.location().row(), obj.location().col());
+        long loc = obj.location().packed();
+        recordMutation(GridMutations.ADDED, obj, loc, loc);
+    }
+
+    /** Records that an object has been removed from this grid; the
+     *  caller holds the lock (for writing, in read/write locking mode).
+     **/
+    private void objectRemoved(GridObject obj)
+    {
+        membershipCount.incrementAndGet();
+        modCount.incrementAndGet();
+        TypeIndex index = typeIndex;
+        if ( index != null )
+            index.remove(obj);
+        DirtyCells dirty = dirtyCells;
+        if ( dirty != null )
+            dirty.add(obj.location().row(), obj.location().col());
+        long loc = obj.location().packed();
+        recordMutation(GridMutations.REMOVED, obj, loc, loc);
+    }
+
+    /** Records that an object has moved within this grid; the caller
+     *  holds the lock (for writing, in read/write locking mode).
+     **/
+    private void objectMoved(GridObject obj, Location from, Location to)
+    {
+        modCount.incrementAndGet();
+        DirtyCells dirty = dirtyCells;
+        if ( dirty != null )
+        {
+            dirty.add(from.row(), from.col());
+            dirty.add(to.row(), to.col());
+        }
+        recordMutation(GridMutations.MOVED, obj, from.packed(), to.packed());
+    }
+
+    /** Records that all objects have been removed from this grid; the
+     *  caller holds the lock (for writing, in read/write locking mode).
+     **/
+    private void objectsCleared()
+    {
+        membershipCount.incrementAndGet();
+        modCount.incrementAndGet();
+        TypeIndex index = typeIndex;
+        if ( index != null )
+            index.clear();
+    }
+
+    /** Performs a block of modifications to this grid while holding the
+     *  grid's lock (for writing, in read/write locking mode) the whole
+     *  time, so the lock is acquired once for the block rather than once
+     *  for every addition, removal, and move, and other threads see
+     *  either none of the block's changes or all of them.  Batches may
+     *  be nested; change notifications are deferred until the outermost
+     *  batch completes (see <code>batchCompleted</code>), when the
+     *  changes made so far are also delivered to the grid's mutation
+     *  listeners (see <code>addMutationListener</code>).
+     *  If <code>operation</code> throws an exception, the modifications
+     *  it made before the exception remain in effect.
+     *  @param operation  the modifications to perform
+     **/
+    public void batch(BatchOperation operation)
+    {
+        GridLock lock = gridLock;
+        if ( lock == null )
+        {
+            synchronized (this)
+            {
+                runBatch(operation);
+            }
+            deliverReadyMutations();
+            return;
+        }
+        lock.writeLockAll();
+        try
+        {
+            runBatch(operation);
+        }
+        finally
+        {
+            lock.unlockWriteAll();
+        }
+        deliverReadyMutations();
     }
 
-    /** Removes all objects from this grid.
+    /** Performs a block of modifications, keeping track of the nesting of
+     *  batches; the caller holds the lock.
      **/
-    public synchronized void removeAll()
+    private void runBatch(BatchOperation operation)
     {
-        // Loop through the objects in the grid and remove them.
-        GridObject[] objectsToRemove = allObjects();
-        for ( int i = 0; i < objectsToRemove.length; i++ )
+        batchDepth++;
+        try
+        {
+            operation.applyTo(this);
+        }
+        finally
         {
-            remove(objectsToRemove[i]);
+            if ( --batchDepth == 0 )
+            {
+                batchCompleted();
+                queuePendingMutations();
+            }
         }
     }
 
+    /** Indicates whether the current thread is performing a batch of
+     *  modifications to this grid.
+     *  @return  <code>true</code> if called from within
+     *           <code>batch</code>; <code>false</code> otherwise
+     **/
+    protected final boolean inBatch()
+    {
+        return batchDepth > 0 && holdsWriteAccess();
+    }
+
+    /** Indicates whether the current thread has exclusive access to this
+     *  grid, either through its monitor or through its write lock.
+     **/
+    private boolean holdsWriteAccess()
+    {
+        GridLock lock = gridLock;
+        return ( lock == null ) ? Thread.holdsLock(this)
+                                : lock.holdsWriteLockAll();
+    }
+
+    /** Called when the outermost batch of modifications to this grid
+     *  completes (whether or not it completed normally), while the grid
+     *  is still locked.  Subclasses that notify other objects of changes
+     *  to the grid can hold notifications while <code>inBatch</code> is
+     *  <code>true</code> and send them from this method.  This
+     *  implementation does nothing.
+     **/
+    protected void batchCompleted()
+    {
+    }
+
+    /** Adds several new objects to this grid in a single batch.  Either
+     *  all of the objects are added or, if any of them cannot be, none
+     *  of them are.
+     *  (Precondition: each object is not in a grid and appears only
+     *   once in <code>objects</code>, and each location is a valid
+     *   empty location in this grid.)
+     *  @param objects  the objects to be added, keyed by the locations
+     *                  at which to add them
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public void addAll(final Map<Location, ? extends GridObject> objects)
+    {
+        batch(new BatchOperation() {
+            public void applyTo(Grid grid)
+            {
+                // Check every addition before making any of them.
+                Map<GridObject, Location> checked =
+                        new IdentityHashMap<GridObject, Location>();
+                for ( Map.Entry<Location, ? extends GridObject> entry
+                                                    : objects.entrySet() )
+                {
+                    Location loc = entry.getKey();
+                    GridObject obj = entry.getValue();
+                    if ( obj == null || obj.grid() != null ||
+                         checked.put(obj, loc) != null )
+                        throw new IllegalArgumentException("Object for " +
+                                loc + " is null, in a grid, or repeated");
+                    if ( loc == null ||
+                         ! internalRep.isValid(loc.row(), loc.col()) ||
+                         internalRep.objectAt(loc.row(), loc.col()) != null )
+                        throw new IllegalArgumentException("Location " + loc +
+                                            " is not a valid empty location");
+                }
+
+                for ( Map.Entry<Location, ? extends GridObject> entry
+                                                    : objects.entrySet() )
+                    add(entry.getValue(), entry.getKey());
+            }});
+    }
+
+    /** Removes whatever objects are at the specified locations in this
+     *  grid, in a single batch.  Locations that are empty or not in the
+     *  grid are ignored.
+     *  @param locations  the locations from which to remove objects
+     **/
+    public void removeAll(final Collection<Location> locations)
+    {
+        batch(new BatchOperation() {
+            public void applyTo(Grid grid)
+            {
+                for ( Location loc : locations )
+                    remove(loc);
+            }});
+    }
+
 
     /** The <code>InternalRepresentation</code> interface specifies
      *  the methods that any internal representation of the
@@ -396,6 +2384,20 @@ public abstract class Grid
          **/
         boolean isValid(Location loc);
 
+        /** Verifies whether the location at the given row and column is
+         *  valid in this grid.  Representations should redefine this
+         *  method to avoid creating the <code>Location</code> object
+         *  created by this default implementation.
+         *  @param  row    row of the location to check
+         *  @param  col    column of the location to check
+         *  @return <code>true</code> if (<code>row</code>, <code>col</code>)
+         *          is valid; <code>false</code> otherwise
+         **/
+        default boolean isValid(int row, int col)
+        {
+            return isValid(new Location(row, col));
+        }
+
         /** Returns the number of objects in this grid.
          *  @return   the number of objects
          **/
@@ -406,6 +2408,34 @@ public abstract class Grid
          **/
         GridObject[] allObjects();
 
+        /** Performs the given action for each object in this grid,
+         *  visiting the objects in place rather than copying them.
+         *  Representations should redefine this method to avoid the
+         *  copy made by this default implementation.
+         *  (Precondition: <code>action</code> does not modify the grid.)
+         *  @param action  the action to perform on each object
+         **/
+        default void forEachObject(Consumer<? super GridObject> action)
+        {
+            GridObject[] theObjects = allObjects();
+            for ( int i = 0; i < theObjects.length; i++ )
+                action.accept(theObjects[i]);
+        }
+
+        /** Returns a spliterator over the objects in this grid that
+         *  reads the representation in place and splits it into
+         *  independent parts for parallel processing.  Representations
+         *  should redefine this method to avoid the copy made by this
+         *  default implementation.
+         *  (Precondition: the grid is not modified during traversal.)
+         *  @return  a spliterator over the objects in this grid
+         **/
+        default Spliterator<GridObject> spliterator()
+        {
+            return Spliterators.spliterator(allObjects(),
+                                Spliterator.NONNULL | Spliterator.DISTINCT);
+        }
+
         /** Returns the object at a specific location in this grid.
          *  @param loc    the location in which to look
          *  @return       the object at location <code>loc</code>;
@@ -414,6 +2444,81 @@ public abstract class Grid
          **/
         GridObject objectAt(Location loc);
 
+        /** Returns the object at the given row and column in this grid.
+         *  Representations should redefine this method to avoid creating
+         *  the <code>Location</code> object created by this default
+         *  implementation.
+         *  @param row    the row in which to look
+         *  @param col    the column in which to look
+         *  @return       the object at (<code>row</code>, <code>col</code>);
+         *                <code>null</code> if that location is not
+         *                in the grid or is empty
+         **/
+        default GridObject objectAt(int row, int col)
+        {
+            return objectAt(new Location(row, col));
+        }
+
+        /** Returns the object at a packed location in this grid.
+         *  Representations that index their contents by packed location
+         *  should redefine this method to avoid unpacking.
+         *  @param packedLoc  the location in which to look, packed by
+         *                    <code>Location.pack</code>
+         *  @return       the object at location <code>packedLoc</code>;
+         *                <code>null</code> if <code>packedLoc</code> is not
+         *                in the grid or is empty
+         **/
+        default GridObject objectAt(long packedLoc)
+        {
+            return objectAt(Location.unpackRow(packedLoc),
+                            Location.unpackCol(packedLoc));
+        }
+
+        /** Performs the given action for each object in the given
+         *  rectangle of locations (bounds inclusive).  This default
+         *  implementation looks at each location in the rectangle if
+         *  there are no more of them than there are objects in the grid,
+         *  and otherwise looks at each object in the grid, so its cost is
+         *  the smaller of the two.  Representations that can find the
+         *  objects in an area directly should redefine this method.
+         *  (Precondition: <code>minRow &lt;= maxRow</code>,
+         *   <code>minCol &lt;= maxCol</code>, and <code>action</code>
+         *   does not modify the grid.)
+         *  @param minRow  top row of the rectangle
+         *  @param minCol  leftmost column of the rectangle
+         *  @param maxRow  bottom row of the rectangle
+         *  @param maxCol  rightmost column of the rectangle
+         *  @param action  the action to perform on each object
+         **/
+        default void forEachInRect(final int minRow, final int minCol,
+                                   final int maxRow, final int maxCol,
+                                   final Consumer<? super GridObject> action)
+        {
+            long area = ((long) maxRow - minRow + 1) *
+                        ((long) maxCol - minCol + 1);
+            if ( area <= numObjects() )
+            {
+                // Long counters, so a bound of Integer.MAX_VALUE does not
+                // make the loops wrap around.
+                for ( long row = minRow; row <= maxRow; row++ )
+                    for ( long col = minCol; col <= maxCol; col++ )
+                    {
+                        GridObject obj = objectAt((int) row, (int) col);
+                        if ( obj != null )
+                            action.accept(obj);
+                    }
+                return;
+            }
+            forEachObject(new Consumer<GridObject>() {
+                public void accept(GridObject obj)
+                {
+                    Location loc = obj.location();
+                    if ( minRow <= loc.row() && loc.row() <= maxRow &&
+                         minCol <= loc.col() && loc.col() <= maxCol )
+                        action.accept(obj);
+                }});
+        }
+
 
       // modifier methods
 
@@ -431,6 +2536,404 @@ public abstract class Grid
          *  @param obj     the object to be removed
          **/
         void remove(GridObject obj);
+
+        /** Moves an object from one location in this environment to
+         *  another.  This default implementation removes the object from
+         *  its previous location and adds it at its new one;
+         *  representations should redefine this method to move the
+         *  object in a single step.
+         *  (Precondition: <code>obj</code> is at <code>from</code> in
+         *   this environment, <code>to</code> is a valid empty location,
+         *   and <code>obj.location()</code> has already been changed to
+         *   <code>to</code>; verified by the <code>Grid</code> object.)
+         *  @param obj     the object to be moved
+         *  @param from    the object's previous location
+         *  @param to      the object's new location
+         **/
+        default void move(GridObject obj, Location from, Location to)
+        {
+            // remove and add find the object through its location, so
+            // put it back at its previous location while removing it.
+            obj.internalSetLocation(from);
+            remove(obj);
+            obj.internalSetLocation(to);
+            add(obj);
+        }
+
+        /** Removes all objects from this environment.  The objects still
+         *  have their locations when this method is called; the
+         *  <code>Grid</code> object detaches them afterwards.  This
+         *  default implementation removes the objects one at a time;
+         *  representations should redefine this method to reset their
+         *  storage in bulk.
+         **/
+        default void clear()
+        {
+            GridObject[] theObjects = allObjects();
+            for ( int i = 0; i < theObjects.length; i++ )
+                remove(theObjects[i]);
+        }
+    }
+
+
+    /** A <code>GridLock</code> specifies the locking used by a grid in
+     *  read/write locking mode.  Reads and writes of a single cell name
+     *  the cell, so that an implementation may lock only the part of the
+     *  grid containing it; whole-grid operations lock all of the grid.
+     *  Write locks are reentrant, and a thread that holds a write lock
+     *  may also take read locks.
+     **/
+    protected interface GridLock
+    {
+        /** Returns a stamp for an optimistic (lock-free) read of the
+         *  given cell, or zero if the cell is being modified.
+         *  @param  row    row of the cell to read
+         *  @param  col    column of the cell to read
+         *  @return a stamp to pass to <code>validate</code>, or zero
+         **/
+        long tryOptimisticRead(int row, int col);
+
+        /** Indicates whether the cell has not been modified since the
+         *  given stamp was issued.
+         *  @param  row    row of the cell that was read
+         *  @param  col    column of the cell that was read
+         *  @param  stamp  stamp returned by <code>tryOptimisticRead</code>
+         *  @return <code>true</code> if the optimistic read is valid
+         **/
+        boolean validate(int row, int col, long stamp);
+
+        /** Acquires read access to the given cell.
+         *  @param  row    row of the cell to read
+         *  @param  col    column of the cell to read
+         **/
+        void readLock(int row, int col);
+
+        /** Releases read access to the given cell.
+         *  @param  row    row of the cell that was read
+         *  @param  col    column of the cell that was read
+         **/
+        void unlockRead(int row, int col);
+
+        /** Acquires write access to the given cell.
+         *  @param  row    row of the cell to modify
+         *  @param  col    column of the cell to modify
+         *  @throws ConcurrentModificationException if the current thread
+         *          holds read access to the whole grid
+         **/
+        void writeLock(int row, int col);
+
+        /** Releases write access to the given cell.
+         *  @param  row    row of the cell that was modified
+         *  @param  col    column of the cell that was modified
+         **/
+        void unlockWrite(int row, int col);
+
+        /** Acquires write access to two cells, such as the two ends of
+         *  a move.  Implementations that lock parts of the grid
+         *  separately must acquire them in a fixed order, so that two
+         *  threads moving objects in opposite directions cannot
+         *  deadlock.
+         *  @param  row1   row of the first cell to modify
+         *  @param  col1   column of the first cell to modify
+         *  @param  row2   row of the second cell to modify
+         *  @param  col2   column of the second cell to modify
+         *  @throws ConcurrentModificationException if the current thread
+         *          holds read access to the whole grid
+         **/
+        void writeLock(int row1, int col1, int row2, int col2);
+
+        /** Releases write access to two cells.
+         *  @param  row1   row of the first cell that was modified
+         *  @param  col1   column of the first cell that was modified
+         *  @param  row2   row of the second cell that was modified
+         *  @param  col2   column of the second cell that was modified
+         **/
+        void unlockWrite(int row1, int col1, int row2, int col2);
+
+        /** Acquires read access to the whole grid.
+         **/
+        void readLockAll();
+
+        /** Releases read access to the whole grid.
+         **/
+        void unlockReadAll();
+
+        /** Acquires write access to the whole grid.
+         *  @throws ConcurrentModificationException if the current thread
+         *          holds read access to the whole grid
+         **/
+        void writeLockAll();
+
+        /** Releases write access to the whole grid.
+         **/
+        void unlockWriteAll();
+
+        /** Indicates whether the current thread has write access to the
+         *  whole grid.
+         *  @return <code>true</code> if the current thread holds the
+         *          whole grid for writing
+         **/
+        boolean holdsWriteLockAll();
+    }
+
+
+    /** A <code>StampedGridLock</code> guards a whole grid with a single
+     *  <code>StampedLock</code>.  Since <code>StampedLock</code> is not
+     *  reentrant, the lock keeps track of the thread holding it for
+     *  writing, and of threads holding it for reading across a pass over
+     *  the whole grid, so that nested calls (a removal during
+     *  <code>batch</code>, or an attempt to modify the grid from
+     *  <code>forEachObject</code>) do not deadlock.
+     **/
+    private static class StampedGridLock implements GridLock
+    {
+        private final StampedLock lock = new StampedLock();
+        private Thread writer = null;       // thread holding write lock
+        private int writeDepth = 0;         // nesting of writer's locks
+        private long writeStamp;
+        private final ThreadLocal<int[]> wholeReadDepth =
+                new ThreadLocal<int[]>() {
+                    protected int[] initialValue()
+                    {
+                        return new int[1];
+                    }};
+
+        public long tryOptimisticRead(int row, int col)
+        {
+            return lock.tryOptimisticRead();
+        }
+
+        public boolean validate(int row, int col, long stamp)
+        {
+            return lock.validate(stamp);
+        }
+
+        public void readLock(int row, int col)
+        {
+            // The writer may read what it is writing.
+            if ( writer == Thread.currentThread() )
+                writeDepth++;
+            else
+                lock.readLock();
+        }
+
+        public void unlockRead(int row, int col)
+        {
+            if ( writer == Thread.currentThread() )
+                writeDepth--;
+            else
+                lock.tryUnlockRead();
+        }
+
+        public void writeLock(int row, int col)
+        {
+            Thread current = Thread.currentThread();
+            if ( writer == current )
+            {
+                writeDepth++;
+                return;
+            }
+
+            long stamp = lock.tryWriteLock();
+            if ( stamp == 0 )
+            {
+                // A thread cannot upgrade its own read lock, so a write
+                // from within a pass over the grid would wait forever.
+                if ( wholeReadDepth.get()[0] > 0 )
+                    throw new ConcurrentModificationException();
+                stamp = lock.writeLock();
+            }
+            writer = current;
+            writeDepth = 1;
+            writeStamp = stamp;
+        }
+
+        public void unlockWrite(int row, int col)
+        {
+            if ( --writeDepth == 0 )
+            {
+                writer = null;
+                lock.unlockWrite(writeStamp);
+            }
+        }
+
+        public void writeLock(int row1, int col1, int row2, int col2)
+        {
+            writeLock(row1, col1);
+        }
+
+        public void unlockWrite(int row1, int col1, int row2, int col2)
+        {
+            unlockWrite(row1, col1);
+        }
+
+        public void readLockAll()
+        {
+            readLock(0, 0);
+            wholeReadDepth.get()[0]++;
+        }
+
+        public void unlockReadAll()
+        {
+            wholeReadDepth.get()[0]--;
+            unlockRead(0, 0);
+        }
+
+        public void writeLockAll()
+        {
+            writeLock(0, 0);
+        }
+
+        public void unlockWriteAll()
+        {
+            unlockWrite(0, 0);
+        }
+
+        public boolean holdsWriteLockAll()
+        {
+            return writer == Thread.currentThread();
+        }
+    }
+
+
+    /** A <code>SnapshotIterator</code> iterates over a shared,
+     *  read-only snapshot of a grid's objects.
+     **/
+    private static class SnapshotIterator implements Iterator<GridObject>
+    {
+        private final GridObject[] objects;
+        private int next = 0;
+
+        SnapshotIterator(GridObject[] objects)
+        {
+            this.objects = objects;
+        }
+
+        public boolean hasNext()
+        {
+            return next < objects.length;
+        }
+
+        public GridObject next()
+        {
+            if ( next >= objects.length )
+                throw new NoSuchElementException();
+            return objects[next++];
+        }
+    }
+
+
+    /** A <code>NearestCollector</code> keeps the <code>k</code> nearest
+     *  objects it has been shown that pass a filter and are within a
+     *  distance limit, in a heap with the furthest of them on top.
+     **/
+    private static class NearestCollector implements Consumer<GridObject>
+    {
+        private final int row, col;         // location searched from
+        private final int k;
+        private final Predicate<? super GridObject> filter;
+        private final DistanceMetric metric;
+        private final double limit;         // measure of maximum radius
+        private final PriorityQueue<Candidate> furthestFirst;
+
+        NearestCollector(Location loc, int k,
+                         Predicate<? super GridObject> filter,
+                         DistanceMetric metric, double limit)
+        {
+            this.row = loc.row();
+            this.col = loc.col();
+            this.k = k;
+            this.filter = filter;
+            this.metric = metric;
+            this.limit = limit;
+            // The heap grows as candidates are found; sizing it for k up
+            // front would allocate a huge array for a large k.
+            this.furthestFirst = new PriorityQueue<Candidate>(
+                Math.max(Math.min(k, 16), 1),
+                new Comparator<Candidate>() {
+                    public int compare(Candidate c1, Candidate c2)
+                    {
+                        return Double.compare(c2.measure, c1.measure);
+                    }});
+        }
+
+        public void accept(GridObject obj)
+        {
+            Location loc = obj.location();
+            double measure = metric.measure((long) loc.row() - row,
+                                            (long) loc.col() - col);
+            if ( measure > limit ||
+                 ( furthestFirst.size() == k &&
+                   measure >= furthestFirst.peek().measure ) )
+                return;
+            if ( filter != null && ! filter.test(obj) )
+                return;
+
+            if ( furthestFirst.size() == k )
+                furthestFirst.poll();
+            furthestFirst.add(new Candidate(measure, obj));
+        }
+
+        /** Returns <code>true</code> if <code>k</code> objects have been
+         *  found and none of them is further away than the given measure.
+         **/
+        boolean isComplete(double measure)
+        {
+            return furthestFirst.size() == k &&
+                   furthestFirst.peek().measure <= measure;
+        }
+
+        /** Returns the objects found, nearest first.
+         **/
+        List<GridObject> nearestFirst()
+        {
+            GridObject[] theObjects = new GridObject[furthestFirst.size()];
+            for ( int i = theObjects.length - 1; i >= 0; i-- )
+                theObjects[i] = furthestFirst.poll().obj;
+            return new ArrayList<GridObject>(Arrays.asList(theObjects));
+        }
+    }
+
+    /** A <code>Candidate</code> is an object found by a nearest-object
+     *  search, together with the measure of its distance.
+     **/
+    private static class Candidate
+    {
+        private final double measure;
+        private final GridObject obj;
+
+        Candidate(double measure, GridObject obj)
+        {
+            this.measure = measure;
+            this.obj = obj;
+        }
+    }
+
+
+    /** A <code>BatchOperation</code> is a block of modifications
+     *  performed by <code>Grid.batch</code> while the grid is locked.
+     **/
+    public interface BatchOperation
+    {
+        /** Performs the modifications.
+         *  @param  grid   the grid being modified
+         **/
+        public void applyTo(Grid grid);
+    }
+
+
+    /** A <code>NeighborVisitor</code> is called for each neighbor
+     *  visited by <code>Grid.forEachNeighbor</code>.  Neighbors are
+     *  identified by row and column so that no <code>Location</code>
+     *  objects need to be created.
+     **/
+    public interface NeighborVisitor
+    {
+        /** Visits one neighboring location.
+         *  @param  row    row of the neighbor
+         *  @param  col    column of the neighbor
+         **/
+        public void visitNeighbor(int row, int col);
     }
 
 
@@ -447,6 +2950,19 @@ public abstract class Grid
          *          <code>false</code> otherwise
          **/
         public boolean isValid(Location loc);
+
+        /** Verifies whether the location at the given row and column is
+         *  valid.  Implementing classes should redefine this method to
+         *  avoid constructing a <code>Location</code> object.
+         *  @param  row    row of the location to check
+         *  @param  col    column of the location to check
+         *  @return <code>true</code> if (<code>row</code>, <code>col</code>)
+         *          is valid; <code>false</code> otherwise
+         **/
+        public default boolean isValid(int row, int col)
+        {
+            return isValid(new Location(row, col));
+        }
     }
 
 
@@ -479,8 +2995,20 @@ public abstract class Grid
             if ( loc == null )
                 return false;
 
-            return (0 <= loc.row() && loc.row() < numRows) &&
-                   (0 <= loc.col() && loc.col() < numCols);
+            return isValid(loc.row(), loc.col());
+        }
+
+        /** Verifies whether the location at the given row and column is
+         *  valid.
+         *  @param  row    row of the location to check
+         *  @param  col    column of the location to check
+         *  @return <code>true</code> if (<code>row</code>, <code>col</code>)
+         *          is valid; <code>false</code> otherwise
+         **/
+        public boolean isValid(int row, int col)
+        {
+            return (0 <= row && row < numRows) &&
+                   (0 <= col && col < numCols);
         }
     }
 
@@ -500,6 +3028,18 @@ public abstract class Grid
             // All non-null locations are valid in an unbounded grid.
             return loc != null;
         }
+
+        /** Verifies whether the location at the given row and column is
+         *  valid.
+         *  @param  row    row of the location to check
+         *  @param  col    column of the location to check
+         *  @return <code>true</code>, since every location is valid
+         *          in an unbounded grid
+         **/
+        public boolean isValid(int row, int col)
+        {
+            return true;
+        }
     }
 
 }
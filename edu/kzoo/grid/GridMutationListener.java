@@ -0,0 +1,43 @@
+// Class: GridMutationListener
+//
+// Author: Alyce Brady
+//
+// License Information:
+//   This class is free software; you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation.
+//
+//   This class is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+
+package edu.kzoo.grid;
+
+/**
+ *  Grid Container Package:<br>
+ *
+ *  The <code>GridMutationListener</code> interface specifies the
+ *  method used to notify observers of the additions, removals, and
+ *  moves made in a grid (see <code>Grid.addMutationListener</code>).
+ *  Changes are delivered in blocks rather than one at a time: a block
+ *  is delivered when a batch of modifications completes, when
+ *  <code>Grid.flushMutations</code> is called (for example, at the end
+ *  of each step of a simulation), or when enough changes have
+ *  accumulated to fill a block.  A grid delivers its blocks one at a
+ *  time and in order, so a listener is never called for two blocks of
+ *  the same grid at once, but the calls may come from different
+ *  threads.
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ **/
+public interface GridMutationListener
+{
+    /** Reacts to a block of changes made in a grid, in the order in
+     *  which they were made.
+     *    @param grid     the grid that was changed
+     *    @param changes  the changes made
+     **/
+    public void gridMutated(Grid grid, GridMutations changes);
+}
@@ -0,0 +1,165 @@
+// Class: GridMutations
+//
+// Author: Alyce Brady
+//
+// License Information:
+//   This class is free software; you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation.
+//
+//   This class is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+
+package edu.kzoo.grid;
+
+import java.util.Arrays;
+
+/**
+ *  Grid Container Package:<br>
+ *
+ *  A <code>GridMutations</code> object is a block of changes made in a
+ *  grid, delivered to <code>GridMutationListener</code> objects.  The
+ *  changes are kept in parallel arrays of primitive values rather than
+ *  as one event object per change, so that observers can keep up with
+ *  grids that change millions of times per second.  Change
+ *  <code>i</code> (for <code>0 &lt;= i &lt; size()</code>) is described
+ *  by its kind (<code>ADDED</code>, <code>REMOVED</code>, or
+ *  <code>MOVED</code>), the object affected, and the locations it moved
+ *  from and to, packed by <code>Location.pack</code>.  For an addition
+ *  or removal, both locations are the location at which the object was
+ *  added or from which it was removed.
+ *
+ *  <p>
+ *  A block is not changed after it has been delivered, so listeners
+ *  may keep it.
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ **/
+public final class GridMutations
+{
+    /** Kind of change in which an object was added to the grid. **/
+    public static final byte ADDED = 0;
+
+    /** Kind of change in which an object was removed from the grid. **/
+    public static final byte REMOVED = 1;
+
+    /** Kind of change in which an object moved within the grid. **/
+    public static final byte MOVED = 2;
+
+    /** Maximum number of changes in a block. **/
+    public static final int BLOCK_SIZE = 4096;
+
+    // Initial capacity of a block; blocks grow as needed up to BLOCK_SIZE,
+    // so that the small blocks sent for small batches stay small.
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Encapsulated data for each block of changes.
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private GridObject[] objects = new GridObject[INITIAL_CAPACITY];
+    private long[] fromLocs = new long[INITIAL_CAPACITY];
+    private long[] toLocs = new long[INITIAL_CAPACITY];
+    private int count = 0;
+
+    /** Constructs an empty block of changes.
+     **/
+    GridMutations()
+    {
+    }
+
+
+  // accessor methods
+
+    /** Returns the number of changes in this block.
+     *  @return  the number of changes
+     **/
+    public int size()
+    {
+        return count;
+    }
+
+    /** Returns the kind of a change.
+     *  @param i  the index of the change
+     *  @return   <code>ADDED</code>, <code>REMOVED</code>, or
+     *            <code>MOVED</code>
+     **/
+    public byte kind(int i)
+    {
+        checkIndex(i);
+        return kinds[i];
+    }
+
+    /** Returns the object affected by a change.
+     *  @param i  the index of the change
+     *  @return   the object added, removed, or moved
+     **/
+    public GridObject object(int i)
+    {
+        checkIndex(i);
+        return objects[i];
+    }
+
+    /** Returns the location of the object before a change.
+     *  @param i  the index of the change
+     *  @return   the packed location the object moved from (for an
+     *            addition, the location at which it was added)
+     **/
+    public long fromLoc(int i)
+    {
+        checkIndex(i);
+        return fromLocs[i];
+    }
+
+    /** Returns the location of the object after a change.
+     *  @param i  the index of the change
+     *  @return   the packed location the object moved to (for a
+     *            removal, the location from which it was removed)
+     **/
+    public long toLoc(int i)
+    {
+        checkIndex(i);
+        return toLocs[i];
+    }
+
+
+  // methods used by the grid
+
+    /** Records a change.
+     *  (Precondition: <code>! isFull()</code>.)
+     **/
+    void append(byte kind, GridObject obj, long fromLoc, long toLoc)
+    {
+        if ( count == kinds.length )
+        {
+            int capacity = Math.min(count * 2, BLOCK_SIZE);
+            kinds = Arrays.copyOf(kinds, capacity);
+            objects = Arrays.copyOf(objects, capacity);
+            fromLocs = Arrays.copyOf(fromLocs, capacity);
+            toLocs = Arrays.copyOf(toLocs, capacity);
+        }
+        kinds[count] = kind;
+        objects[count] = obj;
+        fromLocs[count] = fromLoc;
+        toLocs[count] = toLoc;
+        count++;
+    }
+
+    /** Returns <code>true</code> if this block cannot hold any more
+     *  changes.
+     **/
+    boolean isFull()
+    {
+        return count == BLOCK_SIZE;
+    }
+
+    /** Verifies that a change index is in range. **/
+    private void checkIndex(int i)
+    {
+        if ( i < 0 || i >= count )
+            throw new IndexOutOfBoundsException("No change " + i
+                                                + " in block of " + count);
+    }
+
+}
@@ -159,10 +159,20 @@ public class GridObject
         if ( this.grid() != null || grid == null || loc == null )
             throw new IllegalArgumentException();
 
-        // Set relevant instance variables and add to grid.
+        // Set relevant instance variables and add to grid.  If the grid
+        // refuses the object, leave this object out of any grid.
         theGrid = grid;
         myLoc = loc;
-        theGrid.internalAdd(this);
+        try
+        {
+            theGrid.internalAdd(this);
+        }
+        catch (RuntimeException e)
+        {
+            theGrid = null;
+            myLoc = null;
+            throw e;
+        }
  
         // assert(theGridObjectInvariantHolds());
     }
@@ -175,16 +185,13 @@ public class GridObject
      **/
     protected synchronized void changeLocation(Location newLoc)
     {
-        // Verify precondition.
-        if ( ! isInAGrid() || ! theGrid.isEmpty(newLoc) )
+        // Verify parts of precondition not verified by Grid.internalMove.
+        if ( ! isInAGrid() )
             throw new IllegalArgumentException();
 
-        if ( ! newLoc.equals(myLoc) )
-        {
-            Grid theGridIStillWantToBeIn = theGrid;
-            removeFromGrid();
-            addToGrid(theGridIStillWantToBeIn, newLoc);
-        }
+        // The grid moves the object in one operation, and updates this
+        // object's location through internalSetLocation.
+        theGrid.internalMove(this, newLoc);
 
         // assert(theGridObjectInvariantHolds());
     }
@@ -200,12 +207,56 @@ public class GridObject
         // The grid and grid object should both notify the other
         // when an object is removed.  We set theGrid to null BEFORE
         // notifying the grid to break the circularity.
+        // If the grid refuses the removal (for example, because it is
+        // in the middle of a pass over its objects), restore theGrid.
         Grid tempGrid = theGrid;
         theGrid = null;
-        tempGrid.internalRemove(this);
+        try
+        {
+            tempGrid.internalRemove(this);
+        }
+        catch (RuntimeException e)
+        {
+            theGrid = tempGrid;
+            throw e;
+        }
         myLoc = null;
 
         // assert(theGridObjectInvariantHolds());
     }
 
+    /** Records this object's new location while the grid moves it.  This
+     *  method is meant to be called only by <code>Grid.internalMove</code>,
+     *  which has already verified that the new location is valid and
+     *  empty.
+     *  @param  newLoc    new location value
+     **/
+    final void internalSetLocation(Location newLoc)
+    {
+        myLoc = newLoc;
+    }
+
+    /** Records the grid this object belongs to when its grid's contents
+     *  are transferred wholesale to another grid.  This method is meant
+     *  to be called only by <code>Grid.takeContentsOf</code>, which has
+     *  exclusive access to both grids; the object's location does not
+     *  change.
+     *  @param  grid    the grid that now holds this object
+     **/
+    final void internalSetGrid(Grid grid)
+    {
+        theGrid = grid;
+    }
+
+    /** Forgets this object's grid and location because the grid has
+     *  removed all of its objects at once.  This method is meant to be
+     *  called only by <code>Grid.removeAll</code> and
+     *  <code>Grid.takeContentsOf</code>, which hold the grid's lock.
+     **/
+    final void detach()
+    {
+        theGrid = null;
+        myLoc = null;
+    }
+
 }
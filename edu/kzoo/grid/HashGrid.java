@@ -0,0 +1,398 @@
+// Class: HashGrid
+//
+// Author: Alyce Brady
+//
+// License Information:
+//   This class is free software; you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation.
+//
+//   This class is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+
+package edu.kzoo.grid;
+
+import edu.kzoo.util.LongIntHashMap;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ *  Grid Container Package:<br>
+ *
+ *  The <code>HashGrid</code> class encapsulates two public inner
+ *  classes that extend the <code>Grid</code> class to model a
+ *  two-dimensional grid by keeping track of their contents in a hash
+ *  table indexed by location.  The first public inner class,
+ *  <code>HashGrid.Bounded</code>, represents a bounded grid, while the
+ *  second public inner class, <code>HashGrid.Unbounded</code>,
+ *  represents an unbounded grid.  Either class can be made the default
+ *  grid class for an application, for example with
+ *  <code>GridPkgFactory.setDefaultUnboundedGridClass(HashGrid.Unbounded.class)</code>.
+ *
+ *  <p>
+ *  The hash table maps packed (row, column) locations to positions in
+ *  a dense array of the objects in the grid, so no <code>Location</code>
+ *  or <code>Integer</code> objects are created to look up a cell, and
+ *  <code>allObjects</code> copies the dense array rather than walking
+ *  the table.
+ *
+ *  <p>
+ *  Methods of both <code>HashGrid</code> classes have the
+ *  following time and space characteristics:
+ *  <table align="center">
+ *  <tr><td>numObjects</td><td width="5"><td><i>O</i>(<code>1</code>)</td></tr>
+ *  <tr><td>allObjects</td><td></td><td><i>O</i>(<code>n</code>)</td></tr>
+ *  <tr><td>isEmpty, objectAt</td><td></td><td><i>O</i>(<code>1</code>) [expected]</td></tr>
+ *  <tr><td>add</td><td></td><td><i>O</i>(<code>1</code>) [expected, amortized]</td></tr>
+ *  <tr><td>remove</td><td></td><td><i>O</i>(<code>1</code>) [expected]</td></tr>
+ *  <tr><td>objectsInRect</td><td></td><td><i>O</i>(min(<code>a</code>, <code>n</code>)) [expected]</td></tr>
+ *  <tr><td>space</td><td></td><td><i>O</i>(<code>n</code>)</td></tr>
+ *  </table>
+ *  where <code>n</code> is the number of objects in the grid and
+ *  <code>a</code> is the area of the query rectangle.
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ *  @see ArrayListGrid
+ *  @see Location
+ *  @see GridObject
+ */
+public class HashGrid
+{
+    // HashGrid is a scoping mechanism, not meant to be instantiated.
+    private HashGrid()
+    {
+    }
+
+    /** A <code>HashGrid.Bounded</code> object is a rectangular, bounded
+     *  two-dimensional container data structure implemented as a hash
+     *  table of the objects it contains.  Unlike a
+     *  <code>BoundedGrid</code>, its space requirements depend on the
+     *  number of objects in the grid rather than on its dimensions,
+     *  which makes it a good choice for large, sparsely populated grids.
+     **/
+    public static class Bounded extends Grid
+    {
+      // instance variables: encapsulated data for each Bounded grid object
+        private int numRows;
+        private int numCols;
+
+      // constructors
+
+        /** Constructs an empty HashGrid.Bounded object with the given
+         *  dimensions.
+         *  A cell's neighbors include only the cells to its north, south,
+         *  east, and west, not the cells on the diagonals.
+         *  (Precondition: <code>rows > 0</code> and <code>cols > 0</code>.)
+         *  @param rows        number of rows in grid
+         *  @param cols        number of columns in grid
+         *  @throws    IllegalArgumentException if the precondition is not met
+         **/
+        public Bounded(int rows, int cols)
+        {
+            // Construct and initialize inherited attributes.
+            this(false, rows, cols);
+        }
+
+        /** Constructs an empty HashGrid.Bounded object with the given
+         *  dimensions.
+         *  Each cell in this grid will have at most four or eight
+         *  adjacent neighbors, depending on the value of the
+         *  <code>includeDiagonalNeighbors</code> parameter.  Cells along
+         *  the grid boundaries will have fewer than the maximum four or
+         *  eight neighbors.
+         *  (Precondition: <code>rows > 0</code> and <code>cols > 0</code>.)
+         *  @param includeDiagonalNeighbors  whether to include the four
+         *                                   diagonal locations as neighbors
+         *  @param rows        number of rows in grid
+         *  @param cols        number of columns in grid
+         *  @throws    IllegalArgumentException if the precondition is not met
+         **/
+        public Bounded(boolean includeDiagonalNeighbors,
+                       int rows, int cols)
+        {
+            // Construct and initialize inherited attributes.
+            super(new HashGridRep(
+                            new Grid.BoundedGridValidityChecker(rows, cols)),
+                  includeDiagonalNeighbors);
+            if ( rows <= 0 || cols <= 0 )
+                throw new IllegalArgumentException();
+            numRows = rows;
+            numCols = cols;
+        }
+
+      // accessor methods dealing with grid dimensions
+
+        /** Returns number of rows in this grid.
+         *  @return   the number of rows in this grid
+         **/
+        public int numRows()
+        {
+            return this.numRows;
+        }
+
+        /** Returns number of columns in this grid.
+         *  @return   the number of columns in this grid
+         **/
+        public int numCols()
+        {
+            return this.numCols;
+        }
+
+    }
+
+    /** A <code>HashGrid.Unbounded</code> object is an unbounded
+     *  two-dimensional container data structure implemented as a hash
+     *  table of the objects it contains.  It can contain any kind of
+     *  object that can be modeled using an extension of the
+     *  <code>GridObject</code> class.
+     **/
+    public static class Unbounded extends Grid
+    {
+      // constructors
+
+        /** Constructs an empty HashGrid.Unbounded object.
+         *  A cell's neighbors include only the cells to its north, south,
+         *  east, and west, not the cells on the diagonals.
+         **/
+        public Unbounded()
+        {
+            // Construct and initialize inherited attributes.
+            this(false);
+        }
+
+        /** Constructs an empty HashGrid.Unbounded object.
+         *  Each cell in this grid will have at most four or eight
+         *  adjacent neighbors, depending on the value of the
+         *  <code>includeDiagonalNeighbors</code> parameter.
+         *  @param  includeDiagonalNeighbors   whether to include the four
+         *                                     diagonal locations as neighbors
+         **/
+        public Unbounded(boolean includeDiagonalNeighbors)
+        {
+            // Construct and initialize inherited attributes.
+            super(new HashGridRep(new Grid.UnboundedGridValidityChecker()),
+                  includeDiagonalNeighbors);
+        }
+
+      // accessor methods dealing with grid dimensions
+
+        /** Returns number of rows in this grid.
+         *  @return   the number of rows, or UNBOUNDED if the grid is unbounded
+         **/
+        public int numRows()
+        {
+            return Grid.UNBOUNDED;
+        }
+
+        /** Returns number of columns in this grid.
+         *  @return   the number of columns, or UNBOUNDED if the grid is unbounded
+         **/
+        public int numCols()
+        {
+            return Grid.UNBOUNDED;
+        }
+    }
+
+    /** Internal representation for a hash table-based implementation
+     *  of a <code>Grid</code> class.  Objects are kept in a dense array;
+     *  a primitive hash table maps each packed location to the position
+     *  of its object in that array.  Removing an object moves the last
+     *  object in the array into the vacated position.
+     **/
+    public static class HashGridRep implements Grid.InternalRepresentation
+    {
+      // instance variables: encapsulated data for each HashGridRep object
+        private LongIntHashMap indexOfLoc;  // packed location -> array index
+        private GridObject[] objects;       // dense array of objects
+        private int objectCount;            // # of objects in the grid
+        private Grid.ValidityChecker locationValidityChecker;
+
+      // constructors
+
+        /** Constructs an empty HashGridRep representation of a grid.
+         *    @param checker an object that knows how to check the validity
+         *                   of a location in a grid
+         **/
+        protected HashGridRep(Grid.ValidityChecker checker)
+        {
+            indexOfLoc = new LongIntHashMap();
+            objects = new GridObject[16];
+            objectCount = 0;
+            locationValidityChecker = checker;
+        }
+
+
+      // accessor methods
+
+        /** Verifies whether a location is valid in this grid.
+         *  @param  loc    location to check
+         *  @return <code>true</code> if <code>loc</code> is valid;
+         *          <code>false</code> otherwise
+         **/
+        public boolean isValid(Location loc)
+        {
+            return locationValidityChecker.isValid(loc);
+        }
+
+        /** Verifies whether the location at the given row and column is
+         *  valid in this grid.
+         *  @param  row    row of the location to check
+         *  @param  col    column of the location to check
+         *  @return <code>true</code> if (<code>row</code>, <code>col</code>)
+         *          is valid; <code>false</code> otherwise
+         **/
+        public boolean isValid(int row, int col)
+        {
+            return locationValidityChecker.isValid(row, col);
+        }
+
+        /** Returns the number of objects in this grid.
+         *  @return   the number of objects
+         **/
+        public int numObjects()
+        {
+            return objectCount;
+        }
+
+        /** Returns all the objects in this grid.
+         *  @return    an array of all the grid objects
+         **/
+        public GridObject[] allObjects()
+        {
+            return Arrays.copyOf(objects, objectCount);
+        }
+
+        /** Performs the given action for each object in this grid,
+         *  visiting the objects in place rather than copying them.
+         *  (Precondition: <code>action</code> does not modify the grid.)
+         *  @param action  the action to perform on each object
+         **/
+        public void forEachObject(Consumer<? super GridObject> action)
+        {
+            for ( int i = 0; i < objectCount; i++ )
+                action.accept(objects[i]);
+        }
+
+        /** Returns a spliterator over the objects in this grid that
+         *  reads the dense array of objects in place and
+         *  splits it into halves.
+         *  (Precondition: the grid is not modified during traversal.)
+         *  @return  a spliterator over the objects in this grid
+         **/
+        public Spliterator<GridObject> spliterator()
+        {
+            return Spliterators.spliterator(objects, 0, objectCount,
+                                Spliterator.NONNULL | Spliterator.DISTINCT);
+        }
+
+        /** Returns the object at a specific location in this grid.
+         *  @param loc    the location in which to look
+         *  @return       the object at location <code>loc</code>;
+         *                <code>null</code> if <code>loc</code> is not
+         *                in the grid or is empty
+         **/
+        public GridObject objectAt(Location loc)
+        {
+            if ( loc == null )
+                return null;
+
+            return objectAt(loc.packed());
+        }
+
+        /** Returns the object at the given row and column in this grid.
+         *  @param row    the row in which to look
+         *  @param col    the column in which to look
+         *  @return       the object at (<code>row</code>, <code>col</code>);
+         *                <code>null</code> if that location is not
+         *                in the grid or is empty
+         **/
+        public GridObject objectAt(int row, int col)
+        {
+            return objectAt(Location.pack(row, col));
+        }
+
+        /** Returns the object at a packed location in this grid.
+         *  @param packedLoc  the location in which to look, packed by
+         *                    <code>Location.pack</code>
+         *  @return       the object at location <code>packedLoc</code>;
+         *                <code>null</code> if <code>packedLoc</code> is not
+         *                in the grid or is empty
+         **/
+        public GridObject objectAt(long packedLoc)
+        {
+            int index = indexOfLoc.get(packedLoc);
+            return ( index == LongIntHashMap.NO_VALUE ) ? null : objects[index];
+        }
+
+
+      // modifier methods
+
+        /** Adds a new object to this internal grid representation at the
+         *  location it specifies.
+         *  (Precondition: <code>obj.grid()</code> is this grid and
+         *   <code>obj.location()</code> is a valid empty location;
+         *   verified by the <code>Grid</code> object.)
+         *  @param obj the new object to be added
+         **/
+        public void add(GridObject obj)
+        {
+            if ( objectCount == objects.length )
+                objects = Arrays.copyOf(objects, objects.length * 2);
+            objects[objectCount] = obj;
+            indexOfLoc.put(obj.location().packed(), objectCount);
+            objectCount++;
+        }
+
+        /** Removes the object from this internal grid representation.
+         *  (Precondition: <code>obj</code> is in this grid; verified
+         *   by the <code>Grid</code> object.)
+         *  @param obj     the object to be removed
+         **/
+        public void remove(GridObject obj)
+        {
+            // Remove the object's entry, then fill the hole it leaves in
+            // the dense array with the last object in the array.
+            int index = indexOfLoc.remove(obj.location().packed());
+            int last = --objectCount;
+            if ( index != last )
+            {
+                GridObject moved = objects[last];
+                objects[index] = moved;
+                indexOfLoc.put(moved.location().packed(), index);
+            }
+            objects[last] = null;
+        }
+
+        /** Removes all objects from this internal grid representation.
+         **/
+        public void clear()
+        {
+            indexOfLoc.clear();
+            Arrays.fill(objects, 0, objectCount, null);
+            objectCount = 0;
+        }
+
+        /** Moves an object from one location in this internal grid
+         *  representation to another.  The object keeps its place in the
+         *  dense array; only its key in the hash table changes.
+         *  (Precondition: <code>obj</code> is at <code>from</code>,
+         *   <code>to</code> is a valid empty location, and
+         *   <code>obj.location()</code> is <code>to</code>; verified by
+         *   the <code>Grid</code> object.)
+         *  @param obj     the object to be moved
+         *  @param from    the object's previous location
+         *  @param to      the object's new location
+         **/
+        public void move(GridObject obj, Location from, Location to)
+        {
+            int index = indexOfLoc.remove(from.packed());
+            indexOfLoc.put(to.packed(), index);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+// Class: IntGrid
+//
+// Author: Alyce Brady
+//
+// License Information:
+//   This class is free software; you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation.
+//
+//   This class is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+
+package edu.kzoo.grid;
+
+/**
+ *  Grid Container Package:<br>
+ *
+ *  An <code>IntGrid</code> is a <code>CellStateGrid</code> whose cells hold
+ *  any <code>int</code> state.  Its states are kept in a
+ *  single <code>int</code> array in row-major order, so it takes
+ *  four bytes of space per cell, whether or not the cell is empty.
+ *  <table align="center">
+ *  <tr><td>state, setState</td><td width="5"><td><i>O</i>(<code>1</code>)</td></tr>
+ *  <tr><td>numObjects</td><td></td><td><i>O</i>(<code>1</code>)</td></tr>
+ *  <tr><td>isValid, isEmpty, objectAt</td><td></td><td><i>O</i>(<code>1</code>)</td></tr>
+ *  <tr><td>allObjects</td><td></td><td><i>O</i>(<code>r * c</code>)</td></tr>
+ *  <tr><td>objectsInRect</td><td></td><td><i>O</i>(<code>a</code>)</td></tr>
+ *  <tr><td>space</td><td></td><td><i>O</i>(<code>r * c</code>)</td></tr>
+ *  </table>
+ *  where <code>r</code> is the number of rows, <code>c</code> is the
+ *  number of columns, and <code>a</code> is the area of the query
+ *  rectangle within the grid.
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ *  @see CellStateGrid
+ **/
+
+public class IntGrid extends CellStateGrid
+{
+  // constructors
+
+    /** Constructs a IntGrid object with the given dimensions, in which
+     *  every cell is empty.  A cell's neighbors include only the cells
+     *  to its north, south, east, and west, not the cells on the
+     *  diagonals.
+     *  (Precondition: <code>rows > 0</code> and <code>cols > 0</code>.)
+     *  @param rows        number of rows in IntGrid
+     *  @param cols        number of columns in IntGrid
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public IntGrid(int rows, int cols)
+    {
+        this(false, rows, cols);
+    }
+
+    /** Constructs a IntGrid object with the given dimensions, in which
+     *  every cell is empty.  Each cell in this grid will have at most
+     *  four or eight adjacent neighbors, depending on the value of the
+     *  <code>includeDiagonalNeighbors</code> parameter.
+     *  (Precondition: <code>rows > 0</code> and <code>cols > 0</code>.)
+     *  @param includeDiagonalNeighbors  whether to include the four
+     *                                   diagonal locations as neighbors
+     *  @param rows        number of rows in IntGrid
+     *  @param cols        number of columns in IntGrid
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public IntGrid(boolean includeDiagonalNeighbors, int rows, int cols)
+    {
+        super(new IntStore(rows, cols), includeDiagonalNeighbors);
+    }
+
+
+  // internal representation
+
+    /** An <code>IntStore</code> keeps cell states in an <code>int</code> array.
+     **/
+    private static class IntStore extends CellStateGrid.CellStore
+    {
+        private final int[] states;
+
+        IntStore(int rows, int cols)
+        {
+            super(rows, cols);
+            if ( (long) rows * cols > Integer.MAX_VALUE )
+                throw new IllegalArgumentException();
+            states = new int[rows * cols];
+        }
+
+        int get(int row, int col)
+        {
+            return states[row * numCols + col];
+        }
+
+        void put(int row, int col, int state)
+        {
+            states[row * numCols + col] = state;
+        }
+
+        void getRun(int row, int col, int[] dest, int offset, int length)
+        {
+            System.arraycopy(states, row * numCols + col, dest, offset,
+                             length);
+        }
+
+        void putRun(int row, int col, int[] src, int offset, int length)
+        {
+            System.arraycopy(src, offset, states, row * numCols + col,
+                             length);
+        }
+
+        int minState()
+        {
+            return Integer.MIN_VALUE;
+        }
+
+        int maxState()
+        {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+}
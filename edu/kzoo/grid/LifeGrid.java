@@ -0,0 +1,403 @@
+// Class: LifeGrid
+//
+// Author: Alyce Brady
+//
+// License Information:
+//   This class is free software; you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation.
+//
+//   This class is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+
+package edu.kzoo.grid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ *  Grid Container Package:<br>
+ *
+ *  A <code>LifeGrid</code> is a <code>CellStateGrid</code> for Conway's
+ *  Game of Life, in which each cell is either alive (state 1) or dead
+ *  (state 0, empty).  The cells are kept as bits, 64 to a
+ *  <code>long</code>, with each row starting a new word, and
+ *  <code>step</code> computes the next generation a whole word at a time:
+ *  the eight neighbors of 64 cells are added with bitwise adders,
+ *  rather than counted cell by cell.  A live cell with two or three
+ *  live neighbors stays alive, a dead cell with exactly three live
+ *  neighbors comes alive, and every other cell dies or stays dead.
+ *
+ *  <p>
+ *  A <code>LifeGrid</code>'s edges are either bounded, so that cells
+ *  beyond the edges count as dead, or toroidal, so that the top row is
+ *  next to the bottom row and the leftmost column is next to the
+ *  rightmost one.  The edges affect only <code>step</code>; like any
+ *  bounded grid, the grid's own neighbor methods do not wrap around.
+ *  <code>step</code> may divide the rows into bands and compute the
+ *  bands on several threads of the common fork-join pool.  It holds the
+ *  grid's lock for writing the whole time, and reports the changed
+ *  cells to dirty tracking and to mutation listeners like
+ *  <code>setState</code> does.
+ *
+ *  <p>
+ *  Since each row starts a new word, threads setting cells in different
+ *  rows never write to the same word, so a <code>LifeGrid</code> may be
+ *  used with row-striped locking (see <code>StripedGrid</code>).
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ *  @see CellStateGrid
+ **/
+
+public class LifeGrid extends CellStateGrid
+{
+    /** The state of a live cell. **/
+    public static final int ALIVE = 1;
+
+    // Fewest rows worth giving a band of their own.
+    private static final int MIN_ROWS_PER_BAND = 16;
+
+  // instance variables: encapsulated data for each LifeGrid object
+    private final BitStore store;
+    private final boolean toroidal;
+
+  // constructors
+
+    /** Constructs a LifeGrid object with the given dimensions and
+     *  bounded edges, in which every cell is dead.
+     *  (Precondition: <code>rows > 0</code> and <code>cols > 0</code>.)
+     *  @param rows        number of rows in LifeGrid
+     *  @param cols        number of columns in LifeGrid
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public LifeGrid(int rows, int cols)
+    {
+        this(rows, cols, false);
+    }
+
+    /** Constructs a LifeGrid object with the given dimensions, in which
+     *  every cell is dead.  A cell's neighbors include the cells on the
+     *  diagonals.
+     *  (Precondition: <code>rows > 0</code> and <code>cols > 0</code>.)
+     *  @param rows        number of rows in LifeGrid
+     *  @param cols        number of columns in LifeGrid
+     *  @param toroidal    <code>true</code> if the edges wrap around;
+     *                     <code>false</code> if they are bounded
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public LifeGrid(int rows, int cols, boolean toroidal)
+    {
+        super(new BitStore(rows, cols), true);
+        this.store = (BitStore) internalRep;
+        this.toroidal = toroidal;
+    }
+
+  // accessor methods
+
+    /** Indicates whether this grid's edges wrap around.
+     *  @return  <code>true</code> if the edges are toroidal;
+     *           <code>false</code> if they are bounded
+     **/
+    public boolean isToroidal()
+    {
+        return toroidal;
+    }
+
+    /** Indicates whether the cell at the given row and column is alive.
+     *  (Precondition: (<code>row</code>, <code>col</code>) is a valid
+     *  location in this grid.)
+     *  @param row  the row of the cell
+     *  @param col  the column of the cell
+     *  @return     <code>true</code> if the cell is alive
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public boolean isAlive(int row, int col)
+    {
+        return state(row, col) == ALIVE;
+    }
+
+  // modifier methods
+
+    /** Brings the cell at the given row and column to life or kills it.
+     *  (Precondition: (<code>row</code>, <code>col</code>) is a valid
+     *  location in this grid.)
+     *  @param row    the row of the cell
+     *  @param col    the column of the cell
+     *  @param alive  whether the cell should be alive
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public void setAlive(int row, int col, boolean alive)
+    {
+        setState(row, col, alive ? ALIVE : EMPTY);
+    }
+
+    /** Advances this grid one generation, dividing the rows into bands
+     *  computed on as many threads as there are processors.
+     **/
+    public void step()
+    {
+        step(Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Advances this grid one generation, dividing the rows into at
+     *  most <code>numBands</code> bands that are computed at the same
+     *  time.  Bands have at least a few rows each, so a small grid may
+     *  use fewer bands.
+     *  (Precondition: <code>numBands > 0</code>.)
+     *  @param numBands  the largest number of bands to compute at once
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public void step(final int numBands)
+    {
+        if ( numBands <= 0 )
+            throw new IllegalArgumentException("Number of bands must be" +
+                                               " positive");
+        batch(new BatchOperation() {
+            public void applyTo(Grid grid)
+            {
+                stepLocked(numBands);
+            }});
+    }
+
+    /** Computes the next generation into the store's spare array, makes
+     *  it the current one, and reports the changes; the caller holds the
+     *  lock for writing to the whole grid.
+     **/
+    private void stepLocked(int numBands)
+    {
+        final long[] current = store.words;
+        final long[] next = store.spareWords;
+        int numRows = numRows();
+        int bands = Math.max(1, Math.min(numBands,
+                                         numRows / MIN_ROWS_PER_BAND));
+        if ( bands == 1 )
+            computeRows(current, next, 0, numRows);
+        else
+        {
+            final List<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+            for ( int band = 0; band < bands; band++ )
+            {
+                final int fromRow = (int) ((long) band * numRows / bands);
+                final int toRow = (int) ((long) (band + 1) * numRows / bands);
+                tasks.add(new RecursiveAction() {
+                    protected void compute()
+                    {
+                        computeRows(current, next, fromRow, toRow);
+                    }});
+            }
+            ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+                protected void compute()
+                {
+                    invokeAll(tasks);
+                }});
+        }
+
+        store.words = next;
+        store.spareWords = current;
+        reportChanges(current, next);
+    }
+
+    /** Computes rows <code>fromRow</code> (inclusive) to
+     *  <code>toRow</code> (exclusive) of the next generation.
+     **/
+    private void computeRows(long[] current, long[] next,
+                             int fromRow, int toRow)
+    {
+        int numRows = numRows();
+        int wordsPerRow = store.wordsPerRow;
+        for ( int row = fromRow; row < toRow; row++ )
+        {
+            // Offsets of the rows above and below; -1 for a row beyond a
+            // bounded edge.
+            int here = row * wordsPerRow;
+            int above = row > 0 ? here - wordsPerRow
+                                : (toroidal ? (numRows - 1) * wordsPerRow : -1);
+            int below = row < numRows - 1 ? here + wordsPerRow
+                                : (toroidal ? 0 : -1);
+
+            for ( int w = 0; w < wordsPerRow; w++ )
+            {
+                long alive = current[here + w];
+
+                // Add up the eight neighbors of each bit with full and
+                // half adders: (sum, carry) pairs of weight 1, then 2.
+                long n0 = west(current, above, w);
+                long n1 = word(current, above, w);
+                long n2 = east(current, above, w);
+                long n3 = west(current, here, w);
+                long n4 = east(current, here, w);
+                long n5 = west(current, below, w);
+                long n6 = word(current, below, w);
+                long n7 = east(current, below, w);
+
+                long s1 = n0 ^ n1 ^ n2;
+                long c1 = (n0 & n1) | (n2 & (n0 ^ n1));
+                long s2 = n3 ^ n4 ^ n5;
+                long c2 = (n3 & n4) | (n5 & (n3 ^ n4));
+                long s3 = n6 ^ n7;
+                long c3 = n6 & n7;
+
+                long ones = s1 ^ s2 ^ s3;
+                long cA = (s1 & s2) | (s3 & (s1 ^ s2));
+
+                long t = c1 ^ c2 ^ c3;
+                long cB = (c1 & c2) | (c3 & (c1 ^ c2));
+                long twos = t ^ cA;
+                long cC = t & cA;
+                long fours = cB ^ cC;
+
+                // Alive next if the count is 3, or 2 and alive now.
+                long result = ~fours & twos & (ones | alive);
+                if ( w == wordsPerRow - 1 )
+                    result &= store.lastWordMask;
+                next[here + w] = result;
+            }
+        }
+    }
+
+    /** Returns word <code>w</code> of the row at offset
+     *  <code>rowOffset</code>, or 0 if the row is beyond the edge.
+     **/
+    private long word(long[] words, int rowOffset, int w)
+    {
+        return rowOffset < 0 ? 0L : words[rowOffset + w];
+    }
+
+    /** Returns, for each cell in word <code>w</code> of a row, the cell
+     *  to its west.
+     **/
+    private long west(long[] words, int rowOffset, int w)
+    {
+        if ( rowOffset < 0 )
+            return 0L;
+        long carry;
+        if ( w > 0 )
+            carry = words[rowOffset + w - 1] >>> 63;
+        else if ( toroidal )
+            carry = (words[rowOffset + store.wordsPerRow - 1]
+                                >>> store.lastBit) & 1L;
+        else
+            carry = 0L;
+        return (words[rowOffset + w] << 1) | carry;
+    }
+
+    /** Returns, for each cell in word <code>w</code> of a row, the cell
+     *  to its east.
+     **/
+    private long east(long[] words, int rowOffset, int w)
+    {
+        if ( rowOffset < 0 )
+            return 0L;
+        long carry;
+        if ( w < store.wordsPerRow - 1 )
+            carry = words[rowOffset + w + 1] << 63;
+        else if ( toroidal )
+            carry = (words[rowOffset] & 1L) << store.lastBit;
+        else
+            carry = 0L;
+        return (words[rowOffset + w] >>> 1) | carry;
+    }
+
+    /** Updates the count of live cells and reports the cells that
+     *  changed between two generations.
+     **/
+    private void reportChanges(long[] before, long[] after)
+    {
+        long alive = 0;
+        for ( int i = 0; i < after.length; i++ )
+            alive += Long.bitCount(after[i]);
+        store.occupied.set(alive);
+
+        if ( ! tracksCellChanges() )
+        {
+            cellsReplaced();
+            return;
+        }
+        boolean views = reportsCellViews();
+        int wordsPerRow = store.wordsPerRow;
+        for ( int i = 0; i < after.length; i++ )
+        {
+            long changed = before[i] ^ after[i];
+            while ( changed != 0 )
+            {
+                int bit = Long.numberOfTrailingZeros(changed);
+                changed &= changed - 1;
+                int row = i / wordsPerRow;
+                int col = (i % wordsPerRow) * 64 + bit;
+                GridObject wasAlive = null;
+                GridObject isAlive = null;
+                if ( views )
+                {
+                    if ( (after[i] >>> bit & 1L) != 0 )
+                        isAlive = viewOf(row, col, ALIVE);
+                    else
+                        wasAlive = viewOf(row, col, ALIVE);
+                }
+                cellChanged(row, col, wasAlive, isAlive);
+            }
+        }
+    }
+
+
+  // internal representation
+
+    /** A <code>BitStore</code> keeps one bit per cell, 64 to a word, with
+     *  each row starting a new word.  Bits beyond the last column of a
+     *  row are always 0.  A spare array of the same size holds the next
+     *  generation while it is computed.
+     **/
+    private static class BitStore extends CellStateGrid.CellStore
+    {
+        final int wordsPerRow;
+        final int lastBit;          // bit of the last column in its word
+        final long lastWordMask;    // bits of a row's last word in use
+        volatile long[] words;
+        long[] spareWords;
+
+        BitStore(int rows, int cols)
+        {
+            super(rows, cols);
+            long numWords = (long) rows * ((cols + 63L) / 64);
+            if ( numWords > Integer.MAX_VALUE )
+                throw new IllegalArgumentException();
+
+            wordsPerRow = (int) ((cols + 63L) / 64);
+            lastBit = (cols - 1) & 63;
+            lastWordMask = lastBit == 63 ? -1L : (1L << (lastBit + 1)) - 1;
+            words = new long[(int) numWords];
+            spareWords = new long[(int) numWords];
+        }
+
+        int get(int row, int col)
+        {
+            return (int) (words[row * wordsPerRow + (col >>> 6)]
+                                    >>> (col & 63)) & 1;
+        }
+
+        void put(int row, int col, int state)
+        {
+            long[] theWords = words;
+            int index = row * wordsPerRow + (col >>> 6);
+            if ( state == EMPTY )
+                theWords[index] &= ~(1L << (col & 63));
+            else
+                theWords[index] |= 1L << (col & 63);
+        }
+
+        int minState()
+        {
+            return EMPTY;
+        }
+
+        int maxState()
+        {
+            return ALIVE;
+        }
+    }
+
+}
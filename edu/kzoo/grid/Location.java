@@ -118,4 +118,50 @@ public class Location implements Comparable
         return "(" + row() + ", " + col() + ")";
     }
 
+    /** Packs this location's row and column into a single
+     *  <code>long</code> value (will not be tested on the Advanced
+     *  Placement exam).
+     *  @return     the packed form of this location
+     *  @see #pack(int, int)
+     **/
+    public long packed()
+    {
+        return pack(myRow, myCol);
+    }
+
+
+  // methods not tied to any one Location object
+
+    /** Packs a row and column into a single <code>long</code> value,
+     *  with the row in the high 32 bits and the column in the low 32 bits
+     *  (will not be tested on the Advanced Placement exam).  Packed
+     *  locations can be used as hash keys without creating
+     *  <code>Location</code> objects.
+     *  @param row    the row to pack
+     *  @param col    the column to pack
+     *  @return       the packed (row, col) value
+     **/
+    public static long pack(int row, int col)
+    {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    /** Extracts the row from a packed location.
+     *  @param packedLoc  a location packed by <code>pack</code>
+     *  @return           the row of the packed location
+     **/
+    public static int unpackRow(long packedLoc)
+    {
+        return (int) (packedLoc >> 32);
+    }
+
+    /** Extracts the column from a packed location.
+     *  @param packedLoc  a location packed by <code>pack</code>
+     *  @return           the column of the packed location
+     **/
+    public static int unpackCol(long packedLoc)
+    {
+        return (int) packedLoc;
+    }
+
 }
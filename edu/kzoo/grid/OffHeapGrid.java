@@ -0,0 +1,223 @@
+// Class: OffHeapGrid
+//
+// Author: Alyce Brady
+//
+// License Information:
+//   This class is free software; you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation.
+//
+//   This class is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+
+package edu.kzoo.grid;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ *  Grid Container Package:<br>
+ *
+ *  An <code>OffHeapGrid</code> is a <code>CellStateGrid</code> whose cell
+ *  states are kept outside the Java heap, in direct byte buffers, so that
+ *  very large grids (tens of thousands of rows and columns) do not
+ *  burden the garbage collector: the collector sees only the grid and a
+ *  small array of buffer handles, however many cells there are.  Each
+ *  cell takes 1, 2, or 4 bytes, chosen when the grid is constructed,
+ *  which allows states from 0 to 255, from 0 to 65535, or any
+ *  <code>int</code>.
+ *
+ *  <p>
+ *  A single buffer holds at most 2<sup>30</sup> bytes, so the rows of a
+ *  large grid are spread over several buffers, each holding a whole
+ *  number of rows.  The grid's memory is released when the grid is
+ *  garbage collected.  The total size of all direct buffers is limited
+ *  by the Java virtual machine (see the
+ *  <code>-XX:MaxDirectMemorySize</code> option), so very large grids may
+ *  need a larger limit.
+ *  <table align="center">
+ *  <tr><td>state, setState</td><td width="5"><td><i>O</i>(<code>1</code>)</td></tr>
+ *  <tr><td>numObjects</td><td></td><td><i>O</i>(<code>1</code>)</td></tr>
+ *  <tr><td>isValid, isEmpty, objectAt</td><td></td><td><i>O</i>(<code>1</code>)</td></tr>
+ *  <tr><td>allObjects</td><td></td><td><i>O</i>(<code>r * c</code>)</td></tr>
+ *  <tr><td>objectsInRect</td><td></td><td><i>O</i>(<code>a</code>)</td></tr>
+ *  <tr><td>space (off the heap)</td><td></td><td><i>O</i>(<code>r * c</code>)</td></tr>
+ *  </table>
+ *  where <code>r</code> is the number of rows, <code>c</code> is the
+ *  number of columns, and <code>a</code> is the area of the query
+ *  rectangle within the grid.
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ *  @see CellStateGrid
+ **/
+
+public class OffHeapGrid extends CellStateGrid
+{
+    /** Largest number of bytes kept in a single buffer. **/
+    static final int MAX_BUFFER_BYTES = 1 << 30;
+
+  // constructors
+
+    /** Constructs an OffHeapGrid object with the given dimensions and
+     *  number of bytes per cell, in which every cell is empty.  A cell's
+     *  neighbors include only the cells to its north, south, east, and
+     *  west, not the cells on the diagonals.
+     *  (Precondition: <code>rows > 0</code>, <code>cols > 0</code>,
+     *  <code>bytesPerCell</code> is 1, 2, or 4, and a row takes at most
+     *  2<sup>30</sup> bytes.)
+     *  @param rows          number of rows in OffHeapGrid
+     *  @param cols          number of columns in OffHeapGrid
+     *  @param bytesPerCell  number of bytes in which to keep each state
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public OffHeapGrid(int rows, int cols, int bytesPerCell)
+    {
+        this(false, rows, cols, bytesPerCell);
+    }
+
+    /** Constructs an OffHeapGrid object with the given dimensions and
+     *  number of bytes per cell, in which every cell is empty.  Each cell
+     *  in this grid will have at most four or eight adjacent neighbors,
+     *  depending on the value of the <code>includeDiagonalNeighbors</code>
+     *  parameter.
+     *  (Precondition: <code>rows > 0</code>, <code>cols > 0</code>,
+     *  <code>bytesPerCell</code> is 1, 2, or 4, and a row takes at most
+     *  2<sup>30</sup> bytes.)
+     *  @param includeDiagonalNeighbors  whether to include the four
+     *                                   diagonal locations as neighbors
+     *  @param rows          number of rows in OffHeapGrid
+     *  @param cols          number of columns in OffHeapGrid
+     *  @param bytesPerCell  number of bytes in which to keep each state
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public OffHeapGrid(boolean includeDiagonalNeighbors, int rows, int cols,
+                       int bytesPerCell)
+    {
+        super(new OffHeapStore(rows, cols, bytesPerCell),
+              includeDiagonalNeighbors);
+    }
+
+
+  // internal representation
+
+    /** An <code>OffHeapStore</code> keeps cell states in direct byte
+     *  buffers in native byte order, <code>rowsPerBuffer</code> rows to a
+     *  buffer, in row-major order.  States are read and written with
+     *  absolute <code>get</code> and <code>put</code> calls, which do not
+     *  change a buffer's position, so several threads may use the
+     *  buffers at once.
+     **/
+    private static class OffHeapStore extends CellStateGrid.CellStore
+    {
+        private final int bytesPerCell;
+        private final int rowsPerBuffer;
+        private final ByteBuffer[] buffers;
+
+        OffHeapStore(int rows, int cols, int bytesPerCell)
+        {
+            super(rows, cols);
+            if ( bytesPerCell != 1 && bytesPerCell != 2 && bytesPerCell != 4 )
+                throw new IllegalArgumentException("Cells must take 1, 2," +
+                                                   " or 4 bytes");
+            long rowBytes = (long) cols * bytesPerCell;
+            if ( rowBytes > MAX_BUFFER_BYTES )
+                throw new IllegalArgumentException("Rows are too long");
+
+            this.bytesPerCell = bytesPerCell;
+            this.rowsPerBuffer = (int) Math.min(rows,
+                                                MAX_BUFFER_BYTES / rowBytes);
+            int numBuffers = (rows + rowsPerBuffer - 1) / rowsPerBuffer;
+            buffers = new ByteBuffer[numBuffers];
+            for ( int i = 0; i < numBuffers; i++ )
+            {
+                int bufferRows = Math.min(rowsPerBuffer,
+                                          rows - i * rowsPerBuffer);
+                buffers[i] = ByteBuffer.allocateDirect(
+                                    (int) (bufferRows * rowBytes))
+                                       .order(ByteOrder.nativeOrder());
+            }
+        }
+
+        /** Returns the offset in its buffer of the cell at the given row
+         *  and column.
+         **/
+        private int offsetOf(int row, int col)
+        {
+            return ((row % rowsPerBuffer) * numCols + col) * bytesPerCell;
+        }
+
+        int get(int row, int col)
+        {
+            ByteBuffer buffer = buffers[row / rowsPerBuffer];
+            int offset = offsetOf(row, col);
+            if ( bytesPerCell == 1 )
+                return buffer.get(offset) & 0xff;
+            if ( bytesPerCell == 2 )
+                return buffer.getShort(offset) & 0xffff;
+            return buffer.getInt(offset);
+        }
+
+        void put(int row, int col, int state)
+        {
+            ByteBuffer buffer = buffers[row / rowsPerBuffer];
+            int offset = offsetOf(row, col);
+            if ( bytesPerCell == 1 )
+                buffer.put(offset, (byte) state);
+            else if ( bytesPerCell == 2 )
+                buffer.putShort(offset, (short) state);
+            else
+                buffer.putInt(offset, state);
+        }
+
+        void getRun(int row, int col, int[] dest, int offset, int length)
+        {
+            if ( bytesPerCell != 4 )
+            {
+                super.getRun(row, col, dest, offset, length);
+                return;
+            }
+
+            // Copy through a view of the buffer, whose position belongs
+            // to this call alone.
+            IntBuffer view = buffers[row / rowsPerBuffer].duplicate()
+                                    .order(ByteOrder.nativeOrder())
+                                    .asIntBuffer();
+            view.position(offsetOf(row, col) / 4);
+            view.get(dest, offset, length);
+        }
+
+        void putRun(int row, int col, int[] src, int offset, int length)
+        {
+            if ( bytesPerCell != 4 )
+            {
+                super.putRun(row, col, src, offset, length);
+                return;
+            }
+
+            IntBuffer view = buffers[row / rowsPerBuffer].duplicate()
+                                    .order(ByteOrder.nativeOrder())
+                                    .asIntBuffer();
+            view.position(offsetOf(row, col) / 4);
+            view.put(src, offset, length);
+        }
+
+        int minState()
+        {
+            return bytesPerCell == 4 ? Integer.MIN_VALUE : 0;
+        }
+
+        int maxState()
+        {
+            if ( bytesPerCell == 1 )
+                return 0xff;
+            if ( bytesPerCell == 2 )
+                return 0xffff;
+            return Integer.MAX_VALUE;
+        }
+    }
+
+}
@@ -0,0 +1,246 @@
+// Class: SpatialBuckets
+//
+// Author: Alyce Brady
+//
+// License Information:
+//   This class is free software; you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation.
+//
+//   This class is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+
+package edu.kzoo.grid;
+
+import edu.kzoo.util.LongIntHashMap;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ *  Grid Container Package:<br>
+ *
+ *  A <code>SpatialBuckets</code> object indexes grid objects by area.
+ *  The plane is divided into square buckets of
+ *  <code>BUCKET_SIZE</code> by <code>BUCKET_SIZE</code> cells, and each
+ *  non-empty bucket keeps a small array of the objects in it, so the
+ *  objects in a rectangle can be found by looking only at the buckets
+ *  that overlap it.  Buckets are created when an object is added to an
+ *  empty area and discarded when they become empty, so the space used
+ *  depends on the number of objects rather than on the extent of the
+ *  grid.
+ *
+ *  <p>
+ *  The index does not know the locations of the objects it holds; the
+ *  representation that owns it passes each object's location to
+ *  <code>add</code>, <code>remove</code>, and <code>move</code>.
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ **/
+class SpatialBuckets
+{
+    /** Number of bits in a row or column index within a bucket. **/
+    static final int BUCKET_SHIFT = 4;
+
+    /** Number of rows (and of columns) in a bucket. **/
+    static final int BUCKET_SIZE = 1 << BUCKET_SHIFT;
+
+    // Encapsulated data for each index.
+    private LongIntHashMap indexOfBucket;   // packed bucket coord -> index
+    private Bucket[] buckets;               // dense array of buckets
+    private int bucketCount;                // # of non-empty buckets
+
+    /** Constructs an empty index.
+     **/
+    SpatialBuckets()
+    {
+        indexOfBucket = new LongIntHashMap();
+        buckets = new Bucket[16];
+        bucketCount = 0;
+    }
+
+
+  // modifier methods
+
+    /** Records an object at the given location.
+     *  @param obj  the object
+     *  @param row  the object's row
+     *  @param col  the object's column
+     **/
+    void add(GridObject obj, int row, int col)
+    {
+        int bucketRow = row >> BUCKET_SHIFT;
+        int bucketCol = col >> BUCKET_SHIFT;
+        long key = Location.pack(bucketRow, bucketCol);
+        int index = indexOfBucket.get(key);
+        Bucket bucket;
+        if ( index == LongIntHashMap.NO_VALUE )
+        {
+            bucket = new Bucket(bucketRow, bucketCol);
+            if ( bucketCount == buckets.length )
+                buckets = Arrays.copyOf(buckets, bucketCount * 2);
+            buckets[bucketCount] = bucket;
+            indexOfBucket.put(key, bucketCount);
+            bucketCount++;
+        }
+        else
+            bucket = buckets[index];
+        bucket.add(obj);
+    }
+
+    /** Forgets an object at the given location.
+     *  (Precondition: <code>obj</code> was added at that location.)
+     *  @param obj  the object
+     *  @param row  the object's row
+     *  @param col  the object's column
+     **/
+    void remove(GridObject obj, int row, int col)
+    {
+        long key = Location.pack(row >> BUCKET_SHIFT, col >> BUCKET_SHIFT);
+        int index = indexOfBucket.get(key);
+        Bucket bucket = buckets[index];
+        bucket.remove(obj);
+        if ( bucket.count == 0 )
+        {
+            // Discard the empty bucket, moving the last bucket in the
+            // dense array into its position.
+            indexOfBucket.remove(key);
+            int last = --bucketCount;
+            if ( index != last )
+            {
+                Bucket moved = buckets[last];
+                buckets[index] = moved;
+                indexOfBucket.put(Location.pack(moved.bucketRow,
+                                                moved.bucketCol), index);
+            }
+            buckets[last] = null;
+        }
+    }
+
+    /** Records that an object has moved.  Moves within a bucket do not
+     *  change the index.
+     *  @param obj  the object
+     *  @param from the object's previous location
+     *  @param to   the object's new location
+     **/
+    void move(GridObject obj, Location from, Location to)
+    {
+        if ( (from.row() >> BUCKET_SHIFT) == (to.row() >> BUCKET_SHIFT) &&
+             (from.col() >> BUCKET_SHIFT) == (to.col() >> BUCKET_SHIFT) )
+            return;
+
+        add(obj, to.row(), to.col());
+        remove(obj, from.row(), from.col());
+    }
+
+    /** Forgets all objects.
+     **/
+    void clear()
+    {
+        indexOfBucket.clear();
+        Arrays.fill(buckets, 0, bucketCount, null);
+        bucketCount = 0;
+    }
+
+
+  // accessor methods
+
+    /** Performs the given action for each object in the given rectangle
+     *  of cells (inclusive).  Looks only at the buckets overlapping the
+     *  rectangle or, if the rectangle overlaps more potential buckets
+     *  than there are non-empty buckets, at each non-empty bucket.
+     *  @param minRow  top row of the rectangle
+     *  @param minCol  leftmost column of the rectangle
+     *  @param maxRow  bottom row of the rectangle
+     *  @param maxCol  rightmost column of the rectangle
+     *  @param action  the action to perform on each object
+     **/
+    void forEachInRect(int minRow, int minCol, int maxRow, int maxCol,
+                       Consumer<? super GridObject> action)
+    {
+        if ( minRow > maxRow || minCol > maxCol )
+            return;
+
+        int minBucketRow = minRow >> BUCKET_SHIFT;
+        int maxBucketRow = maxRow >> BUCKET_SHIFT;
+        int minBucketCol = minCol >> BUCKET_SHIFT;
+        int maxBucketCol = maxCol >> BUCKET_SHIFT;
+        long bucketsInRect = ((long) maxBucketRow - minBucketRow + 1) *
+                             ((long) maxBucketCol - minBucketCol + 1);
+        if ( bucketsInRect <= bucketCount )
+        {
+            for ( int br = minBucketRow; br <= maxBucketRow; br++ )
+                for ( int bc = minBucketCol; bc <= maxBucketCol; bc++ )
+                {
+                    int index = indexOfBucket.get(Location.pack(br, bc));
+                    if ( index != LongIntHashMap.NO_VALUE )
+                        buckets[index].forEachInRect(minRow, minCol,
+                                                     maxRow, maxCol, action);
+                }
+        }
+        else
+        {
+            for ( int i = 0; i < bucketCount; i++ )
+            {
+                Bucket bucket = buckets[i];
+                if ( minBucketRow <= bucket.bucketRow &&
+                     bucket.bucketRow <= maxBucketRow &&
+                     minBucketCol <= bucket.bucketCol &&
+                     bucket.bucketCol <= maxBucketCol )
+                    bucket.forEachInRect(minRow, minCol, maxRow, maxCol,
+                                         action);
+            }
+        }
+    }
+
+
+    /** A <code>Bucket</code> holds the objects in one square area.
+     **/
+    private static class Bucket
+    {
+        private final int bucketRow;
+        private final int bucketCol;
+        private GridObject[] objects = new GridObject[4];
+        private int count = 0;
+
+        Bucket(int bucketRow, int bucketCol)
+        {
+            this.bucketRow = bucketRow;
+            this.bucketCol = bucketCol;
+        }
+
+        void add(GridObject obj)
+        {
+            if ( count == objects.length )
+                objects = Arrays.copyOf(objects, count * 2);
+            objects[count++] = obj;
+        }
+
+        void remove(GridObject obj)
+        {
+            for ( int i = 0; i < count; i++ )
+                if ( objects[i] == obj )
+                {
+                    objects[i] = objects[--count];
+                    objects[count] = null;
+                    return;
+                }
+        }
+
+        void forEachInRect(int minRow, int minCol, int maxRow, int maxCol,
+                           Consumer<? super GridObject> action)
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                Location loc = objects[i].location();
+                if ( minRow <= loc.row() && loc.row() <= maxRow &&
+                     minCol <= loc.col() && loc.col() <= maxCol )
+                    action.accept(objects[i]);
+            }
+        }
+    }
+
+}
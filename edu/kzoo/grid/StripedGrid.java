@@ -0,0 +1,695 @@
+// Class: StripedGrid
+//
+// Author: Alyce Brady
+//
+// License Information:
+//   This class is free software; you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation.
+//
+//   This class is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+
+package edu.kzoo.grid;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ *  Grid Container Package:<br>
+ *
+ *  A <code>StripedGrid</code> is a rectangular, bounded two-dimensional
+ *  container data structure that can be modified by several threads at
+ *  once.  The grid is divided into horizontal stripes of rows, each with
+ *  its own lock and its own list of occupied cells, so objects in
+ *  different stripes can be added, removed, and moved in parallel (for
+ *  example, when the <code>act</code> methods of the objects in a large
+ *  grid run on several threads).  A move between two stripes locks both
+ *  of them, always in top-to-bottom order, so two moves in opposite
+ *  directions cannot deadlock.  Operations on the whole grid, such as
+ *  <code>numObjects</code>, <code>allObjects</code>, and
+ *  <code>removeAll</code>, lock every stripe.
+ *
+ *  <p>
+ *  A <code>StripedGrid</code> is always in read/write locking mode (see
+ *  <code>Grid.useReadWriteLocking</code>): <code>objectAt</code> and
+ *  <code>isEmpty</code> read without locking unless the stripe being
+ *  read is modified at the same moment.
+ *
+ *  <p>
+ *  Like a <code>BoundedGrid</code>, a <code>StripedGrid</code> keeps its
+ *  cells in a single array in row-major order, which gives it the
+ *  following time and space characteristics:
+ *  <table align="center">
+ *  <tr><td>numObjects</td><td width="5"><td><i>O</i>(<code>s</code>)</td></tr>
+ *  <tr><td>allObjects</td><td></td><td><i>O</i>(<code>n + s</code>)</td></tr>
+ *  <tr><td>isValid, isEmpty, objectAt</td><td></td><td><i>O</i>(<code>1</code>)</td></tr>
+ *  <tr><td>add</td><td></td><td><i>O</i>(<code>1</code>)</td></tr>
+ *  <tr><td>remove</td><td></td><td><i>O</i>(<code>1</code>)</td></tr>
+ *  <tr><td>objectsInRect</td><td></td><td><i>O</i>(min(<code>a</code>, <code>n</code>))</td></tr>
+ *  <tr><td>space</td><td></td><td><i>O</i>(<code>r * c</code>)</td></tr>
+ *  </table>
+ *  where <code>r</code> is the number of rows, <code>c</code> is the
+ *  number of columns, <code>s</code> is the number of stripes,
+ *  <code>n</code> is the number of objects in the grid, and
+ *  <code>a</code> is the area of the query rectangle within the grid.
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ *  @see BoundedGrid
+ **/
+
+public class StripedGrid extends Grid
+{
+    /** Number of rows in each stripe if none is specified. **/
+    public static final int DEFAULT_ROWS_PER_STRIPE = 16;
+
+  // instance variables: encapsulated data for each StripedGrid object
+    private int numRows;
+    private int numCols;
+
+  // constructors
+
+    /** Constructs an empty StripedGrid object with the given dimensions
+     *  and stripes of <code>DEFAULT_ROWS_PER_STRIPE</code> rows.
+     *  A cell's neighbors include only the cells to its north, south,
+     *  east, and west, not the cells on the diagonals.
+     *  (Precondition: <code>rows > 0</code> and <code>cols > 0</code>.)
+     *  @param rows        number of rows in StripedGrid
+     *  @param cols        number of columns in StripedGrid
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public StripedGrid(int rows, int cols)
+    {
+        // Construct and initialize inherited attributes.
+        this(false, rows, cols, DEFAULT_ROWS_PER_STRIPE);
+    }
+
+    /** Constructs an empty StripedGrid object with the given dimensions,
+     *  divided into stripes of the given number of rows.
+     *  Each cell in this grid will have at most four or eight
+     *  adjacent neighbors, depending on the value of the
+     *  <code>includeDiagonalNeighbors</code> parameter.  Cells along
+     *  the grid boundaries will have fewer than the maximum four or
+     *  eight neighbors.
+     *  Stripes should be at least as tall as the distance an object
+     *  moves in one step, so that most moves stay within one stripe.
+     *  (Precondition: <code>rows > 0</code>, <code>cols > 0</code>, and
+     *  <code>rowsPerStripe > 0</code>.)
+     *  @param includeDiagonalNeighbors  whether to include the four
+     *                                   diagonal locations as neighbors
+     *  @param rows           number of rows in StripedGrid
+     *  @param cols           number of columns in StripedGrid
+     *  @param rowsPerStripe  number of rows locked together
+     *  @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public StripedGrid(boolean includeDiagonalNeighbors, int rows, int cols,
+                       int rowsPerStripe)
+    {
+        // Construct and initialize inherited attributes.
+        super(new StripedGridRep(rows, cols, rowsPerStripe),
+              includeDiagonalNeighbors,
+              new StripedGridLock(rows, rowsPerStripe));
+        this.numRows = rows;
+        this.numCols = cols;
+    }
+
+  // accessor methods dealing with grid dimensions
+
+    /** Returns number of rows in this grid.
+     *  @return   the number of rows in this grid
+     **/
+    public int numRows()
+    {
+        return numRows;
+    }
+
+    /** Returns number of columns in this grid.
+     *  @return   the number of columns in this grid
+     **/
+    public int numCols()
+    {
+        return numCols;
+    }
+
+    /** Returns the number of stripes into which this grid is divided.
+     *  @return   the number of separately locked stripes
+     **/
+    public int numStripes()
+    {
+        return ((StripedGridRep) internalRep).numStripes();
+    }
+
+
+  // internal striped representation
+
+    /** The <code>StripedGridRep</code> class represents an internal
+     *  bounded grid using a single array of cells in row-major order,
+     *  as <code>BoundedGrid.Array2DGridRep</code> does, but with a
+     *  separate registry of occupied cells for each stripe of rows.  A
+     *  thread holding the lock for a stripe may therefore add or remove
+     *  objects in that stripe while other threads do the same in other
+     *  stripes.
+     **/
+    protected static class StripedGridRep implements Grid.InternalRepresentation
+    {
+      // instance variables: encapsulated data for each StripedGridRep object
+        private final int numRows;
+        private final int numCols;
+        private final int rowsPerStripe;
+        private final GridObject[] theGrid; // cells, in row-major order
+        private final int[] registryIndex;  // position of each cell in
+                                            //   its stripe's registry
+        private final Stripe[] stripes;
+
+      // constructors
+
+        /** Constructs an empty StripedGridRep representation with the
+         *  given dimensions.
+         *  (Precondition: <code>rows > 0</code>, <code>cols > 0</code>,
+         *  and <code>rowsPerStripe > 0</code>.)
+         *  @param rows           number of rows in the grid
+         *  @param cols           number of columns in the grid
+         *  @param rowsPerStripe  number of rows in each stripe
+         **/
+        public StripedGridRep(int rows, int cols, int rowsPerStripe)
+        {
+            // Verify precondition.
+            if ( rows <= 0 || cols <= 0 || rowsPerStripe <= 0 ||
+                 (long) rows * cols > Integer.MAX_VALUE )
+                throw new IllegalArgumentException();
+
+            numRows = rows;
+            numCols = cols;
+            this.rowsPerStripe = rowsPerStripe;
+            theGrid = new GridObject[rows * cols];
+            registryIndex = new int[rows * cols];
+            stripes = new Stripe[(rows + rowsPerStripe - 1) / rowsPerStripe];
+            for ( int i = 0; i < stripes.length; i++ )
+                stripes[i] = new Stripe();
+        }
+
+
+      // accessor methods
+
+        /** Returns the number of stripes in this grid.
+         *  @return   the number of stripes
+         **/
+        public int numStripes()
+        {
+            return stripes.length;
+        }
+
+        /** Verifies whether a location is valid in this grid.
+         *  @param  loc    location to check
+         *  @return <code>true</code> if <code>loc</code> is valid;
+         *          <code>false</code> otherwise
+         **/
+        public boolean isValid(Location loc)
+        {
+            if ( loc == null )
+                return false;
+
+            return isValid(loc.row(), loc.col());
+        }
+
+        /** Verifies whether the location at the given row and column is
+         *  valid in this grid.
+         *  @param  row    row of the location to check
+         *  @param  col    column of the location to check
+         *  @return <code>true</code> if (<code>row</code>, <code>col</code>)
+         *          is valid; <code>false</code> otherwise
+         **/
+        public boolean isValid(int row, int col)
+        {
+            return (0 <= row && row < numRows) &&
+                   (0 <= col && col < numCols);
+        }
+
+        /** Returns the number of objects in this grid.
+         *  @return   the number of objects
+         **/
+        public int numObjects()
+        {
+            int count = 0;
+            for ( int i = 0; i < stripes.length; i++ )
+                count += stripes[i].objectCount;
+            return count;
+        }
+
+        /** Returns all the objects in this grid.
+         *  @return    an array of all the grid objects
+         **/
+        public GridObject[] allObjects()
+        {
+            GridObject[] theObjects = new GridObject[numObjects()];
+            int next = 0;
+            for ( int i = 0; i < stripes.length; i++ )
+            {
+                Stripe stripe = stripes[i];
+                for ( int j = 0; j < stripe.objectCount; j++ )
+                    theObjects[next++] = theGrid[stripe.occupiedCells[j]];
+            }
+            return theObjects;
+        }
+
+        /** Performs the given action for each object in this grid,
+         *  visiting the objects in place rather than copying them.
+         *  (Precondition: <code>action</code> does not modify the grid.)
+         *  @param action  the action to perform on each object
+         **/
+        public void forEachObject(Consumer<? super GridObject> action)
+        {
+            for ( int i = 0; i < stripes.length; i++ )
+            {
+                Stripe stripe = stripes[i];
+                for ( int j = 0; j < stripe.objectCount; j++ )
+                    action.accept(theGrid[stripe.occupiedCells[j]]);
+            }
+        }
+
+        /** Returns the object at a specific location in this grid.
+         *  @param loc    the location in which to look
+         *  @return       the object at location <code>loc</code>;
+         *                <code>null</code> if <code>loc</code> is not
+         *                in the grid or is empty
+         **/
+        public GridObject objectAt(Location loc)
+        {
+            if ( loc == null )
+                return null;
+
+            return objectAt(loc.row(), loc.col());
+        }
+
+        /** Returns the object at the given row and column in this grid.
+         *  @param row    the row in which to look
+         *  @param col    the column in which to look
+         *  @return       the object at (<code>row</code>, <code>col</code>);
+         *                <code>null</code> if that location is not
+         *                in the grid or is empty
+         **/
+        public GridObject objectAt(int row, int col)
+        {
+            if ( ! isValid(row, col) )
+                return null;
+
+            return theGrid[row * numCols + col];
+        }
+
+        /** Performs the given action for each object in the given
+         *  rectangle of locations.  Only the stripes that overlap the
+         *  rectangle are examined; each of them is scanned by row slices
+         *  or, if it has fewer objects than its part of the rectangle has
+         *  cells, through its registry.
+         *  (Precondition: <code>action</code> does not modify the grid.)
+         *  @param minRow  top row of the rectangle
+         *  @param minCol  leftmost column of the rectangle
+         *  @param maxRow  bottom row of the rectangle
+         *  @param maxCol  rightmost column of the rectangle
+         *  @param action  the action to perform on each object
+         **/
+        public void forEachInRect(int minRow, int minCol,
+                                  int maxRow, int maxCol,
+                                  Consumer<? super GridObject> action)
+        {
+            // Clip the rectangle to the grid.
+            minRow = Math.max(minRow, 0);
+            minCol = Math.max(minCol, 0);
+            maxRow = Math.min(maxRow, numRows - 1);
+            maxCol = Math.min(maxCol, numCols - 1);
+            if ( minRow > maxRow || minCol > maxCol )
+                return;
+
+            int width = maxCol - minCol + 1;
+            for ( int s = minRow / rowsPerStripe; s <= maxRow / rowsPerStripe;
+                  s++ )
+            {
+                int firstRow = Math.max(minRow, s * rowsPerStripe);
+                int lastRow = Math.min(maxRow, (s + 1) * rowsPerStripe - 1);
+                Stripe stripe = stripes[s];
+                if ( (lastRow - firstRow + 1) * width > stripe.objectCount )
+                {
+                    for ( int j = 0; j < stripe.objectCount; j++ )
+                    {
+                        int cell = stripe.occupiedCells[j];
+                        int row = cell / numCols;
+                        int col = cell - row * numCols;
+                        if ( firstRow <= row && row <= lastRow &&
+                             minCol <= col && col <= maxCol )
+                            action.accept(theGrid[cell]);
+                    }
+                }
+                else
+                {
+                    for ( int row = firstRow; row <= lastRow; row++ )
+                    {
+                        int end = row * numCols + maxCol;
+                        for ( int cell = row * numCols + minCol; cell <= end;
+                              cell++ )
+                            if ( theGrid[cell] != null )
+                                action.accept(theGrid[cell]);
+                    }
+                }
+            }
+        }
+
+
+      // modifier methods
+
+        /** Adds a new object to this internal grid representation at the
+         *  location it specifies.
+         *  (Precondition: <code>obj.grid()</code> is this grid,
+         *   <code>obj.location()</code> is a valid empty location, and
+         *   the caller holds the write lock for its stripe;
+         *   verified by the <code>Grid</code> object.)
+         *  @param obj the new object to be added
+         **/
+        public void add(GridObject obj)
+        {
+            Location loc = obj.location();
+            int cell = loc.row() * numCols + loc.col();
+            theGrid[cell] = obj;
+            stripes[loc.row() / rowsPerStripe].register(cell, registryIndex);
+        }
+
+        /** Removes the object from this internal grid representation.
+         *  (Precondition: <code>obj</code> is in this grid and the caller
+         *   holds the write lock for its stripe; verified by the
+         *   <code>Grid</code> object.)
+         *  @param obj     the object to be removed
+         **/
+        public void remove(GridObject obj)
+        {
+            Location loc = obj.location();
+            int cell = loc.row() * numCols + loc.col();
+            theGrid[cell] = null;
+            stripes[loc.row() / rowsPerStripe].unregister(cell, registryIndex);
+        }
+
+        /** Removes all objects from this internal grid representation,
+         *  clearing only the occupied cells listed in the registries.
+         *  (Precondition: the caller holds the write locks for every
+         *   stripe.)
+         **/
+        public void clear()
+        {
+            for ( int i = 0; i < stripes.length; i++ )
+            {
+                Stripe stripe = stripes[i];
+                for ( int j = 0; j < stripe.objectCount; j++ )
+                    theGrid[stripe.occupiedCells[j]] = null;
+                stripe.objectCount = 0;
+            }
+        }
+
+        /** Moves an object from one location in this internal grid
+         *  representation to another.  Within a stripe, the object keeps
+         *  its place in the stripe's registry.
+         *  (Precondition: <code>obj</code> is at <code>from</code>,
+         *   <code>to</code> is a valid empty location,
+         *   <code>obj.location()</code> is <code>to</code>, and the caller
+         *   holds the write locks for both stripes; verified by the
+         *   <code>Grid</code> object.)
+         *  @param obj     the object to be moved
+         *  @param from    the object's previous location
+         *  @param to      the object's new location
+         **/
+        public void move(GridObject obj, Location from, Location to)
+        {
+            int fromCell = from.row() * numCols + from.col();
+            int toCell = to.row() * numCols + to.col();
+            theGrid[toCell] = obj;
+            theGrid[fromCell] = null;
+
+            Stripe fromStripe = stripes[from.row() / rowsPerStripe];
+            Stripe toStripe = stripes[to.row() / rowsPerStripe];
+            if ( fromStripe == toStripe )
+            {
+                int index = registryIndex[fromCell];
+                fromStripe.occupiedCells[index] = toCell;
+                registryIndex[toCell] = index;
+            }
+            else
+            {
+                fromStripe.unregister(fromCell, registryIndex);
+                toStripe.register(toCell, registryIndex);
+            }
+        }
+
+
+        /** A <code>Stripe</code> keeps the registry of occupied cells in
+         *  one stripe of rows.
+         **/
+        private static class Stripe
+        {
+            private int[] occupiedCells = new int[16];
+            private int objectCount = 0;
+
+            /** Records a newly occupied cell in this stripe's registry.
+             **/
+            void register(int cell, int[] registryIndex)
+            {
+                if ( objectCount == occupiedCells.length )
+                    occupiedCells = Arrays.copyOf(occupiedCells,
+                                                  objectCount * 2);
+                occupiedCells[objectCount] = cell;
+                registryIndex[cell] = objectCount;
+                objectCount++;
+            }
+
+            /** Removes a cell from this stripe's registry, filling its
+             *  place with the last entry.
+             **/
+            void unregister(int cell, int[] registryIndex)
+            {
+                int index = registryIndex[cell];
+                int lastCell = occupiedCells[--objectCount];
+                occupiedCells[index] = lastCell;
+                registryIndex[lastCell] = index;
+            }
+        }
+    }
+
+
+  // striped lock
+
+    /** A <code>StripedGridLock</code> guards each stripe of rows of a
+     *  grid with its own <code>StampedLock</code>.  Locks on several
+     *  stripes are always acquired in increasing stripe order.  Since
+     *  <code>StampedLock</code> is not reentrant, the lock keeps track of
+     *  the thread holding each stripe for writing, and of threads holding
+     *  the whole grid for reading, so that nested calls do not deadlock.
+     **/
+    protected static class StripedGridLock implements Grid.GridLock
+    {
+        private final int rowsPerStripe;
+        private final StampedLock[] stripes;
+        private final Thread[] writers;     // thread writing each stripe
+        private final int[] writeDepths;    // nesting of writer's locks
+        private final long[] writeStamps;
+        private final ThreadLocal<int[]> wholeReadDepth =
+                new ThreadLocal<int[]>() {
+                    protected int[] initialValue()
+                    {
+                        return new int[1];
+                    }};
+
+        /** Constructs a lock for a grid with the given number of rows,
+         *  divided into stripes of <code>rowsPerStripe</code> rows.
+         *  (Precondition: <code>rows > 0</code> and
+         *  <code>rowsPerStripe > 0</code>.)
+         *  @param rows           number of rows in the grid
+         *  @param rowsPerStripe  number of rows in each stripe
+         **/
+        public StripedGridLock(int rows, int rowsPerStripe)
+        {
+            if ( rows <= 0 || rowsPerStripe <= 0 )
+                throw new IllegalArgumentException();
+
+            this.rowsPerStripe = rowsPerStripe;
+            int numStripes = (rows + rowsPerStripe - 1) / rowsPerStripe;
+            stripes = new StampedLock[numStripes];
+            for ( int i = 0; i < numStripes; i++ )
+                stripes[i] = new StampedLock();
+            writers = new Thread[numStripes];
+            writeDepths = new int[numStripes];
+            writeStamps = new long[numStripes];
+        }
+
+        /** Returns the stripe containing the given row.  Rows outside the
+         *  grid belong to the nearest stripe.
+         **/
+        private int stripeOf(int row)
+        {
+            if ( row < 0 )
+                return 0;
+            return Math.min(row / rowsPerStripe, stripes.length - 1);
+        }
+
+        public long tryOptimisticRead(int row, int col)
+        {
+            return stripes[stripeOf(row)].tryOptimisticRead();
+        }
+
+        public boolean validate(int row, int col, long stamp)
+        {
+            return stripes[stripeOf(row)].validate(stamp);
+        }
+
+        public void readLock(int row, int col)
+        {
+            readStripe(stripeOf(row));
+        }
+
+        public void unlockRead(int row, int col)
+        {
+            unlockReadStripe(stripeOf(row));
+        }
+
+        public void writeLock(int row, int col)
+        {
+            writeStripe(stripeOf(row));
+        }
+
+        public void unlockWrite(int row, int col)
+        {
+            unlockWriteStripe(stripeOf(row));
+        }
+
+        public void writeLock(int row1, int col1, int row2, int col2)
+        {
+            int first = Math.min(stripeOf(row1), stripeOf(row2));
+            int second = Math.max(stripeOf(row1), stripeOf(row2));
+            writeStripe(first);
+            if ( second != first )
+            {
+                try
+                {
+                    writeStripe(second);
+                }
+                catch (RuntimeException e)
+                {
+                    unlockWriteStripe(first);
+                    throw e;
+                }
+            }
+        }
+
+        public void unlockWrite(int row1, int col1, int row2, int col2)
+        {
+            int first = Math.min(stripeOf(row1), stripeOf(row2));
+            int second = Math.max(stripeOf(row1), stripeOf(row2));
+            if ( second != first )
+                unlockWriteStripe(second);
+            unlockWriteStripe(first);
+        }
+
+        public void readLockAll()
+        {
+            for ( int i = 0; i < stripes.length; i++ )
+                readStripe(i);
+            wholeReadDepth.get()[0]++;
+        }
+
+        public void unlockReadAll()
+        {
+            wholeReadDepth.get()[0]--;
+            for ( int i = stripes.length - 1; i >= 0; i-- )
+                unlockReadStripe(i);
+        }
+
+        public void writeLockAll()
+        {
+            int locked = 0;
+            try
+            {
+                for ( ; locked < stripes.length; locked++ )
+                    writeStripe(locked);
+            }
+            catch (RuntimeException e)
+            {
+                while ( locked > 0 )
+                    unlockWriteStripe(--locked);
+                throw e;
+            }
+        }
+
+        public void unlockWriteAll()
+        {
+            for ( int i = stripes.length - 1; i >= 0; i-- )
+                unlockWriteStripe(i);
+        }
+
+        public boolean holdsWriteLockAll()
+        {
+            Thread current = Thread.currentThread();
+            for ( int i = 0; i < stripes.length; i++ )
+                if ( writers[i] != current )
+                    return false;
+            return true;
+        }
+
+        /** Acquires read access to a stripe.  The thread writing a
+         *  stripe may also read it.
+         **/
+        private void readStripe(int stripe)
+        {
+            if ( writers[stripe] == Thread.currentThread() )
+                writeDepths[stripe]++;
+            else
+                stripes[stripe].readLock();
+        }
+
+        /** Releases read access to a stripe.
+         **/
+        private void unlockReadStripe(int stripe)
+        {
+            if ( writers[stripe] == Thread.currentThread() )
+                writeDepths[stripe]--;
+            else
+                stripes[stripe].tryUnlockRead();
+        }
+
+        /** Acquires write access to a stripe.
+         **/
+        private void writeStripe(int stripe)
+        {
+            Thread current = Thread.currentThread();
+            if ( writers[stripe] == current )
+            {
+                writeDepths[stripe]++;
+                return;
+            }
+
+            long stamp = stripes[stripe].tryWriteLock();
+            if ( stamp == 0 )
+            {
+                // A thread cannot upgrade its own read lock, so a write
+                // from within a pass over the grid would wait forever.
+                if ( wholeReadDepth.get()[0] > 0 )
+                    throw new ConcurrentModificationException();
+                stamp = stripes[stripe].writeLock();
+            }
+            writers[stripe] = current;
+            writeDepths[stripe] = 1;
+            writeStamps[stripe] = stamp;
+        }
+
+        /** Releases write access to a stripe.
+         **/
+        private void unlockWriteStripe(int stripe)
+        {
+            if ( --writeDepths[stripe] == 0 )
+            {
+                writers[stripe] = null;
+                stripes[stripe].unlockWrite(writeStamps[stripe]);
+            }
+        }
+    }
+
+}
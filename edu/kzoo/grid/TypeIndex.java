@@ -0,0 +1,165 @@
+// Class: TypeIndex
+//
+// Author: Alyce Brady
+//
+// License Information:
+//   This class is free software; you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation.
+//
+//   This class is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+
+package edu.kzoo.grid;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ *  Grid Container Package:<br>
+ *
+ *  A <code>TypeIndex</code> keeps the objects in a grid grouped by
+ *  their concrete classes, so that the objects of a given type can be
+ *  found without looking at every object in the grid.  A query for a
+ *  type (a class or an interface) looks at the groups for every concrete
+ *  class that is a subtype of it; the list of those groups is worked
+ *  out once per queried type and kept until an object of a new concrete
+ *  class is added.
+ *
+ *  <p>
+ *  A type index is maintained by its grid as objects are added and
+ *  removed (see <code>Grid.useTypeIndex</code>).  Its methods are
+ *  synchronized, since a grid with striped locking may add and remove
+ *  objects on several threads at once.
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ **/
+class TypeIndex
+{
+    // Objects in the grid, grouped by concrete class.
+    private final Map<Class<?>, Set<GridObject>> objectsOfClass =
+                            new HashMap<Class<?>, Set<GridObject>>();
+
+    // Groups of objects whose classes are subtypes of each queried type.
+    private final Map<Class<?>, List<Set<GridObject>>> groupsForType =
+                            new HashMap<Class<?>, List<Set<GridObject>>>();
+
+  // modifier methods
+
+    /** Records an object that has been added to the grid.
+     *  @param obj  the object added
+     **/
+    synchronized void add(GridObject obj)
+    {
+        Class<?> cls = obj.getClass();
+        Set<GridObject> group = objectsOfClass.get(cls);
+        if ( group == null )
+        {
+            group = Collections.newSetFromMap(
+                            new IdentityHashMap<GridObject, Boolean>());
+            objectsOfClass.put(cls, group);
+
+            // Queries for supertypes of the new class must now include it.
+            groupsForType.clear();
+        }
+        group.add(obj);
+    }
+
+    /** Forgets an object that has been removed from the grid.
+     *  @param obj  the object removed
+     **/
+    synchronized void remove(GridObject obj)
+    {
+        Set<GridObject> group = objectsOfClass.get(obj.getClass());
+        if ( group != null )
+            group.remove(obj);
+    }
+
+    /** Forgets all objects.
+     **/
+    synchronized void clear()
+    {
+        for ( Set<GridObject> group : objectsOfClass.values() )
+            group.clear();
+    }
+
+
+  // accessor methods
+
+    /** Returns the number of objects of the given type.
+     *  @param type  the class or interface of the objects to count
+     *  @return      the number of objects that are instances of
+     *               <code>type</code>
+     **/
+    synchronized int count(Class<?> type)
+    {
+        int count = 0;
+        for ( Set<GridObject> group : groupsFor(type) )
+            count += group.size();
+        return count;
+    }
+
+    /** Returns the objects of the given type.
+     *  @param type  the class or interface of the objects to return
+     *  @return      a list of the objects that are instances of
+     *               <code>type</code>
+     **/
+    synchronized <T> List<T> objectsOf(Class<T> type)
+    {
+        List<Set<GridObject>> groups = groupsFor(type);
+        int count = 0;
+        for ( Set<GridObject> group : groups )
+            count += group.size();
+
+        List<T> theObjects = new ArrayList<T>(count);
+        for ( Set<GridObject> group : groups )
+            for ( GridObject obj : group )
+                theObjects.add(type.cast(obj));
+        return theObjects;
+    }
+
+    /** Performs the given action for each object of the given type.
+     *  (Precondition: <code>action</code> does not add objects to or
+     *  remove objects from the grid.)
+     *  @param type    the class or interface of the objects to visit
+     *  @param action  the action to perform on each object
+     **/
+    synchronized <T> void forEach(Class<T> type, Consumer<? super T> action)
+    {
+        for ( Set<GridObject> group : groupsFor(type) )
+            for ( GridObject obj : group )
+                action.accept(type.cast(obj));
+    }
+
+
+  // internal helper method
+
+    /** Returns the groups of objects whose concrete classes are subtypes
+     *  of the given type, working them out if this type has not been
+     *  queried since the last new class was added.
+     **/
+    private List<Set<GridObject>> groupsFor(Class<?> type)
+    {
+        List<Set<GridObject>> groups = groupsForType.get(type);
+        if ( groups == null )
+        {
+            groups = new ArrayList<Set<GridObject>>();
+            for ( Map.Entry<Class<?>, Set<GridObject>> entry
+                                            : objectsOfClass.entrySet() )
+                if ( type.isAssignableFrom(entry.getKey()) )
+                    groups.add(entry.getValue());
+            groupsForType.put(type, groups);
+        }
+        return groups;
+    }
+
+}
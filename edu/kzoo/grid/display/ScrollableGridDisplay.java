@@ -94,6 +94,7 @@ public class ScrollableGridDisplay extends JPanel
     protected boolean toolTipsSetEnabledFlag;   // whether tool tips should be enabled
     protected boolean toolTipsEnabledFlag;      // whether tool tips are currently enabled
     protected int toolTipsType = OBJECT_STRING_TOOL_TIPS;
+    protected boolean repaintChangesOnly = false; // whether showGrid repaints only changed cells
 
 
     /** Constructs a new ScrollableGridDisplay object with no grid
@@ -260,6 +261,14 @@ public class ScrollableGridDisplay extends JPanel
         else
             numCols = theGrid.numCols();
 
+        if ( repaintChangesOnly )
+        {
+            // Changes made before this display was given the grid are
+            // covered by the full repaint that follows.
+            theGrid.useDirtyTracking();
+            theGrid.drainDirty();
+        }
+
         recalculateCellSize();
     }
 
@@ -376,9 +385,53 @@ public class ScrollableGridDisplay extends JPanel
      **/
     public void showGrid()
     {
+        if ( repaintChangesOnly && grid() != null && grid().usesDirtyTracking() )
+        {
+            // Repaint only the cells that have changed since the grid
+            // was last shown.
+            int cellSize = innerCellSize();
+            long[] changed = grid().drainDirty();
+            for ( int i = 0; i < changed.length; i++ )
+                repaint(colToXCoord(Location.unpackCol(changed[i])),
+                        rowToYCoord(Location.unpackRow(changed[i])),
+                        cellSize, cellSize);
+        }
+        else
+            repaint();
+    }
+
+    /** Specifies whether <code>showGrid</code> should repaint only the
+     *  cells whose contents have changed since the grid was last shown,
+     *  rather than the whole grid.  When this is turned on, the display
+     *  turns on the grid's change tracking (see
+     *  <code>Grid.useDirtyTracking</code>) and becomes the consumer of
+     *  the grid's record of changed cells, so nothing else should call
+     *  the grid's <code>drainDirty</code> method.  The display is still
+     *  repainted completely when it is resized, scrolled, or given a new
+     *  grid.
+     *  @param flag whether to repaint only changed cells
+     **/
+    public void setRepaintChangesOnly(boolean flag)
+    {
+        repaintChangesOnly = flag;
+        if ( flag && grid() != null )
+        {
+            grid().useDirtyTracking();
+            grid().drainDirty();
+        }
         repaint();
     }
 
+    /** Indicates whether <code>showGrid</code> repaints only the cells
+     *  that have changed.
+     *  @return <code>true</code> if only changed cells are repainted;
+     *          <code>false</code> otherwise
+     **/
+    public boolean repaintsChangesOnly()
+    {
+        return repaintChangesOnly;
+    }
+
     /** Updates the display of just a single location on the grid.
      *  Does not redraw the gridlines.
      **/
@@ -428,9 +481,32 @@ public class ScrollableGridDisplay extends JPanel
         
         backgroundDisplay.drawBackground(g2);
 
-        GridObject[] allGridObjects = grid().allObjects();
-        for (int k = 0; k < allGridObjects.length; k++) 
-            drawGridObject(g2, allGridObjects[k]);
+        // When only part of the display is being repainted (such as the
+        // changed cells), draw just the objects in that part of the grid.
+        // Otherwise draw from the grid's snapshot iterator, which only
+        // copies the grid's contents when they have changed since the
+        // last frame.
+        Rectangle clip = g2.getClipBounds();
+        boolean drawnInPart = false;
+        if ( clip != null && outerCellSize > 0 )
+        {
+            int minRow = yCoordToRow(clip.y);
+            int minCol = xCoordToCol(clip.x);
+            int maxRow = yCoordToRow(clip.y + clip.height - 1);
+            int maxCol = xCoordToCol(clip.x + clip.width - 1);
+            if ( (long) (maxRow - minRow + 1) * (maxCol - minCol + 1)
+                                            < (long) numRows * numCols )
+            {
+                GridObject[] objects =
+                        grid().objectsInRect(minRow, minCol, maxRow, maxCol);
+                for ( int i = 0; i < objects.length; i++ )
+                    drawGridObject(g2, objects[i]);
+                drawnInPart = true;
+            }
+        }
+        if ( ! drawnInPart )
+            for (GridObject obj : grid())
+                drawGridObject(g2, obj);
 
         if ( gridLinesAreVisible() )
             drawGridlines(g2);
@@ -35,12 +35,13 @@ public class ActiveGridAppController extends SteppedGridAppController
      **/
     public void step()
     {
-        // Get all the objects in the grid and ask each
-        // one to perform the actions it does in a timestep.
-        GridObject[] theObjects = getGrid().allObjects();
-        for ( int index = 0; index < theObjects.length; index++ )
+        // Ask each of the objects in the grid at the start of the step
+        // to perform the actions it does in a timestep.  The grid's
+        // iterator works from a snapshot, so objects may move, be
+        // added, or be removed while others are acting.
+        for ( GridObject obj : getGrid() )
         {
-            theObjects[index].act();
+            obj.act();
         }
     }
 
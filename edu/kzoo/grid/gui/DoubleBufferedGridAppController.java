@@ -0,0 +1,59 @@
+// Class DoubleBufferedGridAppController
+//
+// Author: Alyce Brady
+//
+// License Information:
+//   This class is free software; you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation.
+//
+//   This class is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+
+package edu.kzoo.grid.gui;
+
+import edu.kzoo.grid.DoubleBufferedGrid;
+import edu.kzoo.grid.Grid;
+
+/**
+ *  Grid GUI Support Package:<br>
+ *
+ *  A <code>DoubleBufferedGridAppController</code> controls the running of
+ *  a grid application, such as a cellular automaton, in which each step
+ *  computes a new generation of the grid from the previous one.  The
+ *  application's grid should be a <code>DoubleBufferedGrid</code>.  In
+ *  each step, the controller asks its subclass to build the next
+ *  generation from the current one and then swaps the two generations.
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ **/
+public abstract class DoubleBufferedGridAppController
+    extends SteppedGridAppController
+{
+    /** Advances the application one generation.
+     *  @throws IllegalStateException if the application's grid is not a
+     *          <code>DoubleBufferedGrid</code>
+     **/
+    public void step()
+    {
+        if ( ! (getGrid() instanceof DoubleBufferedGrid) )
+            throw new IllegalStateException("The grid is not a " +
+                                            "DoubleBufferedGrid");
+
+        DoubleBufferedGrid grid = (DoubleBufferedGrid) getGrid();
+        computeNextGeneration(grid, grid.next());
+        grid.swap();
+    }
+
+    /** Builds the next generation of the grid by adding objects to
+     *  <code>next</code>, based on the contents of <code>current</code>.
+     *  <code>next</code> is empty when this method is called.
+     *    @param current  the current generation (read-only)
+     *    @param next     the grid in which to build the next generation
+     **/
+    protected abstract void computeNextGeneration(Grid current, Grid next);
+
+}
@@ -0,0 +1,247 @@
+// Class ParallelGridAppController
+//
+// Author: Alyce Brady
+//
+// License Information:
+//   This class is free software; you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation.
+//
+//   This class is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+
+package edu.kzoo.grid.gui;
+
+import edu.kzoo.grid.Grid;
+import edu.kzoo.grid.GridObject;
+import edu.kzoo.grid.Location;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ *  Grid GUI Support Package:<br>
+ *
+ *  A <code>ParallelGridAppController</code> controls the running of a
+ *  grid application in the same way as an
+ *  <code>ActiveGridAppController</code>, asking every object in the grid
+ *  to <code>act</code> in each timestep, but runs the objects'
+ *  <code>act</code> methods on several threads.  The grid is divided into
+ *  square tiles, and the tiles are colored in a repeating three-by-three
+ *  pattern of nine colors, so that any two tiles of the same color have
+ *  at least two other tiles between them, across, down, or diagonally.
+ *  Each step runs nine phases, one per color; in each phase the tiles of
+ *  that color run at the same time on a fork-join pool, and within a
+ *  tile the objects act one at a time, in row-major order of their
+ *  locations at the start of the step.
+ *
+ *  <p>
+ *  Tiles of the same color are at least two tiles apart, so two objects
+ *  acting at the same time are more than <code>2 * tileSize</code> rows
+ *  or columns apart.  If each object's <code>act</code> method looks at
+ *  and changes only cells within <code>tileSize</code> rows and columns
+ *  of its own location, the cells that two such objects reach never
+ *  overlap, so the objects never interfere with each other, and the
+ *  result of a step is the same as if the objects had acted on one
+ *  thread in the order: phase by phase, tile by tile in row-major order,
+ *  and object by object in row-major order.  (Objects that draw random
+ *  numbers from a shared generator will not reproduce the same results
+ *  from run to run, since the order in which threads draw numbers
+ *  varies.)  As with <code>ActiveGridAppController</code>, the objects
+ *  that act are those in the grid at the start of the step.
+ *
+ *  <p>
+ *  The grid must be safe to modify from several threads, which all grids
+ *  in the Grid package are; a <code>StripedGrid</code> lets objects in
+ *  different parts of the grid change it without waiting for each other.
+ *  Since it is a <code>SteppedGridAppController</code>, a
+ *  <code>ParallelGridAppController</code> can be used with a
+ *  <code>SteppedGridAppFrame</code> like any other controller.
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ **/
+public class ParallelGridAppController extends SteppedGridAppController
+{
+    /** Number of rows (and columns) in a tile if none is specified. **/
+    public static final int DEFAULT_TILE_SIZE = 16;
+
+    // Number of tile colors, and so of phases in each step.
+    private static final int NUM_COLORS = 9;
+
+    private final ForkJoinPool pool;
+    private final int tileSize;
+
+    /** Constructs a controller that uses as many threads as there are
+     *  processors and tiles of <code>DEFAULT_TILE_SIZE</code> rows and
+     *  columns.
+     **/
+    public ParallelGridAppController()
+    {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_TILE_SIZE);
+    }
+
+    /** Constructs a controller that uses the given number of threads and
+     *  tiles of the given size.  Tiles should be at least as large as the
+     *  distance from which an object's <code>act</code> method looks at
+     *  or changes the grid.
+     *  (Precondition: <code>numThreads > 0</code> and
+     *  <code>tileSize > 0</code>.)
+     *    @param numThreads  the number of threads on which to run objects
+     *    @param tileSize    the number of rows and columns in each tile
+     *    @throws    IllegalArgumentException if the precondition is not met
+     **/
+    public ParallelGridAppController(int numThreads, int tileSize)
+    {
+        if ( numThreads <= 0 || tileSize <= 0 )
+            throw new IllegalArgumentException("Thread count and tile size" +
+                                               " must be positive");
+        this.pool = new ForkJoinPool(numThreads);
+        this.tileSize = tileSize;
+    }
+
+    /** Returns the number of threads on which objects act.
+     *    @return the number of threads
+     **/
+    public int numThreads()
+    {
+        return pool.getParallelism();
+    }
+
+    /** Returns the number of rows (and columns) in each tile.
+     *    @return the tile size
+     **/
+    public int tileSize()
+    {
+        return tileSize;
+    }
+
+    /** Advances the application one step by asking every object in
+     *  the grid to <code>act</code>, running the objects in
+     *  tiles of the same color at the same time.
+     **/
+    public void step()
+    {
+        Grid grid = getGrid();
+        if ( grid == null )
+            return;
+
+        // Sort the objects in the grid at the start of the step into
+        // tiles, by color, and into the order in which they act.
+        GridObject[] objects = grid.allObjects();
+        final long[] tileRows = new long[objects.length];
+        final long[] tileCols = new long[objects.length];
+        final int[] rows = new int[objects.length];
+        final int[] cols = new int[objects.length];
+        Integer[] order = new Integer[objects.length];
+        for ( int i = 0; i < objects.length; i++ )
+        {
+            Location loc = objects[i].location();
+            rows[i] = loc.row();
+            cols[i] = loc.col();
+            tileRows[i] = Math.floorDiv(rows[i], tileSize);
+            tileCols[i] = Math.floorDiv(cols[i], tileSize);
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer i1, Integer i2)
+            {
+                int a = i1, b = i2;
+                int result = Integer.compare(colorOf(tileRows[a], tileCols[a]),
+                                             colorOf(tileRows[b], tileCols[b]));
+                if ( result == 0 )
+                    result = Long.compare(tileRows[a], tileRows[b]);
+                if ( result == 0 )
+                    result = Long.compare(tileCols[a], tileCols[b]);
+                if ( result == 0 )
+                    result = Integer.compare(rows[a], rows[b]);
+                if ( result == 0 )
+                    result = Integer.compare(cols[a], cols[b]);
+                return result;
+            }});
+
+        // Run the tiles of each color in turn.
+        int start = 0;
+        for ( int color = 0; color < NUM_COLORS; color++ )
+        {
+            List<TileAction> tiles = new ArrayList<TileAction>();
+            while ( start < order.length &&
+                    colorOf(tileRows[order[start]],
+                            tileCols[order[start]]) == color )
+            {
+                int end = start + 1;
+                while ( end < order.length &&
+                        tileRows[order[end]] == tileRows[order[start]] &&
+                        tileCols[order[end]] == tileCols[order[start]] )
+                    end++;
+                GridObject[] tileObjects = new GridObject[end - start];
+                for ( int i = start; i < end; i++ )
+                    tileObjects[i - start] = objects[order[i]];
+                tiles.add(new TileAction(tileObjects));
+                start = end;
+            }
+            runPhase(tiles);
+        }
+    }
+
+    /** Runs the given tiles at the same time, returning when all of them
+     *  are done.
+     **/
+    private void runPhase(final List<TileAction> tiles)
+    {
+        if ( tiles.isEmpty() )
+            return;
+        if ( tiles.size() == 1 || pool.getParallelism() == 1 )
+        {
+            for ( TileAction tile : tiles )
+                tile.actAll();
+            return;
+        }
+        pool.invoke(new RecursiveAction() {
+            protected void compute()
+            {
+                invokeAll(tiles);
+            }});
+    }
+
+    /** Returns the color of the tile with the given tile coordinates.
+     **/
+    private static int colorOf(long tileRow, long tileCol)
+    {
+        return Math.floorMod(tileRow, 3) * 3 + Math.floorMod(tileCol, 3);
+    }
+
+
+    /** A <code>TileAction</code> asks the objects in one tile to act, one
+     *  at a time.
+     **/
+    private static class TileAction extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final GridObject[] objects;
+
+        TileAction(GridObject[] objects)
+        {
+            this.objects = objects;
+        }
+
+        protected void compute()
+        {
+            actAll();
+        }
+
+        void actAll()
+        {
+            for ( int i = 0; i < objects.length; i++ )
+                objects[i].act();
+        }
+    }
+
+}
@@ -305,10 +305,14 @@ public class SteppedGridAppFrame extends GridAppFrame
             showGrid();
     }
 
-    /** Advances the application one step. **/
+    /** Advances the application one step, then delivers the step's
+     *  changes to the grid's mutation listeners.
+     **/
     public void step()
     {
         appController.step();
+        if ( getGrid() != null )
+            getGrid().flushMutations();
 
         if ( runningNSteps )
             numStepsSoFar++;
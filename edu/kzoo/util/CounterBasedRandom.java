@@ -0,0 +1,201 @@
+// Class: CounterBasedRandom
+//
+// Author: Alyce Brady
+//
+// License Information:
+// This class is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation.
+//
+// This class is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+
+package edu.kzoo.util;
+
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
+/**
+ *  Kalamazoo College Utility Classes:<br>
+ *
+ *  A <code>CounterBasedRandom</code> object is a random number generator
+ *  whose numbers are computed, rather than produced one after another
+ *  from a changing seed.  Its <em>n</em>th number is a hash of a global
+ *  seed, a step number, a key, and the counter <em>n</em>, using the
+ *  SplitMix64 mixing function.  Two generators created with the same
+ *  seed, step, and key always produce the same numbers, whatever thread
+ *  they are used on and whatever other generators are doing.
+ *
+ *  <p>
+ *  In a simulation whose objects act on several threads, each object can
+ *  create its own generator in each step, keyed by the step number and
+ *  something that identifies the object, such as its location packed by
+ *  <code>Location.pack</code> or an id number:
+ *    <pre><code>
+ *       Random rng = CounterBasedRandom.forKey(seed, stepNum, id);
+ *       int anInt = rng.nextInt(4);
+ *    </code></pre>
+ *  The object then draws the same numbers whether the simulation runs on
+ *  one thread or many, so seeded runs are reproducible, and no two
+ *  threads ever share a generator.
+ *
+ *  <p>
+ *  <code>CounterBasedRandom</code> extends <code>java.util.Random</code>,
+ *  so it can be used wherever a <code>Random</code> is expected.  Unlike
+ *  <code>Random</code>, a single <code>CounterBasedRandom</code> object
+ *  is not safe to use on several threads at once, and it cannot be
+ *  serialized: a generator is cheap to create again from its seed,
+ *  step, and key.
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ **/
+public class CounterBasedRandom extends Random
+{
+    private static final long serialVersionUID = 1L;
+
+    // Odd constants used by SplitMix64 to spread successive inputs.
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final long STEP_GAMMA = 0xc2b2ae3d27d4eb4fL;
+    private static final long KEY_GAMMA = 0x165667b19e3779f9L;
+
+    // Encapsulated data for each generator.
+    private long base;          // hash of the seed, step, and key
+    private long counter;       // number of values drawn so far
+
+    /** Constructs a generator for the given seed, step, and key.
+     *  @param seed  the global seed of the run
+     *  @param step  the step (or generation) number
+     *  @param key   a value identifying the drawer, such as an object id
+     *               or packed location
+     **/
+    public CounterBasedRandom(long seed, long step, long key)
+    {
+        super(0L);
+        this.base = baseFor(seed, step, key);
+        this.counter = 0;
+    }
+
+    /** Returns a generator for the given seed, step, and key.
+     *  @param seed  the global seed of the run
+     *  @param step  the step (or generation) number
+     *  @param key   a value identifying the drawer, such as an object id
+     *               or packed location
+     *  @return      a generator whose numbers depend only on
+     *               <code>seed</code>, <code>step</code>, and
+     *               <code>key</code>
+     **/
+    public static CounterBasedRandom forKey(long seed, long step, long key)
+    {
+        return new CounterBasedRandom(seed, step, key);
+    }
+
+    /** Returns the 64-bit value at position <code>counter</code> in the
+     *  sequence of a generator for the given seed, step, and key, without
+     *  creating a generator.  The generator's <code>next(bits)</code>
+     *  method returns the high <code>bits</code> bits of this value.
+     *  @param seed     the global seed of the run
+     *  @param step     the step (or generation) number
+     *  @param key      a value identifying the drawer
+     *  @param counter  the position of the value in the generator's
+     *                  sequence, starting at 0
+     *  @return         a random 64-bit value
+     **/
+    public static long valueAt(long seed, long step, long key, long counter)
+    {
+        return mix(baseFor(seed, step, key) + (counter + 1) * GOLDEN_GAMMA);
+    }
+
+  // methods dealing with serialization
+
+    /** Refuses to serialize this generator.  A generator is meant to be
+     *  created again from its seed, step, and key rather than saved, so
+     *  its state is not promised to survive being written and read back.
+     *  @throws NotSerializableException always
+     **/
+    private void writeObject(ObjectOutputStream out)
+        throws NotSerializableException
+    {
+        throw new NotSerializableException(getClass().getName());
+    }
+
+    /** Refuses to deserialize a generator.
+     *  @throws NotSerializableException always
+     **/
+    private void readObject(ObjectInputStream in)
+        throws NotSerializableException
+    {
+        throw new NotSerializableException(getClass().getName());
+    }
+
+  // accessor methods
+
+    /** Returns the number of 32-bit (or smaller) values this generator
+     *  has produced; a <code>long</code> or <code>double</code> counts
+     *  as two.
+     *  @return  the position of the next value in this generator's
+     *           sequence
+     **/
+    public long counter()
+    {
+        return counter;
+    }
+
+  // modifier methods
+
+    /** Restarts this generator with the given seed, using step 0 and
+     *  key 0.
+     *  @param seed  the global seed of the run
+     **/
+    public void setSeed(long seed)
+    {
+        // Random's constructor calls this method before this object's
+        // fields are initialized; the constructor then sets them.
+        this.base = baseFor(seed, 0L, 0L);
+        this.counter = 0;
+    }
+
+    /** Returns the next 64-bit value in this generator's sequence.
+     *  @return  a random <code>long</code>
+     **/
+    public long nextLong()
+    {
+        counter += 2;
+        return mix(base + counter * GOLDEN_GAMMA);
+    }
+
+    /** Returns the next value in this generator's sequence, with the
+     *  given number of random bits.  All the other methods inherited from
+     *  <code>Random</code> draw their numbers through this method.
+     *  @param bits  the number of random bits (at most 32)
+     *  @return      a random value with <code>bits</code> random low bits
+     **/
+    protected int next(int bits)
+    {
+        counter++;
+        return (int) (mix(base + counter * GOLDEN_GAMMA) >>> (64 - bits));
+    }
+
+    /** Combines a seed, step, and key into the starting point of a
+     *  sequence.
+     **/
+    private static long baseFor(long seed, long step, long key)
+    {
+        long h = mix(seed + GOLDEN_GAMMA);
+        h = mix(h + (step + 1) * STEP_GAMMA);
+        return mix(h + (key + 1) * KEY_GAMMA);
+    }
+
+    /** SplitMix64's finalizer, which scrambles all 64 bits of its input.
+     **/
+    private static long mix(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,235 @@
+// Class: LongIntHashMap
+//
+// Author: Alyce Brady
+//
+// License Information:
+// This class is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation.
+//
+// This class is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+
+package edu.kzoo.util;
+
+/**
+ *  Kalamazoo College Utility Classes:<br>
+ *
+ *  A <code>LongIntHashMap</code> maps primitive <code>long</code> keys
+ *  to non-negative <code>int</code> values.  It uses open addressing with
+ *  linear probing, so neither keys nor values are boxed and lookups do
+ *  not allocate.  Removals use backward-shift deletion, so the table
+ *  never fills up with "deleted" markers.
+ *
+ *  <p>
+ *  A typical use is mapping a packed (row, column) location, as
+ *  produced by <code>Location.pack</code>, to an index into a dense
+ *  array of objects.
+ *
+ *  @author Alyce Brady
+ *  @version 17 October 2026
+ **/
+public class LongIntHashMap
+{
+    /** Value returned by <code>get</code> and <code>remove</code> when
+     *  there is no mapping for a key.
+     **/
+    public static final int NO_VALUE = -1;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // Encapsulated data for each map.  A slot is in use if and only if
+    // its value is not NO_VALUE.
+    private long[] keys;
+    private int[] values;
+    private int mask;           // keys.length - 1 (table size is a power of 2)
+    private int size;           // number of mappings
+    private int resizeAt;       // size at which the table is doubled
+
+    /** Constructs an empty map.
+     **/
+    public LongIntHashMap()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /** Constructs an empty map that can hold <code>expectedSize</code>
+     *  mappings without being resized.
+     *  @param expectedSize  the expected number of mappings
+     **/
+    public LongIntHashMap(int expectedSize)
+    {
+        int capacity = DEFAULT_CAPACITY;
+        while ( capacity * 3 / 4 < expectedSize )
+            capacity *= 2;
+        allocate(capacity);
+    }
+
+    /** Returns the number of mappings in this map.
+     *  @return the number of keys with values
+     **/
+    public int size()
+    {
+        return size;
+    }
+
+    /** Returns the value associated with a key.
+     *  @param key  the key to look up
+     *  @return     the value associated with <code>key</code>, or
+     *              <code>NO_VALUE</code> if there is none
+     **/
+    public int get(long key)
+    {
+        int slot = hash(key) & mask;
+        while ( values[slot] != NO_VALUE )
+        {
+            if ( keys[slot] == key )
+                return values[slot];
+            slot = (slot + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    /** Indicates whether this map has a value for a key.
+     *  @param key  the key to look up
+     *  @return     <code>true</code> if <code>key</code> has a value
+     **/
+    public boolean containsKey(long key)
+    {
+        return get(key) != NO_VALUE;
+    }
+
+    /** Associates a value with a key, replacing any previous value.
+     *  (Precondition: <code>value >= 0</code>.)
+     *  @param key    the key
+     *  @param value  the value to associate with <code>key</code>
+     *  @return       the previous value for <code>key</code>, or
+     *                <code>NO_VALUE</code> if there was none
+     *  @throws IllegalArgumentException if the precondition is not met
+     **/
+    public int put(long key, int value)
+    {
+        if ( value < 0 )
+            throw new IllegalArgumentException("Negative value: " + value);
+
+        int slot = hash(key) & mask;
+        while ( values[slot] != NO_VALUE )
+        {
+            if ( keys[slot] == key )
+            {
+                int oldValue = values[slot];
+                values[slot] = value;
+                return oldValue;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if ( ++size >= resizeAt )
+            rehash(keys.length * 2);
+        return NO_VALUE;
+    }
+
+    /** Removes the mapping for a key, if there is one.
+     *  @param key  the key to remove
+     *  @return     the value that was associated with <code>key</code>, or
+     *              <code>NO_VALUE</code> if there was none
+     **/
+    public int remove(long key)
+    {
+        int slot = hash(key) & mask;
+        while ( values[slot] != NO_VALUE )
+        {
+            if ( keys[slot] == key )
+            {
+                int oldValue = values[slot];
+                shiftBackFrom(slot);
+                size--;
+                return oldValue;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    /** Removes all mappings from this map.  The table keeps its current
+     *  capacity.
+     **/
+    public void clear()
+    {
+        java.util.Arrays.fill(values, NO_VALUE);
+        size = 0;
+    }
+
+
+  // internal helper methods
+
+    /** Allocates an empty table with the given (power of 2) capacity.
+     **/
+    private void allocate(int capacity)
+    {
+        keys = new long[capacity];
+        values = new int[capacity];
+        java.util.Arrays.fill(values, NO_VALUE);
+        mask = capacity - 1;
+        resizeAt = capacity * 3 / 4;
+    }
+
+    /** Moves every mapping into a new table of the given capacity.
+     **/
+    private void rehash(int newCapacity)
+    {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+        for ( int i = 0; i < oldKeys.length; i++ )
+        {
+            if ( oldValues[i] != NO_VALUE )
+            {
+                int slot = hash(oldKeys[i]) & mask;
+                while ( values[slot] != NO_VALUE )
+                    slot = (slot + 1) & mask;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /** Empties the given slot and moves later entries of the same probe
+     *  run back so that every remaining key can still be found.
+     **/
+    private void shiftBackFrom(int emptied)
+    {
+        int slot = emptied;
+        while ( true )
+        {
+            slot = (slot + 1) & mask;
+            if ( values[slot] == NO_VALUE )
+                break;
+
+            // An entry may move back to the emptied slot only if its
+            // home slot is not in the (cyclic) range (emptied, slot].
+            int home = hash(keys[slot]) & mask;
+            if ( ((slot - home) & mask) >= ((slot - emptied) & mask) )
+            {
+                keys[emptied] = keys[slot];
+                values[emptied] = values[slot];
+                emptied = slot;
+            }
+        }
+        values[emptied] = NO_VALUE;
+    }
+
+    /** Spreads the bits of a key so that nearby locations do not cluster
+     *  in the table.
+     **/
+    private static int hash(long key)
+    {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+}
@@ -19,6 +19,7 @@
 package edu.kzoo.util;
 
 import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  *  Kalamazoo College Utility Classes:<br>
@@ -41,13 +42,31 @@ import java.util.Random;
  *    </code></pre>
  *
  *  <p>
+ *  By default, every thread draws from the single sequence of the
+ *  <code>Random</code> class, whose seed is updated atomically with each
+ *  number drawn; when many threads draw numbers at once, they wait on
+ *  each other to update the seed.  After a call to
+ *  <code>useThreadLocalStreams(true)</code>, each thread instead draws
+ *  from its own <code>SplittableRandom</code> stream, split from a root
+ *  stream the first time the thread draws a number, so threads do not
+ *  wait on each other.  <code>setSeed</code> still makes runs
+ *  repeatable in this mode: it reseeds the root stream, and each thread
+ *  gets a new stream split from it the next time it draws a number.  The
+ *  streams are split in the order in which threads first draw after the
+ *  seed is set, so a run is repeatable if its threads first draw in the
+ *  same order (as a single-threaded run always does).  Objects that must
+ *  draw the same numbers however threads are scheduled should use a
+ *  <code>CounterBasedRandom</code> instead.
+ *
+ *  <p>
  *  The original <code>RandNumGenerator</code> class, which provided
  *  a getInstance method but did not extend <code>Random</code>, was
  *  copyright&copy; 2002 College Entrance Examination Board
  *  (www.collegeboard.com).
  *
  *  @author Alyce Brady
- *  @version 1 December 2003
+ *  @version 17 October 2026
+ *  @see CounterBasedRandom
  **/
 public class RandNumGenerator extends Random
 {
@@ -55,6 +74,18 @@ public class RandNumGenerator extends Random
     private static RandNumGenerator theRandNumGenerator =
                                                 new RandNumGenerator();
 
+    // Whether each thread draws from its own stream.
+    private volatile boolean threadLocalStreams = false;
+
+    // Root of the thread-local streams, replaced when the seed is set.
+    // (Not initialized here, because Random's constructor calls setSeed,
+    // which sets it, before this class's initializers run.)
+    private volatile StreamRoot streamRoot;
+
+    // Each thread's stream, together with the root it was split from.
+    private final ThreadLocal<ThreadStream> threadStream =
+                                            new ThreadLocal<ThreadStream>();
+
     /* Private constructor ensures that a RandNumGenerator is ONLY
      * acquired through the getInstance method.
      */
@@ -71,6 +102,24 @@ public class RandNumGenerator extends Random
         return theRandNumGenerator;
     }
 
+    /** Specifies whether each thread should draw numbers from its own
+     *  stream rather than from the single shared sequence.
+     *  @param useStreams  <code>true</code> to give each thread its own
+     *                     stream; <code>false</code> to share one sequence
+     **/
+    public void useThreadLocalStreams(boolean useStreams)
+    {
+        threadLocalStreams = useStreams;
+    }
+
+    /** Indicates whether each thread draws numbers from its own stream.
+     *  @return  <code>true</code> if threads draw from their own streams
+     **/
+    public boolean usesThreadLocalStreams()
+    {
+        return threadLocalStreams;
+    }
+
   // Pretend to redefine key inherited Random methods so that they show
   // up as part of the RandNumGenerator class documentation.
 
@@ -82,6 +131,7 @@ public class RandNumGenerator extends Random
     public void setSeed(long seed)
     {
         super.setSeed(seed);
+        streamRoot = new StreamRoot(seed);
     }
 
     /** Returns a pseudorandom, uniformly distributed <code>boolean</code>
@@ -128,4 +178,69 @@ public class RandNumGenerator extends Random
     {
         return super.nextInt(n);
     }
+
+    /** Returns the next number, with the given number of random bits,
+     *  from the shared sequence or from the current thread's stream.
+     *  All the methods inherited from <code>Random</code> draw their
+     *  numbers through this method.
+     *     @param bits the number of random bits (at most 32)
+     *     @return a value with <code>bits</code> random low bits
+     **/
+    protected int next(int bits)
+    {
+        if ( ! threadLocalStreams )
+            return super.next(bits);
+        return currentStream().nextInt() >>> (32 - bits);
+    }
+
+    /** Returns the current thread's stream, splitting a new one from the
+     *  root if the thread has none or the seed has been set since its
+     *  stream was split.
+     **/
+    private SplittableRandom currentStream()
+    {
+        StreamRoot root = streamRoot;
+        ThreadStream stream = threadStream.get();
+        if ( stream == null || stream.root != root )
+        {
+            stream = new ThreadStream(root, root.split());
+            threadStream.set(stream);
+        }
+        return stream.random;
+    }
+
+
+    /** A <code>StreamRoot</code> is the stream from which threads' streams
+     *  are split after the seed is set.
+     **/
+    private static class StreamRoot
+    {
+        private final SplittableRandom root;
+
+        StreamRoot(long seed)
+        {
+            root = new SplittableRandom(seed);
+        }
+
+        synchronized SplittableRandom split()
+        {
+            return root.split();
+        }
+    }
+
+    /** A <code>ThreadStream</code> is one thread's stream and the root it
+     *  was split from.
+     **/
+    private static class ThreadStream
+    {
+        final StreamRoot root;
+        final SplittableRandom random;
+
+        ThreadStream(StreamRoot root, SplittableRandom random)
+        {
+            this.root = root;
+            this.random = random;
+        }
+    }
+
 }